@@ -0,0 +1,209 @@
+package com.aigreentick.services.messaging.broadcast.client.circuit;
+
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties.Settings;
+
+/**
+ * Count-per-second sliding window breaker. Closed admits everything, open
+ * admits nothing until openDurationMs has passed, half-open hands out a
+ * fixed number of probe permits and decides on their combined failure rate.
+ *
+ * Every transition starts a new generation. Permits carry the generation
+ * they were granted in, and releases or results from an earlier one are
+ * ignored: a send admitted while closed that completes after the breaker
+ * went half-open is not one of its probes.
+ *
+ * All methods are synchronized; callers touch it once per batch and once
+ * per completed send.
+ */
+public class SendCircuitBreaker {
+
+    // Re-check interval for callers turned away while all probes are in flight
+    static final long PROBE_WAIT_MS = 1000;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    @FunctionalInterface
+    public interface TransitionListener {
+        void onTransition(SendCircuitBreaker breaker, State from, State to);
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final TransitionListener listener;
+
+    private final long[] bucketSecond;
+    private final int[] bucketCalls;
+    private final int[] bucketFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openUntil;
+    private int probesIssued;
+    private int probeSuccesses;
+    private int probeFailures;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    public SendCircuitBreaker(String name, Settings settings, TransitionListener listener) {
+        this.name = name;
+        this.settings = settings;
+        this.listener = listener;
+        int buckets = Math.max(1, settings.getWindowSeconds());
+        this.bucketSecond = new long[buckets];
+        this.bucketCalls = new int[buckets];
+        this.bucketFailures = new int[buckets];
+    }
+
+    /**
+     * Ask for up to {@code wanted} sends. Permits are 0 when the breaker is
+     * open or all half-open probes are out; retryAfterMs says when to ask again.
+     */
+    public synchronized Permits tryAcquire(int wanted, long now) {
+        lastUsed = now;
+
+        if (state == State.OPEN) {
+            if (now < openUntil) {
+                return Permits.rejected(openUntil - now);
+            }
+            probesIssued = 0;
+            probeSuccesses = 0;
+            probeFailures = 0;
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            int available = settings.getHalfOpenProbes() - probesIssued;
+            if (available <= 0) {
+                return Permits.rejected(PROBE_WAIT_MS);
+            }
+            int granted = Math.min(wanted, available);
+            probesIssued += granted;
+            return new Permits(granted, 0, generation);
+        }
+
+        return new Permits(wanted, 0, generation);
+    }
+
+    /**
+     * Hand back permits of the given generation that were granted but not used.
+     */
+    public synchronized void release(int unused, long generation) {
+        if (generation == this.generation && state == State.HALF_OPEN && unused > 0) {
+            probesIssued = Math.max(probeSuccesses + probeFailures, probesIssued - unused);
+        }
+    }
+
+    /**
+     * Record the outcome of a send made on a permit of the given generation.
+     */
+    public synchronized void onResult(boolean failure, long generation, long now) {
+        lastUsed = now;
+        if (generation != this.generation) {
+            // Admitted before the last transition, e.g. a closed-era straggler
+            return;
+        }
+
+        switch (state) {
+            case CLOSED -> {
+                record(failure, now);
+                if (shouldOpen(now)) {
+                    open(now);
+                }
+            }
+            case HALF_OPEN -> {
+                if (failure) {
+                    probeFailures++;
+                } else {
+                    probeSuccesses++;
+                }
+                int probes = settings.getHalfOpenProbes();
+                if (probeFailures >= probes * settings.getFailureRateThreshold()) {
+                    open(now);
+                } else if (probeSuccesses + probeFailures >= probes) {
+                    resetWindow();
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Unreachable: open grants no permits in its generation
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    private void record(boolean failure, long now) {
+        long second = now / 1000;
+        int index = (int) (second % bucketSecond.length);
+        if (bucketSecond[index] != second) {
+            bucketSecond[index] = second;
+            bucketCalls[index] = 0;
+            bucketFailures[index] = 0;
+        }
+        bucketCalls[index]++;
+        if (failure) {
+            bucketFailures[index]++;
+        }
+    }
+
+    private boolean shouldOpen(long now) {
+        long oldest = now / 1000 - bucketSecond.length + 1;
+        int calls = 0;
+        int failures = 0;
+        for (int i = 0; i < bucketSecond.length; i++) {
+            if (bucketSecond[i] >= oldest) {
+                calls += bucketCalls[i];
+                failures += bucketFailures[i];
+            }
+        }
+        return calls >= settings.getMinimumCalls()
+                && failures >= calls * settings.getFailureRateThreshold();
+    }
+
+    private void open(long now) {
+        openUntil = now + settings.getOpenDurationMs();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < bucketSecond.length; i++) {
+            bucketSecond[i] = 0;
+            bucketCalls[i] = 0;
+            bucketFailures[i] = 0;
+        }
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        generation++;
+        listener.onTransition(this, previous, next);
+    }
+
+    /**
+     * Result of {@link #tryAcquire}, tagged with the generation it was granted in.
+     */
+    public record Permits(int permits, long retryAfterMs, long generation) {
+
+        static Permits rejected(long retryAfterMs) {
+            return new Permits(0, retryAfterMs, -1);
+        }
+
+        public boolean permitted() {
+            return permits > 0;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.aigreentick.services.messaging.broadcast.client.circuit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreaker.Permits;
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreaker.State;
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties;
+import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-phoneNumberId breakers plus one global breaker in front of the Graph API.
+ * A batch is admitted only when both agree; every completed send is recorded
+ * on both, against the generations its admission was granted in.
+ *
+ * Metrics: whatsapp.circuit.transitions{scope,from,to},
+ * whatsapp.circuit.rejections{scope}, whatsapp.circuit.tenants.open and
+ * whatsapp.circuit.global.state (0 closed, 1 open, 2 half-open).
+ */
+@Slf4j
+@Component
+public class SendCircuitBreakerRegistry {
+
+    private static final String GLOBAL = "global";
+    private static final String TENANT = "tenant";
+
+    private final CircuitBreakerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, SendCircuitBreaker> tenantBreakers = new ConcurrentHashMap<>();
+    private final SendCircuitBreaker globalBreaker;
+    private final Counter tenantRejections;
+    private final Counter globalRejections;
+
+    public SendCircuitBreakerRegistry(CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.globalBreaker = new SendCircuitBreaker(GLOBAL, properties.getGlobal(), this::onTransition);
+        this.tenantRejections = rejectionCounter(TENANT);
+        this.globalRejections = rejectionCounter(GLOBAL);
+
+        Gauge.builder("whatsapp.circuit.tenants.open", tenantBreakers, SendCircuitBreakerRegistry::countNotClosed)
+                .description("Tenant breakers currently open or half-open")
+                .register(meterRegistry);
+        Gauge.builder("whatsapp.circuit.global.state", globalBreaker, breaker -> breaker.getState().ordinal())
+                .description("Global breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * How many sends this tenant may start now. Zero permits means park the
+     * queue for retryAfterMs.
+     */
+    public Admission admit(String phoneNumberId, int wanted) {
+        if (!properties.isEnabled()) {
+            return new Admission(wanted, 0, 0, 0);
+        }
+
+        long now = System.currentTimeMillis();
+        SendCircuitBreaker tenant = tenantBreaker(phoneNumberId);
+
+        Permits tenantPermits = tenant.tryAcquire(wanted, now);
+        if (tenantPermits.permits() == 0) {
+            tenantRejections.increment();
+            return Admission.rejected(tenantPermits.retryAfterMs());
+        }
+
+        Permits globalPermits = globalBreaker.tryAcquire(tenantPermits.permits(), now);
+        if (globalPermits.permits() == 0) {
+            tenant.release(tenantPermits.permits(), tenantPermits.generation());
+            globalRejections.increment();
+            return Admission.rejected(globalPermits.retryAfterMs());
+        }
+
+        tenant.release(tenantPermits.permits() - globalPermits.permits(), tenantPermits.generation());
+        return new Admission(globalPermits.permits(), 0, tenantPermits.generation(), globalPermits.generation());
+    }
+
+    /**
+     * Return permits from {@link #admit} that were not used for sends.
+     */
+    public void release(String phoneNumberId, Admission admission, int unused) {
+        if (!properties.isEnabled() || unused <= 0) {
+            return;
+        }
+        tenantBreaker(phoneNumberId).release(unused, admission.tenantGeneration());
+        globalBreaker.release(unused, admission.globalGeneration());
+    }
+
+    /**
+     * Record one completed send made on a permit of admission. Transport
+     * errors, timeouts and 5xx count against both breakers; 429 only against
+     * the tenant. A request the client refused to send says nothing about the
+     * Graph API, so its permit is handed back instead.
+     */
+    public void record(String phoneNumberId, Admission admission, FacebookApiResponse<?> response, Throwable error) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        int status = error != null || response == null ? 0 : response.getStatusCode();
+        if (status == FacebookApiResponse.NOT_SENT) {
+            release(phoneNumberId, admission, 1);
+            return;
+        }
+        boolean serverFailure = error != null || response == null || status >= 500;
+        boolean tenantFailure = serverFailure || status == 429;
+
+        long now = System.currentTimeMillis();
+        tenantBreaker(phoneNumberId).onResult(tenantFailure, admission.tenantGeneration(), now);
+        globalBreaker.onResult(serverFailure, admission.globalGeneration(), now);
+    }
+
+    public State getState(String phoneNumberId) {
+        SendCircuitBreaker breaker = tenantBreakers.get(phoneNumberId);
+        return breaker != null ? breaker.getState() : State.CLOSED;
+    }
+
+    public State getGlobalState() {
+        return globalBreaker.getState();
+    }
+
+    /**
+     * Drop closed breakers of tenants that have been idle for a while.
+     */
+    @Scheduled(fixedRate = 300000) // Every 5 minutes
+    public void cleanupIdleBreakers() {
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(10);
+        tenantBreakers.values().removeIf(breaker ->
+                breaker.getLastUsed() < idleBefore && breaker.getState() == State.CLOSED);
+    }
+
+    private SendCircuitBreaker tenantBreaker(String phoneNumberId) {
+        return tenantBreakers.computeIfAbsent(phoneNumberId,
+                id -> new SendCircuitBreaker(id, properties.getTenant(), this::onTransition));
+    }
+
+    private void onTransition(SendCircuitBreaker breaker, State from, State to) {
+        String scope = breaker == globalBreaker ? GLOBAL : TENANT;
+
+        if (to == State.OPEN) {
+            log.warn("Circuit OPEN: scope={} name={} (was {})", scope, breaker.getName(), from);
+        } else {
+            log.info("Circuit {}: scope={} name={} (was {})", to, scope, breaker.getName(), from);
+        }
+
+        Counter.builder("whatsapp.circuit.transitions")
+                .description("Send circuit breaker state transitions")
+                .tag("scope", scope)
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter rejectionCounter(String scope) {
+        return Counter.builder("whatsapp.circuit.rejections")
+                .description("Batches parked because a send circuit breaker was open")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static double countNotClosed(ConcurrentHashMap<String, SendCircuitBreaker> breakers) {
+        int count = 0;
+        for (SendCircuitBreaker breaker : breakers.values()) {
+            if (breaker.getState() != State.CLOSED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Result of {@link #admit}: how many sends may start, and the tenant and
+     * global generations their outcomes are recorded against.
+     */
+    public record Admission(int permits, long retryAfterMs, long tenantGeneration, long globalGeneration) {
+
+        static Admission rejected(long retryAfterMs) {
+            return new Admission(0, retryAfterMs, -1, -1);
+        }
+
+        public boolean permitted() {
+            return permits > 0;
+        }
+    }
+}
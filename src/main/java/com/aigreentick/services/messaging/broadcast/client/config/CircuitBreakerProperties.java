@@ -0,0 +1,53 @@
+package com.aigreentick.services.messaging.broadcast.client.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Circuit breakers on the Graph API send path: one per phoneNumberId and one
+ * shared by all tenants.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "whatsapp-service.circuit-breaker")
+@Data
+public class CircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    private Settings tenant = new Settings(10, 20, 0.5, 30000, 5);
+
+    // Only 5xx and transport failures count here, so one throttled tenant cannot trip it
+    private Settings global = new Settings(10, 200, 0.5, 15000, 20);
+
+    @Data
+    public static class Settings {
+        // Sliding window the failure rate is computed over
+        private int windowSeconds;
+
+        // Calls needed in the window before the rate is trusted
+        private int minimumCalls;
+
+        // Failure (and timeout) fraction that opens the breaker
+        private double failureRateThreshold;
+
+        // How long an open breaker rejects before letting probes through
+        private long openDurationMs;
+
+        // Probe sends allowed while half-open; closes if their failure rate stays under the threshold
+        private int halfOpenProbes;
+
+        public Settings() {
+        }
+
+        public Settings(int windowSeconds, int minimumCalls, double failureRateThreshold,
+                long openDurationMs, int halfOpenProbes) {
+            this.windowSeconds = windowSeconds;
+            this.minimumCalls = minimumCalls;
+            this.failureRateThreshold = failureRateThreshold;
+            this.openDurationMs = openDurationMs;
+            this.halfOpenProbes = halfOpenProbes;
+        }
+    }
+}
@@ -15,4 +15,21 @@ public class WhatsappClientProperties {
     // Feature flags for dynamic enable/disable
     private volatile boolean outgoingEnabled = true;
     private volatile boolean incomingEnabled = true;
+
+    private Webhook webhook = new Webhook();
+
+    @Data
+    public static class Webhook {
+        // Echoed back during Meta's subscription handshake
+        private String verifyToken;
+
+        // App secret for X-Hub-Signature-256; unset rejects every webhook unless allowUnsigned
+        private String appSecret;
+
+        // Accept webhooks without checking their signature when appSecret is unset; local testing only
+        private boolean allowUnsigned = false;
+
+        // Longest a webhook waits for Kafka to accept its statuses before answering 503 so Meta retries
+        private long publishTimeoutMs = 5000;
+    }
 }
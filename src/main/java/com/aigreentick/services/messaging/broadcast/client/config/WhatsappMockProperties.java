@@ -0,0 +1,102 @@
+package com.aigreentick.services.messaging.broadcast.client.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Behaviour of the stress-test WhatsApp mock: latency model, failure rates,
+ * per-tenant throughput limits and scheduled error storms.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "whatsapp-mock")
+@Data
+public class WhatsappMockProperties {
+
+    private Latency latency = new Latency();
+
+    // Fraction of calls that fail with a random Graph API error
+    private double failureRate = 0.05;
+
+    // Fraction of successful sends reported as "accepted" (the rest are "sent")
+    private double acceptanceRate = 0.95;
+
+    // Messages per second allowed per phoneNumberId before answering 429 (0 = unlimited)
+    private int tenantMaxMps = 0;
+
+    // Threads that deliver completions when their simulated latency elapses
+    private int timerThreads = 4;
+
+    private List<ErrorStorm> errorStorms = new ArrayList<>();
+
+    public enum Distribution {
+        UNIFORM,
+        LOGNORMAL,
+        BIMODAL
+    }
+
+    @Data
+    public static class Latency {
+        private Distribution distribution = Distribution.UNIFORM;
+
+        // UNIFORM bounds
+        private long minMs = 50;
+        private long maxMs = 200;
+
+        // LOGNORMAL median and shape; BIMODAL uses medianMs for the fast mode
+        private long medianMs = 120;
+        private double sigma = 0.5;
+
+        // BIMODAL slow mode
+        private long slowMedianMs = 1500;
+        private double slowFraction = 0.1;
+
+        // Independent tail spikes added on top of any distribution
+        private double spikeProbability = 0.0;
+        private long spikeMs = 5000;
+
+        // Hard ceiling, mirrors the real client's response timeout
+        private long capMs = 30000;
+
+        /**
+         * Samples one response latency from this model.
+         */
+        public long sampleMs(ThreadLocalRandom random) {
+            double ms = switch (distribution) {
+                case UNIFORM -> minMs + random.nextDouble() * (maxMs - minMs);
+                case LOGNORMAL -> logNormal(random, medianMs);
+                case BIMODAL -> random.nextDouble() < slowFraction
+                        ? logNormal(random, slowMedianMs)
+                        : logNormal(random, medianMs);
+            };
+
+            if (spikeProbability > 0 && random.nextDouble() < spikeProbability) {
+                ms += spikeMs;
+            }
+            return Math.max(0, Math.min((long) ms, capMs));
+        }
+
+        private double logNormal(ThreadLocalRandom random, long median) {
+            return Math.exp(Math.log(Math.max(1, median)) + sigma * random.nextGaussian());
+        }
+    }
+
+    /**
+     * Window during which calls fail at an elevated rate. Offsets are relative
+     * to mock startup; a positive period repeats the storm.
+     */
+    @Data
+    public static class ErrorStorm {
+        private long startAfterSeconds;
+        private long durationSeconds = 30;
+        private long periodSeconds = 0;
+        private double failureRate = 1.0;
+        private int statusCode = 503;
+        private String errorMessage = "Service temporarily unavailable";
+    }
+}
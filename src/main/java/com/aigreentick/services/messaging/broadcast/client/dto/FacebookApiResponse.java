@@ -4,6 +4,10 @@ import lombok.Data;
 
 @Data
 public class FacebookApiResponse<T> {
+
+    // Status of a request the client refused to send, e.g. with outgoing requests disabled
+    public static final int NOT_SENT = -1;
+
     private boolean success;
     private T data;
     private String errorMessage;
@@ -25,5 +29,11 @@ public class FacebookApiResponse<T> {
         return response;
     }
 
+    public static <T> FacebookApiResponse<T> error(String errorMessage, int statusCode, T data) {
+        FacebookApiResponse<T> response = error(errorMessage, statusCode);
+        response.data = data;
+        return response;
+    }
+
 }
 
@@ -1,7 +1,10 @@
 package com.aigreentick.services.messaging.broadcast.client.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
 
 /**
  * Interface for WhatsApp messaging operations.
@@ -12,13 +15,32 @@ public interface WhatsappClientService {
     /**
      * Sends a WhatsApp message using a pre-approved template.
      * 
-     * @param bodyJson JSON payload for the message
+     * @param bodyJson UTF-8 JSON request body for the message
      * @param phoneNumberId WhatsApp Business Phone Number ID
      * @param accessToken WhatsApp Business API access token
-     * @return Response containing message details or error information
+     * @return Response carrying the raw Graph API body (success or error) and,
+     *         on success, the extracted message id and status
      */
-    FacebookApiResponse<SendTemplateMessageResponse> sendMessage(
-            String bodyJson, 
+    FacebookApiResponse<RawSendMessageResponse> sendMessage(
+            byte[] bodyJson, 
             String phoneNumberId, 
             String accessToken);
+
+    /**
+     * Non-blocking variant of {@link #sendMessage}.
+     * The default runs the blocking call on the given executor; implementations
+     * that can complete without parking a thread should override it.
+     *
+     * @param executor Executor for implementations that need a thread per call
+     * @return Future completed with the response; never completed exceptionally
+     *         by implementations that map errors into the response
+     */
+    default CompletableFuture<FacebookApiResponse<RawSendMessageResponse>> sendMessageAsync(
+            byte[] bodyJson,
+            String phoneNumberId,
+            String accessToken,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> sendMessage(bodyJson, phoneNumberId, accessToken), executor);
+    }
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.aigreentick.services.messaging.broadcast.client.service.impl;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.springframework.stereotype.Component;
 
 import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
 import com.aigreentick.services.messaging.broadcast.client.service.WhatsappClientService;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,10 +17,16 @@ import lombok.RequiredArgsConstructor;
 public class WhatsappClient {
     private final WhatsappClientService whatsappClientService;
 
-    public FacebookApiResponse<SendTemplateMessageResponse> sendMessage(String payload, String phoneNumberId,
+    public FacebookApiResponse<RawSendMessageResponse> sendMessage(byte[] payload, String phoneNumberId,
             String accessToken) {
         
         return whatsappClientService.sendMessage(payload, phoneNumberId, accessToken);
     }
 
+    public CompletableFuture<FacebookApiResponse<RawSendMessageResponse>> sendMessageAsync(byte[] payload,
+            String phoneNumberId, String accessToken, Executor executor) {
+
+        return whatsappClientService.sendMessageAsync(payload, phoneNumberId, accessToken, executor);
+    }
+
 }
@@ -1,154 +1,220 @@
 package com.aigreentick.services.messaging.broadcast.client.service.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Random;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties;
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties.ErrorStorm;
 import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
 import com.aigreentick.services.messaging.broadcast.client.service.WhatsappClientService;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse.WhatsAppContactDto;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse.WhatsAppMessageDto;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Mock implementation for stress testing.
  * Simulates Facebook WhatsApp Business API responses without making actual HTTP calls.
  * Active when profile is 'stress-test' or 'mock'.
+ *
+ * Latency, failure rates, per-tenant limits and error storms come from
+ * {@link WhatsappMockProperties}. Responses are completed on timer threads
+ * when their simulated latency elapses, so no thread is parked per call.
  */
 @Slf4j
 @Service
 @Profile("stress-test | mock")
 public class WhatsappClientMockImpl implements WhatsappClientService {
 
-    private static final Random random = new Random();
     private static final AtomicLong messageCounter = new AtomicLong(0);
-    
-    // Configurable parameters for realistic simulation
-    private static final int MIN_DELAY_MS = 50;
-    private static final int MAX_DELAY_MS = 200;
-    private static final double FAILURE_RATE = 0.05; // 5% failure rate
-    private static final double ACCEPTANCE_RATE = 0.95; // 95% accepted
-    
+
+    private static final String[] ERROR_TYPES = {
+        "Rate limit exceeded",
+        "Invalid phone number",
+        "Template not found",
+        "Network timeout"
+    };
+    private static final int[] ERROR_CODES = { 429, 400, 404, 503 };
+
+    private final WhatsappMockProperties properties;
+    private final ScheduledExecutorService[] timers;
+    private final long startedAt = System.currentTimeMillis();
+
+    // Per-tenant one-second windows for the MPS limit
+    private final ConcurrentHashMap<String, TenantWindow> tenantWindows = new ConcurrentHashMap<>();
+
     private final AtomicLong totalCalls = new AtomicLong(0);
     private final AtomicLong successCalls = new AtomicLong(0);
     private final AtomicLong failedCalls = new AtomicLong(0);
+    private final AtomicLong rateLimitedCalls = new AtomicLong(0);
+
+    public WhatsappClientMockImpl(WhatsappMockProperties properties) {
+        this.properties = properties;
+        this.timers = new ScheduledExecutorService[Math.max(1, properties.getTimerThreads())];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r);
+                t.setName("mock-timer-" + t.getId());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        log.info("WhatsApp mock initialized: latency={} failureRate={} tenantMaxMps={} errorStorms={}",
+                properties.getLatency().getDistribution(), properties.getFailureRate(),
+                properties.getTenantMaxMps(), properties.getErrorStorms().size());
+    }
 
     @Override
-    public FacebookApiResponse<SendTemplateMessageResponse> sendMessage(
-            String bodyJson, 
-            String phoneNumberId, 
+    public FacebookApiResponse<RawSendMessageResponse> sendMessage(
+            byte[] bodyJson,
+            String phoneNumberId,
             String accessToken) {
-        
-        long callNumber = totalCalls.incrementAndGet();
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            // Simulate realistic network delay
-            simulateNetworkDelay();
-            
-            // Randomly determine if this call should fail
-            boolean shouldFail = random.nextDouble() < FAILURE_RATE;
-            
-            if (shouldFail) {
-                return handleMockFailure(callNumber, startTime, phoneNumberId);
-            } else {
-                return handleMockSuccess(callNumber, startTime, phoneNumberId);
-            }
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Mock call interrupted. CallNumber={}", callNumber, e);
-            failedCalls.incrementAndGet();
-            return FacebookApiResponse.error("Request interrupted", 500);
-        }
+
+        return sendMessageAsync(bodyJson, phoneNumberId, accessToken, Runnable::run).join();
+    }
+
+    @Override
+    public CompletableFuture<FacebookApiResponse<RawSendMessageResponse>> sendMessageAsync(
+            byte[] bodyJson,
+            String phoneNumberId,
+            String accessToken,
+            Executor executor) {
+
+        totalCalls.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        FacebookApiResponse<RawSendMessageResponse> response = decideResponse(phoneNumberId, random);
+        long delay = properties.getLatency().sampleMs(random);
+
+        CompletableFuture<FacebookApiResponse<RawSendMessageResponse>> future = new CompletableFuture<>();
+        timers[random.nextInt(timers.length)].schedule(
+                () -> future.complete(response), delay, TimeUnit.MILLISECONDS);
+        return future;
     }
 
     /**
-     * Simulates network delay with random variation.
+     * Picks the outcome of a call: tenant limit first, then any active storm,
+     * then the baseline failure rate.
      */
-    private void simulateNetworkDelay() throws InterruptedException {
-        int delay = MIN_DELAY_MS + random.nextInt(MAX_DELAY_MS - MIN_DELAY_MS + 1);
-        Thread.sleep(delay);
+    private FacebookApiResponse<RawSendMessageResponse> decideResponse(
+            String phoneNumberId,
+            ThreadLocalRandom random) {
+
+        if (isOverTenantLimit(phoneNumberId)) {
+            rateLimitedCalls.incrementAndGet();
+            failedCalls.incrementAndGet();
+            return errorResponse("(#130429) Rate limit hit", 429);
+        }
+
+        ErrorStorm storm = activeStorm();
+        if (storm != null && random.nextDouble() < storm.getFailureRate()) {
+            failedCalls.incrementAndGet();
+            return errorResponse(storm.getErrorMessage(), storm.getStatusCode());
+        }
+
+        if (random.nextDouble() < properties.getFailureRate()) {
+            return handleMockFailure(random);
+        }
+        return handleMockSuccess(phoneNumberId, random);
+    }
+
+    private boolean isOverTenantLimit(String phoneNumberId) {
+        int maxMps = properties.getTenantMaxMps();
+        if (maxMps <= 0) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        return tenantWindows.computeIfAbsent(phoneNumberId, k -> new TenantWindow())
+                .incrementAndGet(second) > maxMps;
+    }
+
+    private ErrorStorm activeStorm() {
+        List<ErrorStorm> storms = properties.getErrorStorms();
+        if (storms.isEmpty()) {
+            return null;
+        }
+        long elapsedSeconds = (System.currentTimeMillis() - startedAt) / 1000;
+        for (ErrorStorm storm : storms) {
+            long offset = elapsedSeconds - storm.getStartAfterSeconds();
+            if (offset < 0) {
+                continue;
+            }
+            if (storm.getPeriodSeconds() > 0) {
+                offset %= storm.getPeriodSeconds();
+            }
+            if (offset < storm.getDurationSeconds()) {
+                return storm;
+            }
+        }
+        return null;
     }
 
     /**
      * Handles mock successful response.
+     * The body is built directly as bytes, the same shape Graph API returns.
      */
-    private FacebookApiResponse<SendTemplateMessageResponse> handleMockSuccess(
-            long callNumber, 
-            long startTime, 
-            String phoneNumberId) {
-        
+    private FacebookApiResponse<RawSendMessageResponse> handleMockSuccess(
+            String phoneNumberId,
+            ThreadLocalRandom random) {
+
         successCalls.incrementAndGet();
-        
+
         // Generate realistic message ID
-        String messageId = generateMessageId();
-        
+        String messageId = generateMessageId(random);
+
         // Determine message status (most are accepted)
-        String status = random.nextDouble() < ACCEPTANCE_RATE ? "accepted" : "sent";
-        
-        // Build response
-        SendTemplateMessageResponse response = new SendTemplateMessageResponse();
-        response.setMessagingProduct("whatsapp");
-        
-        // Add contact info
-        WhatsAppContactDto contact = new WhatsAppContactDto();
-        contact.setInput(   phoneNumberId);
-        contact.setWaId(phoneNumberId);
-        response.setContacts(List.of(contact));
-        
-        // Add message info
-        WhatsAppMessageDto message = new WhatsAppMessageDto(messageId, status);
-        response.setMessages(List.of(message));
-        
-        long duration = System.currentTimeMillis() - startTime;
-        
-        return FacebookApiResponse.success(response, 200);
+        String status = random.nextDouble() < properties.getAcceptanceRate() ? "accepted" : "sent";
+
+        String body = "{\"messaging_product\":\"whatsapp\","
+                + "\"contacts\":[{\"input\":\"" + phoneNumberId + "\",\"wa_id\":\"" + phoneNumberId + "\"}],"
+                + "\"messages\":[{\"id\":\"" + messageId + "\",\"message_status\":\"" + status + "\"}]}";
+
+        return FacebookApiResponse.success(
+                new RawSendMessageResponse(body.getBytes(StandardCharsets.UTF_8), messageId, status), 200);
     }
 
     /**
      * Handles mock failure response.
      */
-    private FacebookApiResponse<SendTemplateMessageResponse> handleMockFailure(
-            long callNumber, 
-            long startTime, 
-            String phoneNumberId) {
-        
+    private FacebookApiResponse<RawSendMessageResponse> handleMockFailure(ThreadLocalRandom random) {
+
         failedCalls.incrementAndGet();
-        
+
         // Randomly select failure type
-        String[] errorTypes = {
-            "Rate limit exceeded",
-            "Invalid phone number",
-            "Template not found",
-            "Network timeout"
-        };
-        
-        int[] errorCodes = { 429, 400, 404, 503 };
-        int errorIndex = random.nextInt(errorTypes.length);
-        
-        String errorMessage = errorTypes[errorIndex];
-        int errorCode = errorCodes[errorIndex];
-        
-        long duration = System.currentTimeMillis() - startTime;
-        
-        return FacebookApiResponse.error(errorMessage, errorCode);
+        int errorIndex = random.nextInt(ERROR_TYPES.length);
+
+        return errorResponse(ERROR_TYPES[errorIndex], ERROR_CODES[errorIndex]);
+    }
+
+    /**
+     * Error with a Graph-style error body.
+     */
+    private static FacebookApiResponse<RawSendMessageResponse> errorResponse(String message, int statusCode) {
+        String escaped = message.replace("\\", "\\\\").replace("\"", "\\\"");
+        String body = "{\"error\":{\"message\":\"" + escaped + "\",\"code\":" + statusCode + "}}";
+        return FacebookApiResponse.error(message, statusCode,
+                RawSendMessageResponse.of(body.getBytes(StandardCharsets.UTF_8)));
     }
 
     /**
      * Generates realistic WhatsApp message ID.
-     * Format: wamid.{UUID}
+     * Format: wamid.{random hex}_{sequence}
      */
-    private String generateMessageId() {
+    private String generateMessageId(ThreadLocalRandom random) {
         long sequenceNum = messageCounter.incrementAndGet();
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        return String.format("wamid.%s_%d", uuid, sequenceNum);
+        return "wamid." + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong())
+                + "_" + sequenceNum;
     }
 
     /**
@@ -159,6 +225,7 @@ public class WhatsappClientMockImpl implements WhatsappClientService {
                 totalCalls.get(),
                 successCalls.get(),
                 failedCalls.get(),
+                rateLimitedCalls.get(),
                 calculateSuccessRate()
         );
     }
@@ -179,9 +246,33 @@ public class WhatsappClientMockImpl implements WhatsappClientService {
         totalCalls.set(0);
         successCalls.set(0);
         failedCalls.set(0);
+        rateLimitedCalls.set(0);
         log.info("Mock statistics reset");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        for (ScheduledExecutorService timer : timers) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Fixed one-second counting window for a single tenant.
+     */
+    private static class TenantWindow {
+        private long second;
+        private int count;
+
+        synchronized int incrementAndGet(long now) {
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            return ++count;
+        }
+    }
+
     /**
      * Statistics holder for mock client.
      */
@@ -189,12 +280,13 @@ public class WhatsappClientMockImpl implements WhatsappClientService {
             long totalCalls,
             long successCalls,
             long failedCalls,
+            long rateLimitedCalls,
             double successRate
     ) {
         @Override
         public String toString() {
-            return String.format("Total: %d, Success: %d, Failed: %d, Success Rate: %.2f%%",
-                    totalCalls, successCalls, failedCalls, successRate);
+            return String.format("Total: %d, Success: %d, Failed: %d, Rate limited: %d, Success Rate: %.2f%%",
+                    totalCalls, successCalls, failedCalls, rateLimitedCalls, successRate);
         }
     }
-}
\ No newline at end of file
+}
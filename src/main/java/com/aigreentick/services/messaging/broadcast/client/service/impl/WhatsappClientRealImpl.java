@@ -2,27 +2,29 @@ package com.aigreentick.services.messaging.broadcast.client.service.impl;
 
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.aigreentick.services.messaging.broadcast.client.config.WhatsappClientProperties;
 import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
 import com.aigreentick.services.messaging.broadcast.client.service.WhatsappClientService;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Mono;
 
 /**
  * Real implementation that calls Facebook WhatsApp Business API.
  * Active when profile is NOT 'stress-test' or 'mock'.
+ *
+ * Response bodies are read as raw bytes; only messages[0].id and
+ * message_status are extracted, without binding the full response.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -30,17 +32,19 @@ import reactor.core.publisher.Mono;
 @Profile("!stress-test & !mock")
 public class WhatsappClientRealImpl implements WhatsappClientService {
 
+    private static final byte[] EMPTY_BODY = new byte[0];
+
     private final WebClient.Builder webClientBuilder;
     private final WhatsappClientProperties properties;
 
     @Override
-    public FacebookApiResponse<SendTemplateMessageResponse> sendMessage(
-            String bodyJson, 
-            String phoneNumberId, 
+    public FacebookApiResponse<RawSendMessageResponse> sendMessage(
+            byte[] bodyJson,
+            String phoneNumberId,
             String accessToken) {
 
         if (!properties.isOutgoingEnabled()) {
-            return FacebookApiResponse.error("Outgoing requests disabled", 503);
+            return FacebookApiResponse.error("Outgoing requests disabled", FacebookApiResponse.NOT_SENT);
         }
 
         URI uri = UriComponentsBuilder
@@ -50,31 +54,40 @@ public class WhatsappClientRealImpl implements WhatsappClientService {
                 .toUri();
 
         try {
-            SendTemplateMessageResponse response = webClientBuilder.build()
+            FacebookApiResponse<RawSendMessageResponse> response = webClientBuilder.build()
                     .post()
                     .uri(uri)
                     .contentType(MediaType.APPLICATION_JSON)
                     .headers(headers -> headers.setBearerAuth(accessToken))
                     .bodyValue(bodyJson)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError,
-                            r -> Mono.error(new RuntimeException("Facebook API returned 4xx")))
-                    .onStatus(HttpStatusCode::is5xxServerError,
-                            r -> Mono.error(new RuntimeException("Facebook API returned 5xx")))
-                    .bodyToMono(SendTemplateMessageResponse.class)
+                    .exchangeToMono(clientResponse -> clientResponse.bodyToMono(byte[].class)
+                            .defaultIfEmpty(EMPTY_BODY)
+                            .map(body -> toApiResponse(clientResponse.statusCode(), body)))
                     .block();
 
-            log.info("Template message sent. PHONE_NUMBER_ID={} Response={}", phoneNumberId, response);
-            return FacebookApiResponse.success(response, 200);
-
-        } catch (WebClientResponseException ex) {
-            log.error("Failed to send message. PHONE_NUMBER_ID={} Status={} Response={}",
-                    phoneNumberId, ex.getStatusCode().value(), ex.getResponseBodyAsString());
-            return FacebookApiResponse.error(ex.getResponseBodyAsString(), ex.getStatusCode().value());
+            if (response.isSuccess()) {
+                log.info("Template message sent. PHONE_NUMBER_ID={} MessageId={}",
+                        phoneNumberId, response.getData().messageId());
+            } else {
+                log.error("Failed to send message. PHONE_NUMBER_ID={} Status={} Response={}",
+                        phoneNumberId, response.getStatusCode(),
+                        new String(response.getData().body(), StandardCharsets.UTF_8));
+            }
+            return response;
 
         } catch (Exception ex) {
             log.error("Unexpected error while sending message. PHONE_NUMBER_ID={}", phoneNumberId, ex);
             return FacebookApiResponse.error("Internal Server Error: " + ex.getMessage(), 500);
         }
     }
-}   
\ No newline at end of file
+
+    private static FacebookApiResponse<RawSendMessageResponse> toApiResponse(HttpStatusCode status, byte[] body) {
+        if (status.is2xxSuccessful()) {
+            return FacebookApiResponse.success(RawSendMessageResponse.parse(body), status.value());
+        }
+        return FacebookApiResponse.error(
+                "Facebook API returned " + status.value(),
+                status.value(),
+                RawSendMessageResponse.of(body));
+    }
+}
@@ -1,20 +1,29 @@
 package com.aigreentick.services.messaging.broadcast.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.aigreentick.services.messaging.broadcast.dto.BroadcastDispatchRequestDto;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Control;
 import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastOrchestratorServiceImpl;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastProgressStream;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastProgressTracker;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastProgressTracker.BroadcastProgress;
 import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastOrchestratorServiceImpl.ResponseMessage;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
 /**
  * REST Controller for broadcast operations.
@@ -27,6 +36,9 @@ import lombok.extern.slf4j.Slf4j;
 public class BroadcastController {
 
     private final BroadcastOrchestratorServiceImpl broadcastOrchestrator;
+    private final BroadcastProgressTracker progressTracker;
+    private final BroadcastProgressStream progressStream;
+    private final BroadcastControlService controlService;
 
     /**
      * Dispatch pre-built templates to Kafka.
@@ -60,6 +72,81 @@ public class BroadcastController {
         }
     }
 
+    /**
+     * Progress counters of a broadcast, served from the broadcast_progress
+     * summary table (never from reports).
+     */
+    @GetMapping("/{broadcastId}/progress")
+    public ResponseEntity<BroadcastProgress> progress(@PathVariable Long broadcastId) {
+        return ResponseEntity.ok(progressTracker.getProgress(broadcastId));
+    }
+
+    /**
+     * Live progress as server-sent events: the current counters first, then a
+     * new event whenever they change. Slow clients only get the newest one.
+     */
+    @GetMapping(value = "/{broadcastId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BroadcastProgress>> progressStream(@PathVariable Long broadcastId) {
+        return progressStream.subscribe(broadcastId)
+                .map(progress -> ServerSentEvent.builder(progress)
+                        .event("progress")
+                        .build());
+    }
+
+    /**
+     * Stop a broadcast for good. Queued items are marked cancelled without
+     * calling Graph API; sends already in flight still complete.
+     */
+    @PostMapping("/{broadcastId}/cancel")
+    public ResponseEntity<Control> cancelBroadcast(@PathVariable Long broadcastId) {
+        return ResponseEntity.ok(controlService.cancelBroadcast(broadcastId));
+    }
+
+    @PostMapping("/{broadcastId}/pause")
+    public ResponseEntity<Control> pauseBroadcast(@PathVariable Long broadcastId) {
+        try {
+            return ResponseEntity.ok(controlService.pauseBroadcast(broadcastId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/{broadcastId}/resume")
+    public ResponseEntity<Void> resumeBroadcast(@PathVariable Long broadcastId) {
+        return controlService.resumeBroadcast(broadcastId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Cancel everything dispatched so far for a phoneNumberId; later
+     * dispatches are sent normally.
+     */
+    @PostMapping("/tenants/{phoneNumberId}/cancel")
+    public ResponseEntity<Control> cancelTenant(@PathVariable String phoneNumberId) {
+        return ResponseEntity.ok(controlService.cancelTenant(phoneNumberId));
+    }
+
+    /**
+     * Stop sending for a phoneNumberId; its items wait without holding
+     * threads or permits until resumed.
+     */
+    @PostMapping("/tenants/{phoneNumberId}/pause")
+    public ResponseEntity<Control> pauseTenant(@PathVariable String phoneNumberId) {
+        try {
+            return ResponseEntity.ok(controlService.pauseTenant(phoneNumberId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/tenants/{phoneNumberId}/resume")
+    public ResponseEntity<Void> resumeTenant(@PathVariable String phoneNumberId) {
+        return controlService.resumeTenant(phoneNumberId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/check")
     public ResponseEntity<String> checkRunning() {
         log.info("=== check Running Request Received ===");
@@ -0,0 +1,67 @@
+package com.aigreentick.services.messaging.broadcast.controller;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.RuntimeTuningService;
+import com.aigreentick.services.messaging.broadcast.service.impl.RuntimeTuningService.Knob;
+import com.aigreentick.services.messaging.broadcast.service.impl.RuntimeTuningService.Tuning;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * GET /actuator/tuning shows the throughput knobs of this instance; POST with
+ * any of them in a JSON body changes them, with an optional reason for the
+ * audit log. Out-of-range values are rejected with 400 and change nothing.
+ *
+ * There is no authentication in front of it, so it is not exposed and is
+ * read-only by default; see the management section of application.yml.
+ */
+@Component
+@Endpoint(id = "tuning")
+@RequiredArgsConstructor
+public class RuntimeTuningEndpoint {
+
+    private final RuntimeTuningService tuningService;
+
+    @ReadOperation
+    public Tuning tuning() {
+        return tuningService.current();
+    }
+
+    @WriteOperation
+    public Tuning update(
+            @Nullable Integer batchSize,
+            @Nullable Integer executorCorePoolSize,
+            @Nullable Integer executorMaxPoolSize,
+            @Nullable Integer tenantConcurrency,
+            @Nullable Integer consumerConcurrency,
+            @Nullable String reason) {
+
+        Map<Knob, Integer> changes = new EnumMap<>(Knob.class);
+        putIfSet(changes, Knob.BATCH_SIZE, batchSize);
+        putIfSet(changes, Knob.EXECUTOR_CORE_POOL_SIZE, executorCorePoolSize);
+        putIfSet(changes, Knob.EXECUTOR_MAX_POOL_SIZE, executorMaxPoolSize);
+        putIfSet(changes, Knob.TENANT_CONCURRENCY, tenantConcurrency);
+        putIfSet(changes, Knob.CONSUMER_CONCURRENCY, consumerConcurrency);
+
+        try {
+            return tuningService.apply(changes, reason);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    private static void putIfSet(Map<Knob, Integer> changes, Knob knob, Integer value) {
+        if (value != null) {
+            changes.put(knob, value);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.aigreentick.services.messaging.broadcast.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappClientProperties;
+import com.aigreentick.services.messaging.broadcast.dto.webhook.WhatsappWebhookPayload;
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.MessageStatusProducer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Receives WhatsApp Cloud API webhooks.
+ * Status callbacks are published to Kafka and the request returns once the
+ * broker has them, without touching the database; MessageStatusConsumer
+ * applies them in batches. A publish that fails or times out answers 503 so
+ * Meta redelivers the webhook.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/webhooks/whatsapp")
+@RequiredArgsConstructor
+public class WhatsappWebhookController {
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+
+    private final WhatsappClientProperties properties;
+    private final MessageStatusProducer statusProducer;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void checkSignatureConfig() {
+        if (!properties.isIncomingEnabled() || hasAppSecret()) {
+            return;
+        }
+        if (properties.getWebhook().isAllowUnsigned()) {
+            log.warn("Webhook signatures are NOT checked: no app secret and whatsapp-service.webhook.allow-unsigned "
+                    + "is on. Anyone reaching this endpoint can post statuses.");
+        } else {
+            log.error("No whatsapp-service.webhook.app-secret set, every webhook will be rejected");
+        }
+    }
+
+    /**
+     * Subscription handshake: echo hub.challenge when the verify token matches.
+     */
+    @GetMapping
+    public ResponseEntity<String> verify(
+            @RequestParam(name = "hub.mode", required = false) String mode,
+            @RequestParam(name = "hub.verify_token", required = false) String verifyToken,
+            @RequestParam(name = "hub.challenge", required = false) String challenge) {
+
+        String expected = properties.getWebhook().getVerifyToken();
+        if ("subscribe".equals(mode) && expected != null && expected.equals(verifyToken)) {
+            return ResponseEntity.ok(challenge);
+        }
+        log.warn("Webhook verification rejected. mode={}", mode);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> receive(
+            @RequestHeader(name = "X-Hub-Signature-256", required = false) String signature,
+            @RequestBody byte[] body) {
+
+        if (!properties.isIncomingEnabled()) {
+            // Meta retries non-2xx deliveries, so nothing is lost while disabled
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!signatureValid(signature, body)) {
+            log.warn("Webhook signature mismatch, dropping {} bytes", body.length);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        WhatsappWebhookPayload payload;
+        try {
+            payload = objectMapper.readValue(body, WhatsappWebhookPayload.class);
+        } catch (Exception e) {
+            log.warn("Unreadable webhook payload: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<CompletableFuture<?>> published;
+        try {
+            published = publishStatuses(payload);
+            CompletableFuture.allOf(published.toArray(CompletableFuture[]::new))
+                    .get(properties.getWebhook().getPublishTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            // Statuses already published are applied again on redelivery, which is idempotent
+            log.warn("Webhook statuses not published, answering 503 for redelivery: {}", e.toString());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        log.debug("Webhook received. statuses={}", published.size());
+
+        return ResponseEntity.ok().build();
+    }
+
+    private List<CompletableFuture<?>> publishStatuses(WhatsappWebhookPayload payload) {
+        List<CompletableFuture<?>> published = new ArrayList<>();
+        if (payload.getEntry() == null) {
+            return published;
+        }
+
+        long receivedAt = System.currentTimeMillis();
+
+        for (WhatsappWebhookPayload.Entry entry : payload.getEntry()) {
+            if (entry.getChanges() == null) {
+                continue;
+            }
+            for (WhatsappWebhookPayload.Change change : entry.getChanges()) {
+                WhatsappWebhookPayload.Value value = change.getValue();
+                if (value == null || value.getStatuses() == null) {
+                    continue;
+                }
+                String phoneNumberId = value.getMetadata() != null ? value.getMetadata().getPhoneNumberId() : null;
+
+                for (WhatsappWebhookPayload.Status status : value.getStatuses()) {
+                    if (status.getId() == null || status.getStatus() == null) {
+                        continue;
+                    }
+                    published.add(statusProducer.publishStatus(toEvent(status, phoneNumberId, receivedAt)));
+                }
+            }
+        }
+        return published;
+    }
+
+    private MessageStatusEvent toEvent(WhatsappWebhookPayload.Status status, String phoneNumberId, long receivedAt) {
+        WhatsappWebhookPayload.StatusError error = status.getErrors() != null && !status.getErrors().isEmpty()
+                ? status.getErrors().get(0)
+                : null;
+
+        return MessageStatusEvent.builder()
+                .messageId(status.getId())
+                .status(status.getStatus())
+                .statusTimestamp(parseTimestamp(status.getTimestamp(), receivedAt))
+                .phoneNumberId(phoneNumberId)
+                .recipientId(status.getRecipientId())
+                .errorCode(error != null ? error.getCode() : null)
+                .errorTitle(error != null ? error.getTitle() : null)
+                .receivedAt(receivedAt)
+                .build();
+    }
+
+    private static long parseTimestamp(String timestamp, long receivedAt) {
+        try {
+            return Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return receivedAt / 1000;
+        }
+    }
+
+    private boolean hasAppSecret() {
+        String appSecret = properties.getWebhook().getAppSecret();
+        return appSecret != null && !appSecret.isBlank();
+    }
+
+    /**
+     * Fails closed: without an app secret nothing is valid unless unsigned
+     * webhooks were explicitly allowed.
+     */
+    private boolean signatureValid(String signature, byte[] body) {
+        if (!hasAppSecret()) {
+            return properties.getWebhook().isAllowUnsigned();
+        }
+        String appSecret = properties.getWebhook().getAppSecret();
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(appSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = mac.doFinal(body);
+            byte[] actual = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
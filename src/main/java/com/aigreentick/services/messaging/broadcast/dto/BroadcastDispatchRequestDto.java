@@ -1,5 +1,7 @@
 package com.aigreentick.services.messaging.broadcast.dto;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 import jakarta.validation.Valid;
@@ -17,4 +19,16 @@ public class BroadcastDispatchRequestDto {
     @NotNull(message = "Account info is required")
     @Valid
     private WhatsappAccountInfo accountInfo;
+
+    // Optional total size of the campaign this request belongs to; lets a large
+    // campaign be spread over several partitions from its first message
+    private Long expectedTotal;
+
+    // Optional start time; a future value stores the items and publishes them
+    // when due instead of right away
+    private Instant sendAt;
+
+    // Optional window to spread the campaign's sends evenly over, e.g. PT2H;
+    // the campaign size is expectedTotal, or this request's items without it
+    private Duration dripWindow;
 }   
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.aigreentick.services.messaging.broadcast.dto.response;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Graph API send response kept as the raw body bytes, plus the two fields the
+ * report row needs. The body is stored as-is instead of being bound to
+ * {@link SendTemplateMessageResponse} and serialized again.
+ *
+ * @param body          Raw response body (success or Graph error), UTF-8 JSON
+ * @param messageId     messages[0].id, null if absent
+ * @param messageStatus messages[0].message_status, null if absent
+ */
+public record RawSendMessageResponse(
+        byte[] body,
+        String messageId,
+        String messageStatus) {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Wraps a body without looking inside it (error responses).
+     */
+    public static RawSendMessageResponse of(byte[] body) {
+        return new RawSendMessageResponse(body, null, null);
+    }
+
+    /**
+     * Extracts messages[0].id and messages[0].message_status with a streaming
+     * parser, skipping everything else. Malformed bodies yield null fields.
+     */
+    public static RawSendMessageResponse parse(byte[] body) {
+        String messageId = null;
+        String messageStatus = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return of(body);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("messages".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String messageField = parser.currentName();
+                            parser.nextToken();
+                            if ("id".equals(messageField)) {
+                                messageId = parser.getValueAsString();
+                            } else if ("message_status".equals(messageField)) {
+                                messageStatus = parser.getValueAsString();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    break;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            return of(body);
+        }
+
+        return new RawSendMessageResponse(body, messageId, messageStatus);
+    }
+}
@@ -0,0 +1,73 @@
+package com.aigreentick.services.messaging.broadcast.dto.webhook;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+/**
+ * WhatsApp Cloud API webhook notification. Only the parts needed for message
+ * status callbacks are mapped.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WhatsappWebhookPayload {
+
+    private String object;
+    private List<Entry> entry;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        private String id;
+        private List<Change> changes;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Change {
+        private String field;
+        private Value value;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Value {
+        @JsonProperty("messaging_product")
+        private String messagingProduct;
+
+        private Metadata metadata;
+        private List<Status> statuses;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Metadata {
+        @JsonProperty("phone_number_id")
+        private String phoneNumberId;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Status {
+        private String id;
+        private String status;
+
+        // Epoch seconds, sent as a string
+        private String timestamp;
+
+        @JsonProperty("recipient_id")
+        private String recipientId;
+
+        private List<StatusError> errors;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class StatusError {
+        private Integer code;
+        private String title;
+    }
+}
@@ -3,25 +3,40 @@ package com.aigreentick.services.messaging.broadcast.enums;
 /**
  * Enum representing WhatsApp message statuses.
  * Maps to database ENUM values in lowercase.
+ *
+ * Precedence orders a message's lifecycle: a status only replaces one with
+ * lower precedence, so late or out-of-order callbacks never move it back.
  */
 public enum MessageStatus {
-    PENDING("pending"),
-    SENT("sent"),
-    DELIVERED("delivered"),
-    READ("read"),
-    FAILED("failed"),
-    ACCEPTED("accepted");
+    PENDING("pending", 0),
+    SENT("sent", 2),
+    DELIVERED("delivered", 3),
+    READ("read", 4),
+    FAILED("failed", 5),
+    ACCEPTED("accepted", 1),
+    // Stopped by a broadcast cancel before it was sent; nothing follows it
+    CANCELLED("cancelled", 5);
 
     private final String value;
+    private final int precedence;
 
-    MessageStatus(String value) {
+    MessageStatus(String value, int precedence) {
         this.value = value;
+        this.precedence = precedence;
     }
 
     public String getValue() {
         return value;
     }
 
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    public boolean outranks(MessageStatus other) {
+        return precedence > other.precedence;
+    }
+
     /**
      * Convert string value to enum.
      * Handles case-insensitive matching.
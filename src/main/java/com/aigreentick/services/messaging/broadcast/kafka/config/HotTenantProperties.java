@@ -0,0 +1,32 @@
+package com.aigreentick.services.messaging.broadcast.kafka.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Splitting of hot tenants across several partitions of the broadcast topic.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "kafka.hot-tenant")
+@Data
+public class HotTenantProperties {
+
+    private boolean enabled = true;
+
+    // Publish rate one partition (one consumer thread) is expected to sustain
+    private int messagesPerSecondPerPartition = 200;
+
+    // Declared campaign size one partition should carry
+    private long declaredMessagesPerPartition = 20000;
+
+    // Upper bound on partitions per tenant
+    private int maxSplit = 8;
+
+    // Window the observed publish rate is measured over
+    private int windowSeconds = 10;
+
+    // How long a declared volume keeps the tenant split
+    private long declaredTtlSeconds = 1800;
+}
@@ -30,6 +30,15 @@ public class KafkaTopicConfig {
     @Value("${kafka.topics.campaign-dlq.replicas:2}")
     private int campaignDlqReplicas;
 
+    @Value("${kafka.topics.message-status.name}")
+    private String messageStatusTopicName;
+
+    @Value("${kafka.topics.message-status.partitions:20}")
+    private int messageStatusPartitions;
+
+    @Value("${kafka.topics.message-status.replicas:2}")
+    private int messageStatusReplicas;
+
     /**
      * Main topic for broadcast message events (high throughput).
      * Partitioned by broadcastId for parallel processing.
@@ -81,4 +90,26 @@ public class KafkaTopicConfig {
 
         return topic;
     }
-}
\ No newline at end of file
+
+    /**
+     * Webhook delivery statuses, keyed by message id.
+     */
+    @Bean
+    public NewTopic messageStatusTopic() {
+        NewTopic topic = TopicBuilder.name(messageStatusTopicName)
+                .partitions(messageStatusPartitions)
+                .replicas(messageStatusReplicas)
+                .config("retention.ms", "259200000") // 3 days
+                .config("compression.type", "snappy")
+                .config("min.insync.replicas", "1")
+                .build();
+
+        log.info("=== Message Status Topic Configuration ===");
+        log.info("  - Name: {}", messageStatusTopicName);
+        log.info("  - Partitions: {}", messageStatusPartitions);
+        log.info("  - Replicas: {}", messageStatusReplicas);
+        log.info("  - Retention: 3 days");
+
+        return topic;
+    }
+}
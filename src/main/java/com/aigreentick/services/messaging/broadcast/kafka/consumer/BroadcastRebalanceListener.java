@@ -0,0 +1,61 @@
+package com.aigreentick.services.messaging.broadcast.kafka.consumer;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rebalance hook for the broadcast listener.
+ *
+ * Before the container commits offsets of revoked partitions, the coordinator
+ * requeues their queued and held items and waits (up to drain-timeout-ms) for
+ * in-flight ones to be written and acknowledged, so the commit covers them.
+ * Lost partitions cannot be committed, so their items are only dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class BroadcastRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private final TenantPartitionBudget partitionBudget;
+    private final BatchCoordinator batchCoordinator;
+
+    @Value("${kafka.topics.campaign-messages.name}")
+    private String topicName;
+
+    @Value("${kafka.rebalance.drain-timeout-ms:10000}")
+    private long drainTimeoutMs = 10000;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitionBudget.partitionsAssigned(partitions);
+        batchCoordinator.onPartitionsAssigned(broadcastPartitions(partitions));
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitionBudget.partitionsRevoked(partitions);
+        batchCoordinator.onPartitionsRevoked(broadcastPartitions(partitions), drainTimeoutMs);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitionBudget.partitionsRevoked(partitions);
+        batchCoordinator.onPartitionsLost(broadcastPartitions(partitions));
+    }
+
+    private List<Integer> broadcastPartitions(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(partition -> partition.topic().equals(topicName))
+                .map(TopicPartition::partition)
+                .toList();
+    }
+}
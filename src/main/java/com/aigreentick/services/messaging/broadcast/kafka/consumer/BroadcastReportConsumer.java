@@ -27,9 +27,13 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class BroadcastReportConsumer {
 
+    // Looked up by RuntimeTuningService to change consumer concurrency
+    public static final String LISTENER_ID = "campaignMessages";
+
     private final BatchCoordinator batchCoordinator;
 
     @KafkaListener(
+        id = LISTENER_ID,
         topics = "${kafka.topics.campaign-messages.name}",
         groupId = "${spring.kafka.consumer.group-id}",
         containerFactory = "campaignKafkaListenerFactory"
@@ -52,14 +56,12 @@ public class BroadcastReportConsumer {
             // 4. Releasing semaphores
             // 5. Batch updating database
             // 6. Acknowledging messages
-            batchCoordinator.addEventToBatch(event, acknowledgment);
+            batchCoordinator.addEventToBatch(event, acknowledgment, partition, offset);
 
         } catch (Exception e) {
+            // Already acknowledged in offset order by the coordinator, to prevent infinite retry
             log.error("Failed to add event to batch. broadcastId={} recipient={} partition={} offset={}",
                 event.getBroadcastId(), event.getRecipient(), partition, offset, e);
-            
-            // Acknowledge to prevent infinite retry
-            acknowledgment.acknowledge();
         }
     }
 }
\ No newline at end of file
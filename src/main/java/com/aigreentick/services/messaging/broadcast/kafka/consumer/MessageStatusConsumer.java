@@ -0,0 +1,41 @@
+package com.aigreentick.services.messaging.broadcast.kafka.consumer;
+
+import java.util.List;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.broadcast.service.impl.MessageStatusCoalescer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands webhook statuses to the coalescing buffer, which writes one row per
+ * message per window and acknowledges the polls it covered (AckMode MANUAL).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageStatusConsumer {
+
+    // Paused by MessageStatusCoalescer while its buffer is full
+    public static final String LISTENER_ID = "messageStatuses";
+
+    private final MessageStatusCoalescer statusCoalescer;
+
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = "${kafka.topics.message-status.name}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "statusKafkaListenerFactory"
+    )
+    public void consumeStatuses(@Payload List<MessageStatusEvent> events, Acknowledgment acknowledgment) {
+        log.debug("Received {} message statuses", events.size());
+
+        statusCoalescer.offer(events, acknowledgment);
+    }
+}
@@ -0,0 +1,89 @@
+package com.aigreentick.services.messaging.broadcast.kafka.consumer;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.kafka.producer.TenantSplitPartitioner;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks which broadcast partitions this instance owns, so a split tenant's
+ * concurrency budget can be divided among the instances consuming its
+ * partitions.
+ */
+@Slf4j
+@Component
+public class TenantPartitionBudget {
+
+    @Value("${kafka.topics.campaign-messages.name}")
+    private String topicName;
+
+    @Value("${kafka.topics.campaign-messages.partitions:50}")
+    private int numPartitions;
+
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+
+    // Bumped on every assignment change so cached limits get recomputed
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Local share of a tenant's window: fullWindow scaled by the fraction of
+     * its split partitions owned here, never below 1.
+     */
+    public int windowLimit(String phoneNumberId, int split, int fullWindow) {
+        if (split <= 1) {
+            return fullWindow;
+        }
+
+        int[] partitions = TenantSplitPartitioner.partitionsFor(phoneNumberId, split, numPartitions);
+        int owned = 0;
+        for (int partition : partitions) {
+            if (ownedPartitions.contains(partition)) {
+                owned++;
+            }
+        }
+
+        // Records can still arrive for a partition that is being revoked
+        int share = Math.max(owned, 1);
+        return Math.max(1, (int) Math.ceil((double) fullWindow * share / partitions.length));
+    }
+
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        return Set.copyOf(ownedPartitions);
+    }
+
+    public void partitionsAssigned(Collection<TopicPartition> partitions) {
+        update(partitions, true);
+    }
+
+    public void partitionsRevoked(Collection<TopicPartition> partitions) {
+        update(partitions, false);
+    }
+
+    private void update(Collection<TopicPartition> partitions, boolean assigned) {
+        boolean changed = false;
+        for (TopicPartition partition : partitions) {
+            if (!partition.topic().equals(topicName)) {
+                continue;
+            }
+            changed |= assigned
+                    ? ownedPartitions.add(partition.partition())
+                    : ownedPartitions.remove(partition.partition());
+        }
+        if (changed) {
+            generation.incrementAndGet();
+            log.debug("Owned broadcast partitions: {}", ownedPartitions.size());
+        }
+    }
+}
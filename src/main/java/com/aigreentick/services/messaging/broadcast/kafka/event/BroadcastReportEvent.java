@@ -33,6 +33,8 @@ public class BroadcastReportEvent {
     private Long timestamp; // Event creation timestamp
     
     private Integer priority; // Message priority (optional)
+
+    private Integer partitionSplit; // Partitions the tenant is spread over when published (1 = not split)
     
     /**
      * Creates event for dispatch flow 
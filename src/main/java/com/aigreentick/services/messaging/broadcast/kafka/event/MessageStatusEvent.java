@@ -0,0 +1,31 @@
+package com.aigreentick.services.messaging.broadcast.kafka.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One delivery status callback for a sent message, keyed by messageId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageStatusEvent {
+    private String messageId; // WhatsApp message id (wamid), reports.message_id
+
+    private String status; // sent, delivered, read, failed
+
+    private Long statusTimestamp; // Epoch seconds reported by Meta
+
+    private String phoneNumberId;
+
+    private String recipientId;
+
+    private Integer errorCode; // Set for failed statuses
+
+    private String errorTitle;
+
+    private Long receivedAt; // Webhook receipt time (ms)
+}
@@ -3,6 +3,7 @@ package com.aigreentick.services.messaging.broadcast.kafka.producer;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -19,6 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class BroadcastReportProducer {
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final HotTenantTracker hotTenantTracker;
 
     @Value("${kafka.topics.campaign-messages.name}")
     private String topicName;
@@ -29,6 +31,7 @@ public class BroadcastReportProducer {
      * 
      * This ensures all messages for a WhatsApp Business Account go to the same
      * partition, aligning with per-account rate limiting and batching.
+     * Hot accounts are spread over several partitions by TenantSplitPartitioner.
      * 
      * @param event The message event to publish
      * @return CompletableFuture with send result
@@ -36,6 +39,7 @@ public class BroadcastReportProducer {
     public CompletableFuture<SendResult<String, Object>> publishMessage(BroadcastReportEvent event) {
         // CHANGED: Use phoneNumberId as partition key
         String partitionKey = event.getPhoneNumberId();
+        event.setPartitionSplit(hotTenantTracker.recordAndGetSplit(partitionKey));
 
         CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(
                 topicName,
@@ -66,12 +70,26 @@ public class BroadcastReportProducer {
      * @return CompletableFuture that completes when all messages are sent
      */
     public CompletableFuture<Void> publishBatch(List<BroadcastReportEvent> events) {
+        return publishBatch(events, event -> {
+        });
+    }
+
+    /**
+     * Publishes multiple campaign message events in batch, calling onPublished
+     * for each event Kafka accepts, also when others in the batch fail.
+     *
+     * @param events List of events to publish
+     * @param onPublished Called once per accepted event, on the producer's callback thread
+     * @return CompletableFuture that completes when all messages are sent
+     */
+    public CompletableFuture<Void> publishBatch(List<BroadcastReportEvent> events,
+            Consumer<BroadcastReportEvent> onPublished) {
         long startTime = System.currentTimeMillis();
 
         log.info("Publishing batch of {} campaign message events", events.size());
 
         CompletableFuture<?>[] futures = events.stream()
-                .map(this::publishMessage)
+                .map(event -> publishMessage(event).thenRun(() -> onPublished.accept(event)))
                 .toArray(CompletableFuture[]::new);
 
         return CompletableFuture.allOf(futures)
@@ -0,0 +1,110 @@
+package com.aigreentick.services.messaging.broadcast.kafka.producer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.kafka.config.HotTenantProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides how many partitions each phoneNumberId is spread over, from its
+ * observed publish rate and any declared campaign volume.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotTenantTracker {
+
+    private final HotTenantProperties properties;
+
+    private final ConcurrentHashMap<String, TenantVolume> volumes = new ConcurrentHashMap<>();
+
+    /**
+     * Count one record for the tenant and return its current split (1 = not split).
+     */
+    public int recordAndGetSplit(String phoneNumberId) {
+        if (!properties.isEnabled()) {
+            return 1;
+        }
+        TenantVolume volume = volumes.computeIfAbsent(phoneNumberId, k -> new TenantVolume(properties));
+        int split = volume.recordAndGetSplit(System.currentTimeMillis());
+        if (split != volume.lastLoggedSplit) {
+            volume.lastLoggedSplit = split;
+            log.info("Tenant split changed: phoneNumberId={} partitions={}", phoneNumberId, split);
+        }
+        return split;
+    }
+
+    /**
+     * Campaign size announced up front, so the split applies from the first record.
+     */
+    public void declareVolume(String phoneNumberId, long expectedMessages) {
+        if (!properties.isEnabled() || expectedMessages <= 0) {
+            return;
+        }
+        volumes.computeIfAbsent(phoneNumberId, k -> new TenantVolume(properties))
+                .declare(expectedMessages, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedRate = 300000) // Every 5 minutes
+    public void cleanupIdleTenants() {
+        long now = System.currentTimeMillis();
+        volumes.values().removeIf(volume -> volume.isIdle(now));
+    }
+
+    private static final class TenantVolume {
+
+        private final HotTenantProperties properties;
+        private final long[] bucketSecond;
+        private final int[] bucketCount;
+        private int declaredSplit = 1;
+        private long declaredUntil;
+        private long lastRecord;
+        private volatile int lastLoggedSplit = 1;
+
+        TenantVolume(HotTenantProperties properties) {
+            this.properties = properties;
+            int buckets = Math.max(1, properties.getWindowSeconds());
+            this.bucketSecond = new long[buckets];
+            this.bucketCount = new int[buckets];
+        }
+
+        synchronized int recordAndGetSplit(long now) {
+            lastRecord = now;
+            long second = now / 1000;
+            int index = (int) (second % bucketSecond.length);
+            if (bucketSecond[index] != second) {
+                bucketSecond[index] = second;
+                bucketCount[index] = 0;
+            }
+            bucketCount[index]++;
+
+            long oldest = second - bucketSecond.length + 1;
+            long inWindow = 0;
+            for (int i = 0; i < bucketSecond.length; i++) {
+                if (bucketSecond[i] >= oldest) {
+                    inWindow += bucketCount[i];
+                }
+            }
+            double rate = (double) inWindow / bucketSecond.length;
+            int observedSplit = (int) Math.ceil(rate / properties.getMessagesPerSecondPerPartition());
+
+            int split = now < declaredUntil ? Math.max(observedSplit, declaredSplit) : observedSplit;
+            return Math.max(1, Math.min(split, properties.getMaxSplit()));
+        }
+
+        synchronized void declare(long expectedMessages, long now) {
+            declaredSplit = (int) Math.ceil((double) expectedMessages / properties.getDeclaredMessagesPerPartition());
+            declaredUntil = now + properties.getDeclaredTtlSeconds() * 1000;
+            lastRecord = now;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return now >= declaredUntil && now - lastRecord > bucketSecond.length * 1000L;
+        }
+    }
+}
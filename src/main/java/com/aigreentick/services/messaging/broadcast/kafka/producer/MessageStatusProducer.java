@@ -0,0 +1,37 @@
+package com.aigreentick.services.messaging.broadcast.kafka.producer;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageStatusProducer {
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.message-status.name}")
+    private String topicName;
+
+    /**
+     * Publishes a status callback; the future completes once the broker has it.
+     * Keyed by messageId so all statuses of a message stay in order on one partition.
+     */
+    public CompletableFuture<SendResult<String, Object>> publishStatus(MessageStatusEvent event) {
+        return kafkaTemplate.send(topicName, event.getMessageId(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish message status. messageId={} status={}",
+                                event.getMessageId(), event.getStatus(), ex);
+                    }
+                });
+    }
+}
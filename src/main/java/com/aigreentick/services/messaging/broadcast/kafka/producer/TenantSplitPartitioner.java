@@ -0,0 +1,80 @@
+package com.aigreentick.services.messaging.broadcast.kafka.producer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+
+/**
+ * Keyed partitioning that spreads a hot tenant over consecutive partitions.
+ *
+ * A record whose event carries partitionSplit K > 1 goes round-robin to one of
+ * K partitions starting at the key's usual murmur2 partition. Other keyed
+ * records (K = 1, or any non-event value) land on that murmur2 partition, as
+ * with the default partitioner. The partitioner is set on the shared producer,
+ * so records without a key go round-robin over the available partitions.
+ */
+public class TenantSplitPartitioner implements Partitioner {
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+            Cluster cluster) {
+        int numPartitions = cluster.partitionCountForTopic(topic);
+        if (keyBytes == null) {
+            return unkeyedPartition(topic, numPartitions, cluster);
+        }
+        int base = basePartition(keyBytes, numPartitions);
+
+        int split = value instanceof BroadcastReportEvent event && event.getPartitionSplit() != null
+                ? Math.min(event.getPartitionSplit(), numPartitions)
+                : 1;
+        if (split <= 1) {
+            return base;
+        }
+
+        int slot = (roundRobin.getAndIncrement() & Integer.MAX_VALUE) % split;
+        return (base + slot) % numPartitions;
+    }
+
+    /**
+     * Partitions a tenant with the given split is published to.
+     */
+    public static int[] partitionsFor(String phoneNumberId, int split, int numPartitions) {
+        int base = basePartition(phoneNumberId.getBytes(StandardCharsets.UTF_8), numPartitions);
+        int count = Math.max(1, Math.min(split, numPartitions));
+        int[] partitions = new int[count];
+        for (int slot = 0; slot < count; slot++) {
+            partitions[slot] = (base + slot) % numPartitions;
+        }
+        return partitions;
+    }
+
+    private int unkeyedPartition(String topic, int numPartitions, Cluster cluster) {
+        List<PartitionInfo> available = cluster.availablePartitionsForTopic(topic);
+        int next = roundRobin.getAndIncrement() & Integer.MAX_VALUE;
+        return available.isEmpty()
+                ? next % numPartitions
+                : available.get(next % available.size()).partition();
+    }
+
+    private static int basePartition(byte[] keyBytes, int numPartitions) {
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
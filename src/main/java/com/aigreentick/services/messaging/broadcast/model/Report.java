@@ -16,7 +16,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        // Webhook statuses are applied by message_id
+        @Index(name = "idx_reports_message_id", columnList = "message_id")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,51 +1,134 @@
 package com.aigreentick.services.messaging.broadcast.service.impl;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreakerRegistry.Admission;
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreakerRegistry;
 import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
 import com.aigreentick.services.messaging.broadcast.client.service.impl.WhatsappClient;
-import com.aigreentick.services.messaging.broadcast.dto.response.SendTemplateMessageResponse;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
+import com.aigreentick.services.messaging.broadcast.enums.MessageStatus;
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.TenantPartitionBudget;
 import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
-import com.aigreentick.services.messaging.config.ExecutorConfig;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.BroadcastReportProducer;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.ControlSet;
+import com.aigreentick.services.messaging.config.ConfigConstants;
+import com.aigreentick.services.messaging.config.ResizableSemaphore;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
-public class BatchCoordinator {
+public class BatchCoordinator implements SmartLifecycle {
 
     private final WhatsappClient whatsappClient;
     private final ReportServiceImpl reportService;
     private final ObjectMapper objectMapper;
     private final ExecutorService whatsappExecutor;
-    private final ConcurrentHashMap<String, Semaphore> userSemaphores;
-    private final ConcurrentHashMap<String, Long> semaphoreLastUsed;
+    private final SendCircuitBreakerRegistry circuitBreakers;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final TenantPartitionBudget partitionBudget;
+    private final BroadcastProgressTracker progressTracker;
+    private final SpillJournal spillJournal;
+    private final BatchSizeTuner batchSizeTuner;
+    private final BroadcastReportProducer reportProducer;
 
     @Value("${batch.size:80}")
-    private int batchSize;
+    private volatile int batchSize;
 
-    // Per-user queues (lightweight, no threads)
-    private final ConcurrentHashMap<String, UserQueue> userQueues = new ConcurrentHashMap<>();
+    // Concurrent sends per user on this instance; changed at runtime by RuntimeTuningService
+    private volatile int tenantConcurrency = ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS;
+
+    @Value("${batch.send-mode:BARRIER}")
+    private SendMode sendMode = SendMode.BARRIER;
+
+    // WINDOWED: longest a completed send waits in the buffer before it is written
+    @Value("${batch.timeout-ms:3000}")
+    private long batchTimeoutMs = 3000;
+
+    @Value("${batch.max-concurrent-flushes:4}")
+    private int maxConcurrentFlushes = 4;
+
+    // Longest shutdown waits for in-flight sends before the final write
+    @Value("${batch.shutdown-timeout-ms:20000}")
+    private long shutdownTimeoutMs = 20000;
+
+    // A tenant with nothing queued, held or in flight for this long is dropped
+    @Value("${batch.tenant-idle-expiry-ms:600000}")
+    private long tenantIdleExpiryMs = 600000;
+
+    // Per-user queue, limiter and counters (lightweight, no threads)
+    private final ConcurrentHashMap<String, TenantState> tenants = new ConcurrentHashMap<>();
+
+    // Retry delay for a queue whose send or task the saturated whatsappExecutor rejected
+    private static final long SATURATED_RETRY_MS = 100;
+
+    // Longer than the producer's delivery timeout, so every requeue send has settled by then
+    private static final long REQUEUE_TIMEOUT_MS = 150_000;
+
+    // Idle expiry checks of tenants, one timeout per tenant
+    private static final long IDLE_TICK_MS = 1000;
+    private static final int IDLE_WHEEL_SIZE = 1024;
+    private final HashedTimingWheel<TenantState> idleWheel;
 
     private final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private volatile boolean running;
+
+    // WINDOWED: completed sends waiting for the DB stage
+    private final ConcurrentLinkedQueue<CompletedSend> completedSends = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final AtomicInteger activeFlushes = new AtomicInteger();
+    private final AtomicBoolean flushTimerArmed = new AtomicBoolean(false);
+
+    // Items admitted but not yet acknowledged or dropped, per broadcast partition
+    private final ConcurrentHashMap<Integer, AtomicInteger> outstandingByPartition = new ConcurrentHashMap<>();
+
+    // Revoked partitions whose stragglers outlived the drain deadline; their acks are skipped
+    private final Set<Integer> abandonedPartitions = ConcurrentHashMap.newKeySet();
+
+    // Commits each partition up to its oldest unacknowledged record
+    private final PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+
+    // Lease limit a tenant starts with until its first lease; unbounded while leasing is off
+    private volatile int unleasedLimit = Integer.MAX_VALUE;
+
+    // Cancel and pause controls, replaced as a whole by BroadcastControlService
+    private volatile ControlSet controls = ControlSet.EMPTY;
 
     // Metrics
     private final AtomicLong totalProcessed = new AtomicLong(0);
@@ -56,14 +139,27 @@ public class BatchCoordinator {
             ReportServiceImpl reportService,
             ObjectMapper objectMapper,
             @Qualifier("whatsappExecutor") ExecutorService whatsappExecutor,
-            ConcurrentHashMap<String, Semaphore> userSemaphores,
-            ConcurrentHashMap<String, Long> semaphoreLastUsed) {
+            SendCircuitBreakerRegistry circuitBreakers,
+            @Qualifier("maintenanceExecutor") ScheduledExecutorService maintenanceExecutor,
+            TenantPartitionBudget partitionBudget,
+            BroadcastProgressTracker progressTracker,
+            SpillJournal spillJournal,
+            BatchSizeTuner batchSizeTuner,
+            BroadcastReportProducer reportProducer) {
         this.whatsappClient = whatsappClient;
         this.reportService = reportService;
         this.objectMapper = objectMapper;
         this.whatsappExecutor = whatsappExecutor;
-        this.userSemaphores = userSemaphores;
-        this.semaphoreLastUsed = semaphoreLastUsed;
+        this.circuitBreakers = circuitBreakers;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.partitionBudget = partitionBudget;
+        this.progressTracker = progressTracker;
+        this.spillJournal = spillJournal;
+        this.batchSizeTuner = batchSizeTuner;
+        this.reportProducer = reportProducer;
+        this.idleWheel = new HashedTimingWheel<>(IDLE_WHEEL_SIZE, IDLE_TICK_MS, System.currentTimeMillis());
+        batchSizeTuner.bindTenantSizes(() -> tenants.values().stream()
+                .mapToInt(tenant -> batchSizeTuner.tenantBatchSize(tenant.getBatchSizeController())));
     }
 
     /**
@@ -71,62 +167,228 @@ public class BatchCoordinator {
      * Submits processing task if not already running.
      */
     public void addEventToBatch(BroadcastReportEvent event, Acknowledgment acknowledgment) {
+        addEventToBatch(event, acknowledgment, BatchItem.UNKNOWN_PARTITION, -1);
+    }
+
+    /**
+     * As {@link #addEventToBatch(BroadcastReportEvent, Acknowledgment)}, tracking
+     * the source partition and offset so its items can be drained on revocation
+     * and its offsets are committed only up to the oldest record not yet acked.
+     * An event that cannot be queued is acked in that order before the
+     * exception is rethrown.
+     */
+    public void addEventToBatch(BroadcastReportEvent event, Acknowledgment acknowledgment, int partition, long offset) {
         if (shutdownRequested.get()) {
-            log.warn("Shutdown requested, acknowledging without processing");
-            acknowledgment.acknowledge();
+            // Left unacked, redelivered after restart
+            log.debug("Shutdown requested, not admitting recipient={}", event.getRecipient());
             return;
         }
 
+        Acknowledgment ack = partition != BatchItem.UNKNOWN_PARTITION
+                ? offsetTracker.track(partition, offset, acknowledgment)
+                : acknowledgment;
+        try {
+            admit(event, ack, partition);
+        } catch (RuntimeException e) {
+            ack.acknowledge();
+            throw e;
+        }
+    }
+
+    private void admit(BroadcastReportEvent event, Acknowledgment acknowledgment, int partition) {
         String phoneNumberId = event.getPhoneNumberId();
 
-        // Get or create user queue
-        UserQueue userQueue = userQueues.computeIfAbsent(
-                phoneNumberId,
-                k -> new UserQueue(phoneNumberId));
+        // Get or create the tenant; one retired by idle expiry meanwhile is replaced
+        TenantState tenant;
+        do {
+            tenant = tenants.computeIfAbsent(phoneNumberId, this::newTenant);
+        } while (!tenant.touch());
+
+        refreshWindowLimit(tenant, event);
 
         // Add item to queue (non-blocking)
-        userQueue.addItem(new BatchItem(event, acknowledgment));
+        if (partition != BatchItem.UNKNOWN_PARTITION) {
+            outstandingByPartition.computeIfAbsent(partition, k -> new AtomicInteger()).incrementAndGet();
+        }
+        tenant.addItem(BatchItem.of(event, tenant.credentials(event.getAccessToken()), acknowledgment, partition));
+
+        if (sendMode == SendMode.WINDOWED) {
+            pumpWindow(tenant);
+            return;
+        }
 
         // Try to start processing if not already running
-        if (userQueue.tryStartProcessing()) {
-            submitProcessingTask(userQueue);
+        if (!controls.tenantPaused(phoneNumberId) && tenant.tryStartProcessing()) {
+            submitProcessingTask(tenant);
+        }
+    }
+
+    private TenantState newTenant(String phoneNumberId) {
+        TenantState tenant = new TenantState(phoneNumberId, tenantConcurrency,
+                batchSizeTuner.newTenantController());
+        tenant.setLeaseLimit(unleasedLimit);
+        idleWheel.schedule(tenant, System.currentTimeMillis() + tenantIdleExpiryMs);
+        return tenant;
+    }
+
+    /**
+     * A tenant split over K partitions gets the share of its window matching the
+     * partitions this instance owns. Recomputed only when the split or the
+     * assignment changes.
+     */
+    private void refreshWindowLimit(TenantState tenant, BroadcastReportEvent event) {
+        int split = event.getPartitionSplit() != null ? event.getPartitionSplit() : 1;
+        int generation = partitionBudget.getGeneration();
+
+        if (split != tenant.getSplit() || generation != tenant.getBudgetGeneration()
+                || tenantConcurrency != tenant.getFullWindow()) {
+            applyWindowLimit(tenant, split, generation);
+        }
+    }
+
+    private void applyWindowLimit(TenantState tenant, int split, int generation) {
+        int fullWindow = tenantConcurrency;
+        int limit = partitionBudget.windowLimit(tenant.getPhoneNumberId(), split, fullWindow);
+        if (limit != tenant.getPartitionLimit()) {
+            log.info("Window for phoneNumberId={} is now {} (split over {} partitions)",
+                    tenant.getPhoneNumberId(), limit, split);
+        }
+        tenant.updateBudget(split, generation, fullWindow, limit);
+    }
+
+    /**
+     * Queued plus in-flight sends per user, reported to the rate budget lease table.
+     */
+    public Map<String, Integer> localDemand() {
+        Map<String, Integer> demand = new LinkedHashMap<>();
+        for (TenantState tenant : tenants.values()) {
+            demand.put(tenant.getPhoneNumberId(), tenant.size() + tenant.getInFlight());
+        }
+        return demand;
+    }
+
+    /**
+     * Cap each user's window at this instance's share of the cluster budget.
+     * Users without a lease yet, including ones that show up before the next
+     * renewal, get unleasedLimit.
+     */
+    public void applyLeaseLimits(Map<String, Integer> grants, int unleasedLimit) {
+        this.unleasedLimit = unleasedLimit;
+        for (TenantState tenant : tenants.values()) {
+            tenant.setLeaseLimit(grants.getOrDefault(tenant.getPhoneNumberId(), unleasedLimit));
+        }
+    }
+
+    // ==================== RUNTIME TUNING ====================
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * With auto-tune on, the batch size controllers restart from this size.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        batchSizeTuner.reset(batchSize);
+        for (TenantState tenant : tenants.values()) {
+            tenant.getBatchSizeController().reset(batchSize);
+        }
+    }
+
+    public int getTenantConcurrency() {
+        return tenantConcurrency;
+    }
+
+    /**
+     * Resize every user's semaphore and window. Sends already over a lowered
+     * limit complete; new ones start once the user is back under it.
+     */
+    public void setTenantConcurrency(int tenantConcurrency) {
+        this.tenantConcurrency = tenantConcurrency;
+
+        int generation = partitionBudget.getGeneration();
+        for (TenantState tenant : tenants.values()) {
+            tenant.getSemaphore().resize(tenantConcurrency);
+            applyWindowLimit(tenant, tenant.getSplit(), generation);
+            if (sendMode == SendMode.WINDOWED) {
+                pumpWindow(tenant);
+            }
         }
     }
 
     /**
      * Submit processing task to thread pool
      */
-    private void submitProcessingTask(UserQueue userQueue) {
-        whatsappExecutor.submit(() -> processUserQueue(userQueue));
+    private void submitProcessingTask(TenantState tenant) {
+        try {
+            whatsappExecutor.submit(() -> processUserQueue(tenant));
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: retry shortly, never on the submitting (consumer) thread
+            if (shutdownRequested.get()
+                    || !parkUserQueue(tenant, SATURATED_RETRY_MS, "WhatsApp executor saturated")) {
+                tenant.forceStopProcessing();
+            }
+        }
     }
 
     /**
      * Process all pending items for a user.
      * Runs on pooled thread, exits when queue is empty.
      */
-    private void processUserQueue(UserQueue userQueue) {
-        String phoneNumberId = userQueue.getPhoneNumberId();
+    private void processUserQueue(TenantState tenant) {
+        String phoneNumberId = tenant.getPhoneNumberId();
+        boolean parked = false;
+        boolean paused = false;
 
         log.debug("Processing task started for phoneNumberId={}", phoneNumberId);
 
+        // Reused by every batch of this task; nothing keeps it after processBatch
+        List<BatchItem> batch = new ArrayList<>(batchSize);
+
         try {
             while (!shutdownRequested.get()) {
-                // Collect batch from queue
-                List<BatchItem> batch = collectBatch(userQueue);
+                if (controls.tenantPaused(phoneNumberId)) {
+                    // Items stay queued without a thread; applyControls restarts the queue
+                    tenant.forceStopProcessing();
+                    paused = true;
+                    if (controls.tenantPaused(phoneNumberId) || !tenant.tryStartProcessing()) {
+                        return;
+                    }
+                    paused = false;
+                    continue;
+                }
+
+                batch.clear();
+                Admission admission = null;
+
+                if (!tenant.isEmpty()) {
+                    // Ask the circuit breakers how many sends may start
+                    int wanted = Math.min(batchSizeTuner.tenantBatchSize(tenant.getBatchSizeController()), tenant.getWindowLimit());
+                    admission = circuitBreakers.admit(phoneNumberId, wanted);
+                    if (!admission.permitted()) {
+                        parked = parkUserQueue(tenant, admission.retryAfterMs(), "Circuit open");
+                        return;
+                    }
+
+                    // Collect batch from queue
+                    collectBatch(tenant, admission.permits(), batch);
+                    circuitBreakers.release(phoneNumberId, admission, admission.permits() - batch.size());
+                }
 
                 if (batch.isEmpty()) {
                     // Queue is empty, try to exit
-                    if (userQueue.tryStopProcessing()) {
+                    if (tenant.tryStopProcessing()) {
                         // Successfully marked as not processing
                         // Final check: if queue still empty, exit
-                        if (userQueue.isEmpty()) {
+                        if (tenant.isEmpty()) {
                             log.debug("Processing task exiting for phoneNumberId={} (queue empty)",
                                     phoneNumberId);
                             return;
                         } else {
                             // Race condition: new items arrived
                             // Restart processing
-                            if (userQueue.tryStartProcessing()) {
+                            if (tenant.tryStartProcessing()) {
                                 log.debug("Restarting processing for phoneNumberId={} (new items arrived)",
                                         phoneNumberId);
                                 continue;
@@ -142,46 +404,122 @@ public class BatchCoordinator {
                 }
 
                 // Process the batch
-                processBatch(phoneNumberId, batch);
+                tenant.addInFlight(batch.size());
+                try {
+                    processBatch(tenant, batch, admission);
+                } finally {
+                    tenant.addInFlight(-batch.size());
+                }
             }
         } catch (Exception e) {
             log.error("Processing task failed for phoneNumberId={}", phoneNumberId, e);
         } finally {
-            // Ensure processing flag is cleared on unexpected exit
-            userQueue.forceStopProcessing();
+            // Ensure processing flag is cleared on unexpected exit; a parked queue keeps it
+            if (!parked && !paused) {
+                tenant.forceStopProcessing();
+            }
+        }
+    }
+
+    /**
+     * Leave the queue's items in place and resume after delayMs without holding
+     * a thread. The processing flag stays set so addEventToBatch only enqueues.
+     */
+    private boolean parkUserQueue(TenantState tenant, long delayMs, String reason) {
+        log.info("{}, parking phoneNumberId={} with {} pending for {}ms",
+                reason, tenant.getPhoneNumberId(), tenant.size(), delayMs);
+        try {
+            maintenanceExecutor.schedule(
+                    () -> submitProcessingTask(tenant), delayMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule resume for phoneNumberId={}", tenant.getPhoneNumberId());
+            return false;
         }
     }
 
     /**
      * Collect items from queue into a batch (up to batchSize)
      */
-    private List<BatchItem> collectBatch(UserQueue userQueue) {
-        List<BatchItem> batch = new ArrayList<>();
+    List<BatchItem> collectBatch(TenantState tenant) {
+        List<BatchItem> batch = new ArrayList<>(batchSize);
+        collectBatch(tenant, batchSize, batch);
+        return batch;
+    }
 
-        BatchItem item;
-        while (batch.size() < batchSize && (item = userQueue.poll()) != null) {
-            batch.add(item);
+    /**
+     * Drain up to limit sendable items into the empty batch in bulk, then
+     * take controlled ones back out and top up until full or drained.
+     */
+    private void collectBatch(TenantState tenant, int limit, List<BatchItem> batch) {
+        List<BatchItem> cancelled = new ArrayList<>(0);
+
+        int from = 0;
+        while (from < limit && tenant.drainTo(batch, limit - from) > 0) {
+            int kept = from;
+            for (int i = from; i < batch.size(); i++) {
+                BatchItem item = batch.get(i);
+                if (!skipControlled(tenant, item, cancelled)) {
+                    batch.set(kept++, item);
+                } else if (cancelled.size() >= batchSize) {
+                    cancelItems(cancelled);
+                    cancelled = new ArrayList<>(0);
+                }
+            }
+            batch.subList(kept, batch.size()).clear();
+            from = kept;
         }
+        cancelItems(cancelled);
+    }
 
-        return batch;
+    /**
+     * Take a polled item out of sending if its broadcast or tenant is
+     * cancelled (added to cancelled) or its broadcast is paused (held).
+     */
+    private boolean skipControlled(TenantState tenant, BatchItem item, List<BatchItem> cancelled) {
+        ControlSet current = controls;
+        if (current.isEmpty()) {
+            return false;
+        }
+        if (current.cancels(item)) {
+            cancelled.add(item);
+            return true;
+        }
+        if (current.holds(item)) {
+            tenant.hold(item);
+            return true;
+        }
+        return false;
     }
 
     /**
      * Process a batch of items
      */
-    private void processBatch(String phoneNumberId, List<BatchItem> batch) {
+    private void processBatch(TenantState tenant, List<BatchItem> batch, Admission admission) {
+        String phoneNumberId = tenant.getPhoneNumberId();
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         log.info("=== Processing Batch ===");
         log.info("PhoneNumberId: {} | Size: {} | Pending: {}",
-                phoneNumberId, batch.size(), userQueues.get(phoneNumberId).size());
+                phoneNumberId, batch.size(), tenant.size());
 
         try {
             // STAGE 1: WhatsApp API Calls
-            List<WhatsAppResult> results = sendWhatsAppBatch(phoneNumberId, batch);
+            List<WhatsAppResult> results = sendWhatsAppBatch(tenant, batch, admission);
+
+            if (shutdownRequested.get()) {
+                // Written with everything else in shutdown's single bulk write
+                for (int i = 0; i < batch.size(); i++) {
+                    completedSends.offer(new CompletedSend(batch.get(i), results.get(i), System.nanoTime()));
+                    completedCount.incrementAndGet();
+                }
+                return;
+            }
 
             // STAGE 2: Database Update
             batchUpdateDatabase(batch, results);
+            recordProgress(batch, results);
 
             // STAGE 3: Acknowledge Kafka messages
             acknowledgeAllMessages(batch);
@@ -189,6 +527,7 @@ public class BatchCoordinator {
             // Update metrics
             totalProcessed.addAndGet(batch.size());
             totalBatches.incrementAndGet();
+            batchSizeTuner.recordTenantBatch(tenant.getBatchSizeController(), batch.size(), System.nanoTime() - startNanos);
 
             long duration = System.currentTimeMillis() - startTime;
             log.info("=== Batch Completed ===");
@@ -204,11 +543,11 @@ public class BatchCoordinator {
     /**
      * STAGE 1: Send WhatsApp requests concurrently
      */
-    private List<WhatsAppResult> sendWhatsAppBatch(String phoneNumberId, List<BatchItem> batch) {
+    private List<WhatsAppResult> sendWhatsAppBatch(TenantState tenant, List<BatchItem> batch, Admission admission) {
+        String phoneNumberId = tenant.getPhoneNumberId();
         long stageStart = System.currentTimeMillis();
 
-        Semaphore userSemaphore = ExecutorConfig.getSemaphoreForUser(
-                userSemaphores, semaphoreLastUsed, phoneNumberId);
+        Semaphore userSemaphore = tenant.getSemaphore();
 
         List<Semaphore> acquiredSemaphores = new ArrayList<>();
         List<CompletableFuture<WhatsAppResult>> futures = new ArrayList<>();
@@ -225,11 +564,9 @@ public class BatchCoordinator {
             log.debug("Stage 1: Permits acquired. Available: {}",
                     userSemaphore.availablePermits());
 
-            // Submit concurrent WhatsApp requests using the executor
+            // Submit concurrent WhatsApp requests; blocking clients run on the executor
             for (BatchItem item : batch) {
-                CompletableFuture<WhatsAppResult> future = CompletableFuture
-                        .supplyAsync(() -> sendSingleWhatsAppMessage(item.event()), whatsappExecutor);
-                futures.add(future);
+                futures.add(sendSingleWhatsAppMessage(item, admission, this::executeOrRunHere));
             }
 
             // Wait for all responses
@@ -257,8 +594,8 @@ public class BatchCoordinator {
             List<WhatsAppResult> errorResults = new ArrayList<>();
             for (BatchItem item : batch) {
                 errorResults.add(new WhatsAppResult(
-                        item.event().getBroadcastId(),
-                        item.event().getRecipient(),
+                        item.broadcastId(),
+                        item.recipient(),
                         null,
                         false,
                         "Batch error: " + e.getMessage()));
@@ -275,93 +612,390 @@ public class BatchCoordinator {
     }
 
     /**
-     * Send single WhatsApp message
+     * Send single WhatsApp message on one permit of admission
      */
-    private WhatsAppResult sendSingleWhatsAppMessage(BroadcastReportEvent event) {
+    private CompletableFuture<WhatsAppResult> sendSingleWhatsAppMessage(BatchItem item, Admission admission,
+            Executor executor) {
+        TenantCredentials tenant = item.tenant();
+        CompletableFuture<FacebookApiResponse<RawSendMessageResponse>> response;
         try {
-            FacebookApiResponse<SendTemplateMessageResponse> response = whatsappClient.sendMessage(
-                    event.getPayload(),
-                    event.getPhoneNumberId(),
-                    event.getAccessToken());
+            response = whatsappClient.sendMessageAsync(
+                    item.payload(),
+                    tenant.phoneNumberId(),
+                    tenant.accessToken(),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            // Not sent at all; the caller keeps the item
+            throw e;
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.handle((result, error) -> {
+            circuitBreakers.record(tenant.phoneNumberId(), admission, result, error);
+
+            if (error != null) {
+                log.error("WhatsApp request failed: recipient={}", item.recipient(), error);
+                return new WhatsAppResult(
+                        item.broadcastId(),
+                        item.recipient(),
+                        null,
+                        false,
+                        error.getMessage());
+            }
 
             return new WhatsAppResult(
-                    event.getBroadcastId(),
-                    event.getRecipient(),
-                    response,
-                    response.isSuccess(),
+                    item.broadcastId(),
+                    item.recipient(),
+                    result,
+                    result.isSuccess(),
                     null);
+        });
+    }
+
+    /**
+     * BARRIER batches are sent from a pool thread, which runs a send the
+     * saturated pool rejects itself rather than failing it.
+     */
+    private void executeOrRunHere(Runnable task) {
+        try {
+            whatsappExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
 
+    // ==================== WINDOWED MODE ====================
+
+    /**
+     * Keep up to the user's window of sends in flight (tenantConcurrency, less any split or lease share).
+     * Called on every enqueue and every completion; concurrent callers collapse
+     * into one extra pass of the thread already pumping.
+     */
+    private void pumpWindow(TenantState tenant) {
+        if (tenant.enterPump()) {
+            return;
+        }
+
+        Semaphore window = tenant.getSemaphore();
+        int missed = 1;
+        do {
+            fillWindow(tenant, window);
+            missed = tenant.leavePump(missed);
+        } while (missed != 0);
+    }
+
+    private void fillWindow(TenantState tenant, Semaphore window) {
+        String phoneNumberId = tenant.getPhoneNumberId();
+        List<BatchItem> cancelled = new ArrayList<>(0);
+
+        try {
+            while (!shutdownRequested.get() && !tenant.isParked() && !tenant.isEmpty()
+                    && !controls.tenantPaused(phoneNumberId)
+                    && tenant.getInFlight() < tenant.getWindowLimit() && window.tryAcquire()) {
+
+                Admission admission = circuitBreakers.admit(phoneNumberId, 1);
+                if (!admission.permitted()) {
+                    window.release();
+                    parkWindow(tenant, admission.retryAfterMs(), "Circuit open");
+                    return;
+                }
+
+                BatchItem item = tenant.poll();
+                if (item == null || skipControlled(tenant, item, cancelled)) {
+                    window.release();
+                    circuitBreakers.release(phoneNumberId, admission, 1);
+                    if (item == null) {
+                        return;
+                    }
+                    continue;
+                }
+
+                tenant.incrementInFlight();
+                CompletableFuture<WhatsAppResult> send;
+                try {
+                    send = sendSingleWhatsAppMessage(item, admission, whatsappExecutor);
+                } catch (RejectedExecutionException e) {
+                    // Pool saturated: the item goes back to the head of the queue for the next pump
+                    tenant.decrementInFlight();
+                    window.release();
+                    circuitBreakers.release(phoneNumberId, admission, 1);
+                    tenant.requeueFirst(item);
+                    parkWindow(tenant, SATURATED_RETRY_MS, "WhatsApp executor saturated");
+                    return;
+                }
+                send.whenComplete((result, error) -> {
+                    window.release();
+                    // Buffered before in flight drops, so a shutdown waiting on it writes this result
+                    bufferCompleted(new CompletedSend(item, result, System.nanoTime()));
+                    tenant.decrementInFlight();
+                    pumpWindow(tenant);
+                });
+            }
+        } finally {
+            cancelItems(cancelled);
+        }
+    }
+
+    private void parkWindow(TenantState tenant, long delayMs, String reason) {
+        if (!tenant.tryPark()) {
+            return;
+        }
+        log.info("{}, parking phoneNumberId={} with {} pending for {}ms",
+                reason, tenant.getPhoneNumberId(), tenant.size(), delayMs);
+        try {
+            maintenanceExecutor.schedule(() -> {
+                tenant.unpark();
+                pumpWindow(tenant);
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule resume for phoneNumberId={}", tenant.getPhoneNumberId());
+            tenant.unpark();
+        }
+    }
+
+    /**
+     * Hand a finished send to the DB stage: flush at the DB batch size,
+     * otherwise after batchTimeoutMs.
+     */
+    private void bufferCompleted(CompletedSend completed) {
+        completedSends.offer(completed);
+        int buffered = completedCount.incrementAndGet();
+
+        if (shutdownRequested.get()) {
+            // Shutdown writes the whole buffer at once
+            return;
+        }
+        if (buffered >= batchSizeTuner.dbBatchSize()) {
+            requestFlush(false);
+        } else if (!flushTimerArmed.get()) {
+            scheduleTimedFlush();
+        }
+    }
+
+    /**
+     * At most one timer is armed; it writes everything buffered when it fires.
+     */
+    private void scheduleTimedFlush() {
+        if (!flushTimerArmed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            maintenanceExecutor.schedule(() -> {
+                flushTimerArmed.set(false);
+                requestFlush(true);
+            }, batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            flushTimerArmed.set(false);
+            log.debug("Timed flush not scheduled, maintenance executor is shut down");
+        }
+    }
+
+    /**
+     * Start a flush unless maxConcurrentFlushes are already running. Partial
+     * flushes (timer, shutdown) also write a final short batch.
+     */
+    private void requestFlush(boolean partial) {
+        int active;
+        do {
+            active = activeFlushes.get();
+            if (active >= maxConcurrentFlushes) {
+                // Running flushes keep draining until the buffer is empty
+                return;
+            }
+        } while (!activeFlushes.compareAndSet(active, active + 1));
+
+        try {
+            whatsappExecutor.execute(() -> flushCompleted(partial));
+        } catch (RejectedExecutionException e) {
+            activeFlushes.decrementAndGet();
+            log.warn("Flush rejected, {} results stay buffered", completedCount.get());
+        }
+    }
+
+    private void flushCompleted(boolean partial) {
+        try {
+            drainCompletedSends(partial);
         } catch (Exception e) {
-            log.error("WhatsApp request failed: recipient={}", event.getRecipient(), e);
-            return new WhatsAppResult(
-                    event.getBroadcastId(),
-                    event.getRecipient(),
-                    null,
-                    false,
-                    e.getMessage());
+            log.error("Flushing completed sends failed", e);
+        } finally {
+            activeFlushes.decrementAndGet();
+        }
+
+        int remaining = completedCount.get();
+        if (remaining >= batchSizeTuner.dbBatchSize()) {
+            requestFlush(false);
+        } else if (remaining > 0) {
+            scheduleTimedFlush();
+        }
+    }
+
+    /**
+     * Stages 2 and 3 for buffered results, one DB batch at a time. Without
+     * partial, stops once less than a full batch is buffered. Each write's
+     * latency, counted from its oldest result, steers the next batch size.
+     */
+    private void drainCompletedSends(boolean partial) {
+        while (partial || completedCount.get() >= batchSizeTuner.dbBatchSize()) {
+            int flushSize = batchSizeTuner.dbBatchSize();
+            List<BatchItem> batch = new ArrayList<>(flushSize);
+            List<WhatsAppResult> results = new ArrayList<>(flushSize);
+            long oldestNanos = Long.MAX_VALUE;
+
+            CompletedSend completed;
+            while (batch.size() < flushSize && (completed = completedSends.poll()) != null) {
+                completedCount.decrementAndGet();
+                batch.add(completed.item());
+                results.add(completed.result());
+                oldestNanos = Math.min(oldestNanos, completed.completedAtNanos());
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                batchUpdateDatabase(batch, results);
+                recordProgress(batch, results);
+                acknowledgeAllMessages(batch);
+
+                totalProcessed.addAndGet(batch.size());
+                totalBatches.incrementAndGet();
+                batchSizeTuner.recordDbBatch(batch.size(), System.nanoTime() - oldestNanos);
+            } catch (Exception e) {
+                log.error("Windowed flush failed for {} results", batch.size(), e);
+                handleBatchFailure(batch, e);
+            }
         }
     }
 
     /**
-     * STAGE 2: Batch database update
+     * STAGE 2: Batch database update. While the DB is slow or failing, or the
+     * spill journal still has results to replay, the updates are journaled
+     * instead and the batch can be acked once they are on local disk.
      */
     private void batchUpdateDatabase(List<BatchItem> batch, List<WhatsAppResult> results) {
         long stageStart = System.currentTimeMillis();
 
-        List<DatabaseUpdate> updates = new ArrayList<>();
+        List<DatabaseUpdate> updates = prepareDatabaseUpdates(batch, results);
+
+        if (spillJournal.shouldSpill() && spill(updates)) {
+            log.info("Stage 2: Spilled {} updates to the journal in {}ms",
+                    updates.size(), System.currentTimeMillis() - stageStart);
+            return;
+        }
+
+        try {
+            int successCount = reportService.batchUpdateReports(updates);
+
+            long stageDuration = System.currentTimeMillis() - stageStart;
+            spillJournal.directWriteTook(stageDuration);
+            log.info("Stage 2: Completed. Duration: {}ms | Updated: {}/{}",
+                    stageDuration, successCount, updates.size());
+
+        } catch (Exception e) {
+            spillJournal.directWriteFailed();
+            if (spill(updates)) {
+                log.warn("Stage 2: DB write failed, spilled {} updates to the journal: {}",
+                        updates.size(), e.getMessage());
+                return;
+            }
+            log.error("Stage 2: Failed", e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return false if the journal could not take the updates
+     */
+    private boolean spill(List<DatabaseUpdate> updates) {
+        try {
+            spillJournal.append(updates);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stage 2: Spill journal append failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Map WhatsApp results onto report rows. Kept separate from the write so the
+     * serialization cost can be measured on its own.
+     */
+    List<DatabaseUpdate> prepareDatabaseUpdates(List<BatchItem> batch, List<WhatsAppResult> results) {
+        List<DatabaseUpdate> updates = new ArrayList<>(batch.size());
 
         for (int i = 0; i < batch.size(); i++) {
             BatchItem item = batch.get(i);
             WhatsAppResult result = results.get(i);
 
             try {
-                String responseJson = objectMapper.writeValueAsString(result.response());
+                RawSendMessageResponse data = result.response() != null ? result.response().getData() : null;
+                // Raw Graph body is stored as-is; only calls that never got a body are serialized here
+                byte[] responseBody = data != null && data.body() != null && data.body().length > 0
+                        ? data.body()
+                        : fallbackResponseBody(result);
                 String status;
                 String messageStatusValue;
                 String whatsappMessageId = null;
 
-                if (result.success() && result.response() != null) {
+                if (result.success() && data != null) {
                     status = "sent";
-                    SendTemplateMessageResponse data = result.response().getData();
-                    if (data != null && data.getMessages() != null &&
-                            !data.getMessages().isEmpty()) {
-                        var msg = data.getMessages().get(0);
-                        whatsappMessageId = msg.getId();
-                        messageStatusValue = msg.getMessageStatus() != null ? msg.getMessageStatus() : "sent";
-                    } else {
-                        messageStatusValue = "sent";
-                    }
+                    whatsappMessageId = data.messageId();
+                    messageStatusValue = data.messageStatus() != null ? data.messageStatus() : "sent";
+                } else if (result.success()) {
+                    status = "sent";
+                    messageStatusValue = "sent";
                 } else {
                     status = "failed";
                     messageStatusValue = result.errorMessage() != null ? result.errorMessage() : "Failed";
                 }
 
                 updates.add(new DatabaseUpdate(
-                        item.event().getBroadcastId(),
-                        item.event().getRecipient(),
-                        responseJson,
+                        item.broadcastId(),
+                        item.recipient(),
+                        responseBody,
                         status,
                         messageStatusValue,
                         whatsappMessageId,
-                        item.event().getPayload(),
+                        item.payload(),
                         LocalDateTime.now()));
 
             } catch (Exception e) {
                 log.error("Failed to prepare update: recipient={}",
-                        item.event().getRecipient(), e);
+                        item.recipient(), e);
             }
         }
 
-        try {
-            int successCount = reportService.batchUpdateReports(updates);
+        return updates;
+    }
 
-            long stageDuration = System.currentTimeMillis() - stageStart;
-            log.info("Stage 2: Completed. Duration: {}ms | Updated: {}/{}",
-                    stageDuration, successCount, updates.size());
+    /**
+     * Graph-style error body for calls that produced no response body
+     * (exceptions, timeouts, disabled outgoing traffic).
+     */
+    private byte[] fallbackResponseBody(WhatsAppResult result) throws JsonProcessingException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("message", result.response() != null
+                ? result.response().getErrorMessage()
+                : result.errorMessage());
+        error.put("code", result.response() != null ? result.response().getStatusCode() : 0);
+        return objectMapper.writeValueAsBytes(Map.of("error", error));
+    }
 
-        } catch (Exception e) {
-            log.error("Stage 2: Failed", e);
-            throw e;
+    /**
+     * Count written outcomes towards each broadcast's progress.
+     */
+    private void recordProgress(List<BatchItem> batch, List<WhatsAppResult> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            long broadcastId = batch.get(i).broadcastId();
+            if (broadcastId == BatchItem.NONE) {
+                continue;
+            }
+            if (results.get(i).success()) {
+                progressTracker.recordSent(broadcastId);
+            } else {
+                progressTracker.recordFailed(broadcastId);
+            }
         }
     }
 
@@ -371,10 +1005,10 @@ public class BatchCoordinator {
     private void acknowledgeAllMessages(List<BatchItem> batch) {
         for (BatchItem item : batch) {
             try {
-                item.acknowledgment().acknowledge();
+                acknowledge(item);
             } catch (Exception e) {
                 log.error("Failed to acknowledge: recipient={}",
-                        item.event().getRecipient(), e);
+                        item.recipient(), e);
             }
         }
     }
@@ -387,61 +1021,382 @@ public class BatchCoordinator {
 
         for (BatchItem item : batch) {
             try {
-                item.acknowledgment().acknowledge();
+                acknowledge(item);
             } catch (Exception e) {
                 log.error("Failed to acknowledge failed message", e);
             }
         }
     }
 
+    private void acknowledge(BatchItem item) {
+        int partition = item.partition();
+        if (partition == BatchItem.UNKNOWN_PARTITION) {
+            item.acknowledgment().acknowledge();
+            return;
+        }
+
+        try {
+            // The partition's new owner redelivers from the last committed offset
+            if (!abandonedPartitions.contains(partition)) {
+                item.acknowledgment().acknowledge();
+            }
+        } finally {
+            AtomicInteger outstanding = outstandingByPartition.get(partition);
+            if (outstanding != null) {
+                outstanding.decrementAndGet();
+            }
+        }
+    }
+
     /**
-     * Cleanup empty queues periodically
+     * Forget an item that is dropped without acking, leaving it for redelivery.
      */
-    @Scheduled(fixedRate = 300000) // Every 5 minutes
-    public void cleanupEmptyQueues() {
-        int removed = 0;
+    private void releaseUnacked(BatchItem item) {
+        AtomicInteger outstanding = outstandingByPartition.get(item.partition());
+        if (outstanding != null) {
+            outstanding.decrementAndGet();
+        }
+    }
+
+    // ==================== CANCEL / PAUSE ====================
+
+    public ControlSet getControls() {
+        return controls;
+    }
+
+    /**
+     * Switch to a new control set: queued and held items that are now
+     * cancelled are marked and acked in bulk, held items whose broadcast was
+     * resumed are queued again, and queues of resumed tenants restart.
+     */
+    public void applyControls(ControlSet next) {
+        controls = next;
+
+        List<BatchItem> cancelled = new ArrayList<>();
+        int released = 0;
+        for (TenantState tenant : tenants.values()) {
+            cancelled.addAll(tenant.removeMatching(next::cancels));
+
+            for (BatchItem item : tenant.releaseHeld(item -> !next.holds(item))) {
+                tenant.addItem(item);
+                released++;
+            }
+
+            if (!shutdownRequested.get() && !tenant.isEmpty() && !next.tenantPaused(tenant.getPhoneNumberId())) {
+                resumeQueue(tenant);
+            }
+        }
+
+        for (int from = 0; from < cancelled.size(); from += batchSize) {
+            cancelItems(cancelled.subList(from, Math.min(from + batchSize, cancelled.size())));
+        }
+
+        log.info("Broadcast controls applied: broadcasts={} tenants={} | Cancelled queued: {} | Released: {}",
+                next.broadcasts().size(), next.tenants().size(), cancelled.size(), released);
+    }
+
+    private void resumeQueue(TenantState tenant) {
+        if (sendMode == SendMode.WINDOWED) {
+            pumpWindow(tenant);
+        } else if (tenant.tryStartProcessing()) {
+            submitProcessingTask(tenant);
+        }
+    }
+
+    /**
+     * Mark cancelled items in reports with one batch update and ack them
+     * without calling Graph API. Acked even if the write fails, like any
+     * other failed batch.
+     */
+    private void cancelItems(List<BatchItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        try {
+            reportService.markCancelled(items);
+            for (BatchItem item : items) {
+                if (item.broadcastId() != BatchItem.NONE) {
+                    progressTracker.recordCancelled(item.broadcastId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Marking {} cancelled items failed", items.size(), e);
+        }
+        acknowledgeAllMessages(items);
+    }
+
+    // ==================== REBALANCE ====================
+
+    /**
+     * Called on the consumer thread before offsets of revoked partitions are
+     * committed. Queued and held items of those partitions are requeued, so
+     * records acked behind them commit and the new owner does not send those
+     * again; in-flight ones get until deadlineMs to be written and
+     * acknowledged so their offsets are committed with the revocation.
+     */
+    public void onPartitionsRevoked(Collection<Integer> partitions, long deadlineMs) {
+        releasePartitions(partitions, deadlineMs, true);
+    }
+
+    /**
+     * Lost partitions cannot be committed: their queued and held items are
+     * dropped unacked for the new owner, which also sends again what was acked
+     * behind them.
+     */
+    public void onPartitionsLost(Collection<Integer> partitions) {
+        releasePartitions(partitions, 0, false);
+    }
+
+    private void releasePartitions(Collection<Integer> partitions, long deadlineMs, boolean committable) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<Integer> revoked = Set.copyOf(partitions);
+
+        List<BatchItem> queued = new ArrayList<>();
+        for (TenantState tenant : tenants.values()) {
+            queued.addAll(tenant.removeMatching(item -> revoked.contains(item.partition())));
+        }
+        int requeued = 0;
+        if (committable) {
+            requeued = requeue(queued);
+        } else {
+            queued.forEach(this::releaseUnacked);
+        }
+        int dropped = queued.size() - requeued;
+
+        // Buffered results of these partitions should not wait for the flush timer
+        if (sendMode == SendMode.WINDOWED && completedCount.get() > 0) {
+            requestFlush(true);
+        }
 
-        for (var entry : userQueues.entrySet()) {
-            UserQueue queue = entry.getValue();
+        long deadline = start + deadlineMs;
+        int remaining = outstanding(revoked);
+        while (remaining > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            remaining = outstanding(revoked);
+        }
+
+        if (remaining > 0) {
+            for (Integer partition : revoked) {
+                AtomicInteger outstanding = outstandingByPartition.get(partition);
+                if (outstanding != null && outstanding.get() > 0) {
+                    abandonedPartitions.add(partition);
+                }
+            }
+        }
+        offsetTracker.forget(revoked);
+
+        log.info("Partitions {}: {} | Requeued: {} | Dropped for redelivery: {} | Abandoned in flight: {} | Drain: {}ms",
+                committable ? "revoked" : "lost", revoked, requeued, dropped, remaining,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Publish unsent items again at the end of their partitions and ack the
+     * originals once Kafka has the copies. A record held for a paused
+     * broadcast or tenant otherwise keeps every record acked behind it from
+     * committing, and all of those would be sent again after a handover.
+     * Items whose copy was not accepted stay unacked for redelivery.
+     *
+     * @return Items requeued
+     */
+    private int requeue(List<BatchItem> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        AtomicInteger requeued = new AtomicInteger();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            CompletableFuture<?> send;
+            try {
+                send = reportProducer.publishMessage(item.toEvent());
+            } catch (RuntimeException e) {
+                send = CompletableFuture.failedFuture(e);
+            }
+            sends[i] = send.handle((result, error) -> {
+                if (error == null) {
+                    acknowledge(item);
+                    requeued.incrementAndGet();
+                } else {
+                    releaseUnacked(item);
+                }
+                return null;
+            });
+        }
+
+        try {
+            CompletableFuture.allOf(sends).get(REQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted requeueing {} items; late copies may be sent twice", items.size());
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Requeue of {} items not settled; late copies may be sent twice", items.size());
+        }
+        return requeued.get();
+    }
+
+    /**
+     * Partitions (re)assigned to this instance; acknowledgments for them count again.
+     */
+    public void onPartitionsAssigned(Collection<Integer> partitions) {
+        for (Integer partition : partitions) {
+            abandonedPartitions.remove(partition);
+            outstandingByPartition.computeIfPresent(partition, (k, v) -> v.get() <= 0 ? null : v);
+        }
+    }
+
+    private int outstanding(Set<Integer> partitions) {
+        int total = 0;
+        for (Integer partition : partitions) {
+            AtomicInteger outstanding = outstandingByPartition.get(partition);
+            if (outstanding != null) {
+                total += Math.max(0, outstanding.get());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Drop tenants idle for tenantIdleExpiryMs. Each tenant has one timeout in
+     * the wheel; one still busy or active since goes back in until it has been
+     * idle long enough.
+     */
+    @Scheduled(fixedDelay = IDLE_TICK_MS)
+    public void expireIdleTenants() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
 
-            // Only remove if empty and not processing
-            if (queue.isEmpty() && !queue.isProcessing()) {
-                if (userQueues.remove(entry.getKey(), queue)) {
-                    removed++;
+        for (TenantState tenant : idleWheel.advance(now)) {
+            boolean[] retired = new boolean[1];
+            tenants.computeIfPresent(tenant.getPhoneNumberId(), (key, current) -> {
+                if (current == tenant && tenant.isIdle() && tenant.tryRetire(now, tenantIdleExpiryMs)) {
+                    retired[0] = true;
+                    return null;
                 }
+                return current;
+            });
+
+            if (retired[0]) {
+                removed++;
+            } else if (tenants.get(tenant.getPhoneNumberId()) == tenant) {
+                long idleSince = tenant.isIdle() ? tenant.getLastActivity() : now;
+                idleWheel.schedule(tenant, idleSince + tenantIdleExpiryMs);
             }
         }
 
         if (removed > 0) {
-            log.info("Cleaned up {} empty user queues. Remaining: {}", removed, userQueues.size());
+            log.info("Expired {} idle tenants. Remaining: {}", removed, tenants.size());
         }
     }
 
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Stops before the Kafka listener containers (higher phase), so acks from
+     * the final write are still committed by their consumers.
+     */
+    @Override
+    public void stop() {
+        shutdown();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
     /**
-     * Graceful shutdown
+     * Graceful shutdown: stop admission, requeue queued and held items, give
+     * in-flight sends until shutdownTimeoutMs, then write all results in one
+     * bulk update and ack them. Sends still running at the deadline stay unacked.
      */
-    @PreDestroy
     public void shutdown() {
+        if (!shutdownRequested.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
         log.info("Shutting down BatchCoordinator...");
-        shutdownRequested.set(true);
 
-        // Process remaining items in all queues
-        for (UserQueue queue : userQueues.values()) {
-            List<BatchItem> remaining = new ArrayList<>();
-            BatchItem item;
-            while ((item = queue.poll()) != null) {
-                remaining.add(item);
-            }
+        List<BatchItem> queued = new ArrayList<>();
+        for (TenantState tenant : tenants.values()) {
+            queued.addAll(tenant.removeMatching(item -> true));
+        }
+        int requeued = requeue(queued);
+        int dropped = queued.size() - requeued;
+
+        // Sends of all tenants are already running concurrently; wait for them together
+        boolean drained = awaitInFlight(start + shutdownTimeoutMs);
+        int abandoned = tenants.values().stream().mapToInt(TenantState::getInFlight).sum();
+
+        int written = writeCompletedSends();
+
+        log.info("BatchCoordinator shutdown complete in {}ms. Written: {} | Requeued: {} | Left for redelivery: {} queued, {} in flight{} | Total processed: {}, Total batches: {}",
+                System.currentTimeMillis() - start, written, requeued, dropped, abandoned,
+                drained ? "" : " (deadline reached)", totalProcessed.get(), totalBatches.get());
+    }
 
-            if (!remaining.isEmpty()) {
-                log.info("Processing {} remaining items for phoneNumberId={}",
-                        remaining.size(), queue.getPhoneNumberId());
-                processBatch(queue.getPhoneNumberId(), remaining);
+    private boolean awaitInFlight(long deadline) {
+        while (tenants.values().stream().anyMatch(tenant -> tenant.getInFlight() > 0)
+                || activeFlushes.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
             }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Single DB write and ack for everything buffered.
+     */
+    private int writeCompletedSends() {
+        List<BatchItem> batch = new ArrayList<>();
+        List<WhatsAppResult> results = new ArrayList<>();
+
+        CompletedSend completed;
+        while ((completed = completedSends.poll()) != null) {
+            completedCount.decrementAndGet();
+            batch.add(completed.item());
+            results.add(completed.result());
         }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            batchUpdateDatabase(batch, results);
+            recordProgress(batch, results);
+            acknowledgeAllMessages(batch);
 
-        log.info("BatchCoordinator shutdown complete. Total processed: {}, Total batches: {}",
-                totalProcessed.get(), totalBatches.get());
+            totalProcessed.addAndGet(batch.size());
+            totalBatches.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Shutdown write failed for {} results", batch.size(), e);
+            handleBatchFailure(batch, e);
+        }
+        return batch.size();
     }
 
     /**
@@ -452,18 +1407,18 @@ public class BatchCoordinator {
         int processingQueues = 0;
         int totalPending = 0;
 
-        for (UserQueue queue : userQueues.values()) {
-            if (!queue.isEmpty()) {
+        for (TenantState tenant : tenants.values()) {
+            if (!tenant.isEmpty()) {
                 activeQueues++;
-                totalPending += queue.size();
+                totalPending += tenant.size();
             }
-            if (queue.isProcessing()) {
+            if (tenant.isProcessing()) {
                 processingQueues++;
             }
         }
 
         return new BatchStats(
-                userQueues.size(),
+                tenants.size(),
                 activeQueues,
                 processingQueues,
                 totalPending,
@@ -474,17 +1429,47 @@ public class BatchCoordinator {
     // ==================== INNER CLASSES ====================
 
     /**
-     * Per-user queue wrapper with processing state
+     * Everything kept per user: queue, send limiter, batch size, WINDOWED
+     * counters and last activity, looked up once per event or batch.
      */
-    private static class UserQueue {
+    static class TenantState {
+        private static final int INITIAL_QUEUE_CAPACITY = 64;
+
         private final String phoneNumberId;
-        private final ConcurrentLinkedQueue<BatchItem> queue;
+        private final SynchronizedRingQueue<BatchItem> queue;
+        private final ResizableSemaphore semaphore;
+        private final BatchSizeController batchSizeController;
+
+        // Shared by the tenant's queued items instead of a token string per item
+        private volatile TenantCredentials credentials;
+
+        // Items of paused broadcasts, set aside until they are resumed or cancelled
+        private final ConcurrentLinkedQueue<BatchItem> held = new ConcurrentLinkedQueue<>();
         private final AtomicBoolean processing;
+
+        // RETIRED once idle expiry removed the tenant; admitting to it is refused from then on
+        private static final long RETIRED = -1;
         private final AtomicLong lastActivity;
 
-        public UserQueue(String phoneNumberId) {
+        // WINDOWED mode state
+        private final AtomicInteger pumpWip = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean parked = new AtomicBoolean();
+
+        // Share of the per-user window this instance may use (hot-tenant split)
+        private volatile int partitionLimit = ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS;
+
+        // Share of the cluster-wide budget leased by this instance; unbounded until leasing applies
+        private volatile int leaseLimit = Integer.MAX_VALUE;
+        private volatile int fullWindow = ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS;
+        private volatile int split = 1;
+        private volatile int budgetGeneration = -1;
+
+        public TenantState(String phoneNumberId, int permits, BatchSizeController batchSizeController) {
             this.phoneNumberId = phoneNumberId;
-            this.queue = new ConcurrentLinkedQueue<>();
+            this.queue = new SynchronizedRingQueue<>(INITIAL_QUEUE_CAPACITY);
+            this.semaphore = new ResizableSemaphore(permits);
+            this.batchSizeController = batchSizeController;
             this.processing = new AtomicBoolean(false);
             this.lastActivity = new AtomicLong(System.currentTimeMillis());
         }
@@ -493,15 +1478,118 @@ public class BatchCoordinator {
             return phoneNumberId;
         }
 
+        ResizableSemaphore getSemaphore() {
+            return semaphore;
+        }
+
+        BatchSizeController getBatchSizeController() {
+            return batchSizeController;
+        }
+
+        /**
+         * The tenant's credentials for an admitted event. A rotated token
+         * replaces them; items queued before keep the ones they came with.
+         */
+        TenantCredentials credentials(String accessToken) {
+            TenantCredentials current = credentials;
+            if (current == null || !Objects.equals(current.accessToken(), accessToken)) {
+                current = new TenantCredentials(phoneNumberId, accessToken);
+                credentials = current;
+            }
+            return current;
+        }
+
         public void addItem(BatchItem item) {
             queue.offer(item);
-            lastActivity.set(System.currentTimeMillis());
+        }
+
+        /**
+         * Record activity before admitting to this tenant.
+         *
+         * @return false if it was already retired and must be looked up again
+         */
+        boolean touch() {
+            long now = System.currentTimeMillis();
+            long last;
+            do {
+                last = lastActivity.get();
+                if (last == RETIRED) {
+                    return false;
+                }
+            } while (last < now && !lastActivity.compareAndSet(last, now));
+            return true;
+        }
+
+        /**
+         * Retire the tenant if it saw no activity for idleMs; a concurrent
+         * touch makes this fail.
+         */
+        boolean tryRetire(long now, long idleMs) {
+            long last = lastActivity.get();
+            return last != RETIRED && now - last >= idleMs && lastActivity.compareAndSet(last, RETIRED);
+        }
+
+        /**
+         * Nothing queued, held, processing, parked or in flight.
+         */
+        boolean isIdle() {
+            return queue.isEmpty() && held.isEmpty() && !processing.get()
+                    && !parked.get() && inFlight.get() == 0;
         }
 
         public BatchItem poll() {
             return queue.poll();
         }
 
+        /**
+         * Put a polled item that could not be sent back ahead of the rest.
+         */
+        void requeueFirst(BatchItem item) {
+            queue.offerFirst(item);
+        }
+
+        int drainTo(List<BatchItem> batch, int max) {
+            return queue.drainTo(batch, max);
+        }
+
+        /**
+         * Remove and return every queued or held item matching the filter.
+         */
+        List<BatchItem> removeMatching(Predicate<BatchItem> filter) {
+            List<BatchItem> removed = new ArrayList<>();
+            queue.removeIf(filter, removed);
+            removeMatching(held, filter, removed);
+            return removed;
+        }
+
+        private static void removeMatching(
+                ConcurrentLinkedQueue<BatchItem> items, Predicate<BatchItem> filter, List<BatchItem> removed) {
+            for (Iterator<BatchItem> it = items.iterator(); it.hasNext();) {
+                BatchItem item = it.next();
+                if (filter.test(item)) {
+                    it.remove();
+                    removed.add(item);
+                }
+            }
+        }
+
+        void hold(BatchItem item) {
+            held.offer(item);
+        }
+
+        /**
+         * Remove and return held items matching the filter.
+         */
+        List<BatchItem> releaseHeld(Predicate<BatchItem> filter) {
+            List<BatchItem> released = new ArrayList<>();
+            removeMatching(held, filter, released);
+            return released;
+        }
+
+        boolean hasHeld() {
+            return !held.isEmpty();
+        }
+
         public boolean isEmpty() {
             return queue.isEmpty();
         }
@@ -538,29 +1626,167 @@ public class BatchCoordinator {
         public long getLastActivity() {
             return lastActivity.get();
         }
+
+        /**
+         * Returns true if another thread is already pumping; it will run
+         * one more pass on our behalf.
+         */
+        boolean enterPump() {
+            return pumpWip.getAndIncrement() != 0;
+        }
+
+        int leavePump(int passes) {
+            return pumpWip.addAndGet(-passes);
+        }
+
+        void incrementInFlight() {
+            inFlight.incrementAndGet();
+        }
+
+        void addInFlight(int delta) {
+            inFlight.addAndGet(delta);
+        }
+
+        void decrementInFlight() {
+            inFlight.decrementAndGet();
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        boolean tryPark() {
+            return parked.compareAndSet(false, true);
+        }
+
+        void unpark() {
+            parked.set(false);
+        }
+
+        public boolean isParked() {
+            return parked.get();
+        }
+
+        void updateBudget(int split, int budgetGeneration, int fullWindow, int partitionLimit) {
+            this.split = split;
+            this.budgetGeneration = budgetGeneration;
+            this.fullWindow = fullWindow;
+            this.partitionLimit = partitionLimit;
+        }
+
+        void setLeaseLimit(int leaseLimit) {
+            this.leaseLimit = leaseLimit;
+        }
+
+        public int getWindowLimit() {
+            return Math.min(partitionLimit, leaseLimit);
+        }
+
+        int getPartitionLimit() {
+            return partitionLimit;
+        }
+
+        int getSplit() {
+            return split;
+        }
+
+        int getFullWindow() {
+            return fullWindow;
+        }
+
+        int getBudgetGeneration() {
+            return budgetGeneration;
+        }
     }
 
+    /**
+     * BARRIER sends a batch and waits for all of it before the next one;
+     * WINDOWED keeps a per-user window of sends in flight and streams results
+     * into the DB stage.
+     */
+    public enum SendMode {
+        BARRIER,
+        WINDOWED
+    }
+
+    /**
+     * A queued send in compact form: primitive ids, the tenant's shared
+     * credentials and the payload as the UTF-8 request body, instead of the
+     * whole consumed event.
+     */
     public record BatchItem(
-            BroadcastReportEvent event,
-            Acknowledgment acknowledgment) {
+            long broadcastId,
+            String recipient,
+            byte[] payload,
+            long timestamp,
+            TenantCredentials tenant,
+            Acknowledgment acknowledgment,
+            int partition) {
+
+        static final int UNKNOWN_PARTITION = -1;
+
+        // Stands in for a missing broadcast id or timestamp
+        static final long NONE = -1;
+
+        public static BatchItem of(
+                BroadcastReportEvent event, TenantCredentials tenant, Acknowledgment acknowledgment, int partition) {
+            return new BatchItem(
+                    event.getBroadcastId() != null ? event.getBroadcastId() : NONE,
+                    event.getRecipient(),
+                    event.getPayload() != null ? event.getPayload().getBytes(StandardCharsets.UTF_8) : null,
+                    event.getTimestamp() != null ? event.getTimestamp() : NONE,
+                    tenant,
+                    acknowledgment,
+                    partition);
+        }
+
+        /**
+         * The event this item was admitted from, under a new event id.
+         */
+        BroadcastReportEvent toEvent() {
+            return BroadcastReportEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .broadcastId(broadcastId != NONE ? broadcastId : null)
+                    .phoneNumberId(tenant.phoneNumberId())
+                    .accessToken(tenant.accessToken())
+                    .recipient(recipient)
+                    .payload(payload != null ? new String(payload, StandardCharsets.UTF_8) : null)
+                    .status(MessageStatus.PENDING)
+                    .retryCount(0)
+                    .timestamp(timestamp != NONE ? timestamp : null)
+                    .priority(0)
+                    .build();
+        }
     }
 
-    private record WhatsAppResult(
-            Long broadcastId,
+    /**
+     * One instance per tenant and token, referenced by all its queued items.
+     */
+    public record TenantCredentials(String phoneNumberId, String accessToken) {
+    }
+
+    record WhatsAppResult(
+            long broadcastId,
             String recipient,
-            FacebookApiResponse<SendTemplateMessageResponse> response,
+            FacebookApiResponse<RawSendMessageResponse> response,
             boolean success,
             String errorMessage) {
     }
 
+    record CompletedSend(
+            BatchItem item,
+            WhatsAppResult result,
+            long completedAtNanos) {
+    }
+
     public record DatabaseUpdate(
             Long broadcastId,
             String mobile,
-            String responseJson,
+            byte[] response,
             String status,
             String messageStatus,
             String whatsappMessageId,
-            String payload,
+            byte[] payload,
             LocalDateTime timestamp) {
     }
 
@@ -0,0 +1,73 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+/**
+ * Feedback controller for one batch size: additive increase while full
+ * batches finish comfortably under the target latency, multiplicative
+ * decrease in proportion to the overshoot once the smoothed latency is over
+ * it, always within [minSize, maxSize].
+ *
+ * A batch cut short by an empty queue or a flush timer says nothing about a
+ * larger size, so it can shrink the size but never grow it.
+ */
+public final class BatchSizeController {
+
+    // Weight of the newest sample in the smoothed latency
+    private static final double ALPHA = 0.3;
+
+    // Grow only while well under target, so the size settles instead of oscillating
+    private static final double GROW_BELOW = 0.8;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetNanos;
+
+    private volatile int size;
+    private double smoothedNanos = -1;
+
+    public BatchSizeController(int initialSize, int minSize, int maxSize, long targetNanos) {
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid batch size bounds: " + minSize + ".." + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = targetNanos;
+        this.size = clamp(initialSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Feed the latency of a finished batch of batchSize items.
+     *
+     * @return The size for the next batch
+     */
+    public synchronized int record(int batchSize, long latencyNanos) {
+        smoothedNanos = smoothedNanos < 0
+                ? latencyNanos
+                : ALPHA * latencyNanos + (1 - ALPHA) * smoothedNanos;
+
+        if (smoothedNanos > targetNanos && latencyNanos > targetNanos) {
+            size = clamp((int) (size * targetNanos / smoothedNanos));
+            // Batches of the old size are still finishing; judge the new one on fresh samples
+            smoothedNanos = targetNanos;
+        } else if (batchSize >= size && smoothedNanos < targetNanos * GROW_BELOW) {
+            size = clamp(size + Math.max(1, size / 10));
+        }
+        return size;
+    }
+
+    public synchronized void reset(int initialSize) {
+        size = clamp(initialSize);
+        smoothedNanos = -1;
+    }
+
+    public synchronized double smoothedLatencyMs() {
+        return smoothedNanos < 0 ? 0 : smoothedNanos / 1_000_000.0;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minSize, Math.min(maxSize, value));
+    }
+}
@@ -0,0 +1,133 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aigreentick.services.messaging.config.BatchAutoTuneProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batch sizes for BatchCoordinator, one {@link BatchSizeController} for the
+ * WINDOWED DB writes, which mix tenants, and one per tenant for BARRIER
+ * batches, kept on the tenant's state. With auto-tune off every size is the
+ * fixed batch.size.
+ *
+ * The chosen sizes are recorded as the batch.size distribution per stage, so
+ * their recent history shows next to the current value.
+ */
+@Slf4j
+@Component
+public class BatchSizeTuner {
+
+    private final BatchAutoTuneProperties properties;
+    private final BatchSizeController dbController;
+    private volatile int initialSize;
+
+    // Current BARRIER sizes of the active tenants, for the tenant gauge
+    private volatile Supplier<IntStream> tenantSizeSource = IntStream::empty;
+
+    private final DistributionSummary dbSizes;
+    private final DistributionSummary tenantSizes;
+
+    public BatchSizeTuner(
+            BatchAutoTuneProperties properties,
+            @Value("${batch.size:80}") int initialSize,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.initialSize = initialSize;
+        this.dbController = newController(initialSize);
+
+        this.dbSizes = DistributionSummary.builder("batch.size")
+                .description("Results per WINDOWED DB write")
+                .tag("stage", "db")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        this.tenantSizes = DistributionSummary.builder("batch.size")
+                .description("Items per BARRIER tenant batch")
+                .tag("stage", "tenant")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+
+        Gauge.builder("batch.size.current", dbController, BatchSizeController::size)
+                .description("Size the next WINDOWED DB write flushes at")
+                .tag("stage", "db")
+                .register(meterRegistry);
+        Gauge.builder("batch.size.current", this, BatchSizeTuner::meanTenantSize)
+                .description("Mean size of the next BARRIER batch over active tenants")
+                .tag("stage", "tenant")
+                .register(meterRegistry);
+        Gauge.builder("batch.latency.smoothed", dbController, BatchSizeController::smoothedLatencyMs)
+                .description("Smoothed latency the WINDOWED DB batch size is steered by")
+                .tag("stage", "db")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            log.info("Batch size auto-tune: start={} bounds={}..{} targetLatencyMs={}",
+                    dbController.size(), properties.getMinSize(), properties.getMaxSize(),
+                    properties.getTargetLatencyMs());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int dbBatchSize() {
+        return properties.isEnabled() ? dbController.size() : initialSize;
+    }
+
+    public void recordDbBatch(int size, long latencyNanos) {
+        dbSizes.record(size);
+        if (properties.isEnabled()) {
+            dbController.record(size, latencyNanos);
+        }
+    }
+
+    public BatchSizeController newTenantController() {
+        return newController(initialSize);
+    }
+
+    public int tenantBatchSize(BatchSizeController controller) {
+        return properties.isEnabled() ? controller.size() : initialSize;
+    }
+
+    public void recordTenantBatch(BatchSizeController controller, int size, long latencyNanos) {
+        tenantSizes.record(size);
+        if (properties.isEnabled()) {
+            controller.record(size, latencyNanos);
+        }
+    }
+
+    public void bindTenantSizes(Supplier<IntStream> source) {
+        this.tenantSizeSource = source;
+    }
+
+    /**
+     * Restart the DB controller and new tenant controllers from a new base
+     * size, e.g. one set at runtime; existing tenants reset their own.
+     */
+    public void reset(int size) {
+        initialSize = size;
+        dbController.reset(size);
+    }
+
+    private BatchSizeController newController(int size) {
+        return new BatchSizeController(size, properties.getMinSize(), properties.getMaxSize(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getTargetLatencyMs()));
+    }
+
+    private double meanTenantSize() {
+        return tenantSizeSource.get()
+                .average()
+                .orElse(initialSize);
+    }
+}
@@ -0,0 +1,206 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.BatchItem;
+import com.aigreentick.services.messaging.config.BroadcastControlProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cancel, pause and resume per broadcast or per phoneNumberId.
+ *
+ * Controls are rows in broadcast_controls. Every instance reloads them each
+ * refreshInterval and hands BatchCoordinator an immutable ControlSet, so the
+ * send path checks them with two map lookups and no locking. The instance
+ * serving the request applies its change at once.
+ *
+ * A broadcast cancel is permanent. A tenant cancel stops what was dispatched
+ * before it; later broadcasts of the tenant are sent normally.
+ */
+@Slf4j
+@Service
+public class BroadcastControlService {
+
+    private static final String UPSERT_CONTROL = """
+            INSERT INTO broadcast_controls (scope, target_id, action, created_at)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE action = VALUES(action), created_at = VALUES(created_at)
+            """;
+
+    private final BatchCoordinator batchCoordinator;
+    private final JdbcTemplate jdbcTemplate;
+    private final BroadcastControlProperties properties;
+
+    public BroadcastControlService(
+            BatchCoordinator batchCoordinator,
+            JdbcTemplate jdbcTemplate,
+            BroadcastControlProperties properties) {
+        this.batchCoordinator = batchCoordinator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public Control cancelBroadcast(Long broadcastId) {
+        return set(Scope.BROADCAST, broadcastId.toString(), Action.CANCEL);
+    }
+
+    /**
+     * @throws IllegalStateException if the broadcast is already cancelled
+     */
+    public Control pauseBroadcast(Long broadcastId) {
+        return set(Scope.BROADCAST, broadcastId.toString(), Action.PAUSE);
+    }
+
+    public boolean resumeBroadcast(Long broadcastId) {
+        return resume(Scope.BROADCAST, broadcastId.toString());
+    }
+
+    public Control cancelTenant(String phoneNumberId) {
+        return set(Scope.TENANT, phoneNumberId, Action.CANCEL);
+    }
+
+    /**
+     * @throws IllegalStateException if the tenant has a cancel, until it
+     *                               expires after cancelRetentionMs
+     */
+    public Control pauseTenant(String phoneNumberId) {
+        return set(Scope.TENANT, phoneNumberId, Action.PAUSE);
+    }
+
+    public boolean resumeTenant(String phoneNumberId) {
+        return resume(Scope.TENANT, phoneNumberId);
+    }
+
+    private synchronized Control set(Scope scope, String targetId, Action action) {
+        Control current = find(scope, targetId);
+        if (current != null && current.action() == Action.CANCEL) {
+            // A pause would overwrite the cancel row and send what it cancelled on resume
+            if (action == Action.PAUSE) {
+                throw new IllegalStateException((scope == Scope.BROADCAST ? "Broadcast " : "Tenant ")
+                        + targetId + " is cancelled");
+            }
+            if (scope == Scope.BROADCAST) {
+                return current;
+            }
+        }
+
+        Control control = new Control(scope, targetId, action, System.currentTimeMillis());
+        jdbcTemplate.update(UPSERT_CONTROL, scope.name(), targetId, action.name(), control.since());
+        log.info("Broadcast control set: {} {} -> {}", scope, targetId, action);
+
+        refresh();
+        return control;
+    }
+
+    /**
+     * Lift a pause; cancels stay.
+     *
+     * @return false if there was no pause to lift
+     */
+    private synchronized boolean resume(Scope scope, String targetId) {
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM broadcast_controls WHERE scope = ? AND target_id = ? AND action = ?",
+                scope.name(), targetId, Action.PAUSE.name());
+        if (deleted > 0) {
+            log.info("Broadcast control lifted: {} {}", scope, targetId);
+            refresh();
+        }
+        return deleted > 0;
+    }
+
+    private Control find(Scope scope, String targetId) {
+        List<Control> rows = jdbcTemplate.query(
+                "SELECT action, created_at FROM broadcast_controls WHERE scope = ? AND target_id = ?",
+                (rs, i) -> new Control(scope, targetId, Action.valueOf(rs.getString(1)), rs.getLong(2)),
+                scope.name(), targetId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Reload all controls, drop expired cancels and pass the set on when it changed.
+     */
+    @Scheduled(fixedDelayString = "${broadcast-control.refresh-interval-ms:1000}")
+    public synchronized void refresh() {
+        try {
+            jdbcTemplate.update("DELETE FROM broadcast_controls WHERE action = ? AND created_at < ?",
+                    Action.CANCEL.name(), System.currentTimeMillis() - properties.getCancelRetentionMs());
+
+            Map<Long, Control> broadcasts = new HashMap<>();
+            Map<String, Control> tenants = new HashMap<>();
+            jdbcTemplate.query("SELECT scope, target_id, action, created_at FROM broadcast_controls", rs -> {
+                Scope scope = Scope.valueOf(rs.getString(1));
+                Control control = new Control(scope, rs.getString(2), Action.valueOf(rs.getString(3)),
+                        rs.getLong(4));
+                if (scope == Scope.BROADCAST) {
+                    broadcasts.put(Long.valueOf(control.targetId()), control);
+                } else {
+                    tenants.put(control.targetId(), control);
+                }
+            });
+
+            ControlSet next = new ControlSet(Map.copyOf(broadcasts), Map.copyOf(tenants));
+            if (!next.equals(batchCoordinator.getControls())) {
+                batchCoordinator.applyControls(next);
+            }
+        } catch (Exception e) {
+            // Keep the last set; a missed resume only delays sending
+            log.warn("Broadcast control refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public enum Scope {
+        BROADCAST,
+        TENANT
+    }
+
+    public enum Action {
+        CANCEL,
+        PAUSE
+    }
+
+    public record Control(Scope scope, String targetId, Action action, long since) {
+    }
+
+    /**
+     * Immutable snapshot of all controls, swapped as a whole.
+     */
+    public record ControlSet(Map<Long, Control> broadcasts, Map<String, Control> tenants) {
+
+        public static final ControlSet EMPTY = new ControlSet(Map.of(), Map.of());
+
+        public boolean isEmpty() {
+            return broadcasts.isEmpty() && tenants.isEmpty();
+        }
+
+        /**
+         * True when the item belongs to a cancelled broadcast, or was
+         * dispatched before its tenant was cancelled.
+         */
+        public boolean cancels(BatchItem item) {
+            Control broadcast = broadcasts.get(item.broadcastId());
+            if (broadcast != null && broadcast.action() == Action.CANCEL) {
+                return true;
+            }
+            Control tenant = tenants.get(item.tenant().phoneNumberId());
+            return tenant != null && tenant.action() == Action.CANCEL
+                    && item.timestamp() != BatchItem.NONE && item.timestamp() <= tenant.since();
+        }
+
+        public boolean holds(BatchItem item) {
+            Control broadcast = broadcasts.get(item.broadcastId());
+            return broadcast != null && broadcast.action() == Action.PAUSE;
+        }
+
+        public boolean tenantPaused(String phoneNumberId) {
+            Control tenant = phoneNumberId != null ? tenants.get(phoneNumberId) : null;
+            return tenant != null && tenant.action() == Action.PAUSE;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.aigreentick.services.messaging.broadcast.dto.BroadcastDispatchItemDto
 import com.aigreentick.services.messaging.broadcast.dto.BroadcastDispatchRequestDto;
 import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
 import com.aigreentick.services.messaging.broadcast.kafka.producer.BroadcastReportProducer;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.HotTenantTracker;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class BroadcastOrchestratorServiceImpl {
     private final BroadcastReportProducer broadcastReportProducer;
+    private final HotTenantTracker hotTenantTracker;
+    private final BroadcastProgressTracker progressTracker;
+    private final ScheduledDispatchService scheduledDispatchService;
 
     /**
      * Handle dispatch flow - publish pre-built templates to Kafka.
@@ -30,6 +34,10 @@ public class BroadcastOrchestratorServiceImpl {
      * 2. Create Kafka events from pre-built payloads
      * 3. Publish to Kafka asynchronously
      * 4. Return immediately (don't wait for Kafka or WhatsApp)
+     *
+     * With a future sendAt the events are stored instead and published by
+     * ScheduledDispatchService when due. With a dripWindow they are stored
+     * too and published one by one, spread evenly over the window.
      */
     public ResponseMessage<DispatchResult> handleDispatch(BroadcastDispatchRequestDto request) {
         long startTime = System.currentTimeMillis();
@@ -45,6 +53,24 @@ public class BroadcastOrchestratorServiceImpl {
                 return ResponseMessage.error("Items list is empty");
             }
 
+            if (request.getDripWindow() != null) {
+                if (request.getDripWindow().isNegative() || request.getDripWindow().isZero()) {
+                    return ResponseMessage.error("Drip window must be positive");
+                }
+                if (request.getItems().stream().map(BroadcastDispatchItemDto::getBroadcastId).distinct().count() > 1) {
+                    return ResponseMessage.error("A drip request must hold items of a single broadcast");
+                }
+            }
+
+            boolean scheduled = request.getSendAt() != null
+                && request.getSendAt().toEpochMilli() > System.currentTimeMillis();
+
+            // 2. Declared campaign volume decides the partition split up front;
+            // a dripped campaign never arrives as a burst
+            if (request.getExpectedTotal() != null && !scheduled && request.getDripWindow() == null) {
+                hotTenantTracker.declareVolume(
+                    request.getAccountInfo().getPhoneNumberId(), request.getExpectedTotal());
+            }
 
             // 3. Create Kafka events from items
             List<BroadcastReportEvent> events = new ArrayList<>();
@@ -97,8 +123,46 @@ public class BroadcastOrchestratorServiceImpl {
 
             log.info("Created {} Kafka events (Failed: {})", events.size(), failedCount);
 
-            // 4. Publish to Kafka (async - don't wait)
-            CompletableFuture<Void> publishFuture = broadcastReportProducer.publishBatch(events);
+            if (request.getDripWindow() != null) {
+                // Campaign size sets the spacing; requests of a campaign share the broadcast's clock
+                long total = request.getExpectedTotal() != null
+                    ? Math.max(request.getExpectedTotal(), events.size())
+                    : events.size();
+                long intervalMicros = Math.max(1, request.getDripWindow().toNanos() / 1000 / total);
+                long notBefore = scheduled ? request.getSendAt().toEpochMilli() : System.currentTimeMillis();
+
+                long dispatchId = scheduledDispatchService.drip(
+                    request.getAccountInfo(), events, notBefore, intervalMicros);
+
+                return ResponseMessage.success(
+                    "Dripping " + events.size() + " messages over " + request.getDripWindow(),
+                    new DispatchResult(
+                        events.size(),
+                        failedCount,
+                        "Stored as drip dispatch " + dispatchId + ", one message every "
+                            + intervalMicros + "us.")
+                );
+            }
+
+            if (scheduled) {
+                long dispatchId = scheduledDispatchService.schedule(
+                    request.getAccountInfo(),
+                    request.getExpectedTotal(),
+                    events,
+                    request.getSendAt().toEpochMilli());
+
+                return ResponseMessage.success(
+                    "Scheduled " + events.size() + " messages for " + request.getSendAt(),
+                    new DispatchResult(
+                        events.size(),
+                        failedCount,
+                        "Scheduled as dispatch " + dispatchId + ". Published to Kafka when due.")
+                );
+            }
+
+            // 4. Publish to Kafka (async - don't wait); each accepted event counts as queued
+            CompletableFuture<Void> publishFuture = broadcastReportProducer.publishBatch(events,
+                event -> progressTracker.recordQueued(event.getBroadcastId(), 1));
 
             // Log completion asynchronously
             publishFuture.whenComplete((result, ex) -> {
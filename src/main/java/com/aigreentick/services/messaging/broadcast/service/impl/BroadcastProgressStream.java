@@ -0,0 +1,204 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastProgressTracker.Baseline;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastProgressTracker.BroadcastProgress;
+import com.aigreentick.services.messaging.config.ProgressProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Live progress for server-sent events. Each watched broadcast has one hub
+ * shared by all of its viewers; a single scheduled tick updates every hub
+ * from the in-process counters, so cost does not grow with viewers.
+ *
+ * Events carry absolute counts, never increments, so a slow viewer can be
+ * conflated to the newest snapshot without drifting. Other instances'
+ * progress arrives with each resync of the summary row.
+ */
+@Slf4j
+@Service
+public class BroadcastProgressStream {
+
+    private final BroadcastProgressTracker progressTracker;
+    private final ProgressProperties.Stream properties;
+
+    private final ConcurrentHashMap<Long, Hub> hubs = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public BroadcastProgressStream(
+            BroadcastProgressTracker progressTracker,
+            ProgressProperties properties,
+            MeterRegistry meterRegistry) {
+        this.progressTracker = progressTracker;
+        this.properties = properties.getStream();
+
+        Gauge.builder("broadcast.progress.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open progress event streams")
+                .register(meterRegistry);
+        Gauge.builder("broadcast.progress.stream.broadcasts", hubs, ConcurrentHashMap::size)
+                .description("Broadcasts with at least one open progress stream")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stream of progress snapshots, starting with the current one. Emitted
+     * when counters change, or unchanged every heartbeat interval.
+     *
+     * @throws ResponseStatusException 503 when the subscriber limits are reached
+     */
+    public Flux<BroadcastProgress> subscribe(Long broadcastId) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many progress streams");
+        }
+
+        Hub hub;
+        try {
+            hub = retainHub(broadcastId);
+        } catch (RuntimeException e) {
+            subscribers.decrementAndGet();
+            throw e;
+        }
+
+        return hub.sink.asFlux()
+                .onBackpressureLatest()
+                .doFinally(signal -> {
+                    hub.release();
+                    subscribers.decrementAndGet();
+                });
+    }
+
+    private Hub retainHub(Long broadcastId) {
+        while (true) {
+            Hub hub = hubs.computeIfAbsent(broadcastId, Hub::new);
+            int retained = hub.retain();
+            if (retained > properties.getMaxSubscribersPerBroadcast()) {
+                hub.release();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many progress streams for broadcast " + broadcastId);
+            }
+            if (retained > 0) {
+                try {
+                    hub.start(System.currentTimeMillis());
+                } catch (RuntimeException e) {
+                    hub.release();
+                    throw e;
+                }
+                return hub;
+            }
+            // Closed by a concurrent tick; it has left the map, so try again
+        }
+    }
+
+    /**
+     * Publish changed progress to every watched broadcast and close hubs
+     * without viewers.
+     */
+    @Scheduled(fixedDelayString = "${progress.stream.interval-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (Hub hub : hubs.values()) {
+            try {
+                if (!hub.closeIfUnwatched()) {
+                    hub.publish(now);
+                }
+            } catch (Exception e) {
+                log.warn("Progress stream update failed for broadcast {}: {}", hub.broadcastId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hubs.values().forEach(Hub::close);
+    }
+
+    private final class Hub {
+        private final Long broadcastId;
+        // Replays the newest snapshot to viewers joining later
+        private final Sinks.Many<BroadcastProgress> sink = Sinks.many().replay().latest();
+
+        // -1 once closed; guarded by this
+        private int viewers;
+        private Baseline baseline;
+        private long baselineAt;
+        private BroadcastProgress lastEmitted;
+        private long lastEmittedAt;
+
+        Hub(Long broadcastId) {
+            this.broadcastId = broadcastId;
+        }
+
+        /**
+         * @return viewers after joining, or 0 when the hub is already closed
+         */
+        synchronized int retain() {
+            return viewers < 0 ? 0 : ++viewers;
+        }
+
+        synchronized void release() {
+            if (viewers > 0) {
+                viewers--;
+            }
+        }
+
+        synchronized boolean closeIfUnwatched() {
+            if (viewers == 0) {
+                close();
+            }
+            return viewers < 0;
+        }
+
+        synchronized void close() {
+            viewers = -1;
+            hubs.remove(broadcastId, this);
+            sink.tryEmitComplete();
+        }
+
+        /**
+         * First viewer reads the baseline here instead of waiting a tick.
+         */
+        synchronized void start(long now) {
+            if (baseline == null) {
+                publish(now);
+            }
+        }
+
+        synchronized void publish(long now) {
+            if (viewers < 0) {
+                return;
+            }
+
+            BroadcastProgress totals = progressTracker.localTotals(broadcastId);
+            // Totals shrink only when the tracker evicted the broadcast
+            if (baseline == null || now - baselineAt >= properties.getResyncIntervalMs()
+                    || totals.behind(baseline.localTotals())) {
+                baseline = progressTracker.baseline(broadcastId);
+                baselineAt = now;
+                totals = baseline.localTotals();
+            }
+
+            BroadcastProgress current = baseline.progress().plus(totals.minus(baseline.localTotals()));
+            if (current.sameCounts(lastEmitted)
+                    && now - lastEmittedAt < properties.getHeartbeatIntervalMs()) {
+                return;
+            }
+            lastEmitted = current;
+            lastEmittedAt = now;
+            sink.tryEmitNext(current);
+        }
+    }
+}
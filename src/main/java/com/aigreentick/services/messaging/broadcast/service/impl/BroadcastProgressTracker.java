@@ -0,0 +1,333 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.config.ProgressProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-broadcast progress counters, kept in memory and added periodically to
+ * the broadcast_progress summary table.
+ *
+ * Hot paths only bump LongAdders holding running totals. Each flush adds
+ * what this instance counted since the previous flush to the shared row, so
+ * counts from all instances sum up. Progress reads use the summary row plus
+ * local unflushed counts and never touch reports.
+ *
+ * Counts follow the at-least-once pipeline: a record redelivered after a
+ * crash can be counted twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastProgressTracker {
+
+    private static final String UPSERT_DELTAS = """
+            INSERT INTO broadcast_progress (broadcast_id, queued, sent, failed, cancelled, delivered, read_count,
+                                            updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE queued = queued + VALUES(queued),
+                                    sent = sent + VALUES(sent),
+                                    failed = failed + VALUES(failed),
+                                    cancelled = cancelled + VALUES(cancelled),
+                                    delivered = delivered + VALUES(delivered),
+                                    read_count = read_count + VALUES(read_count),
+                                    updated_at = VALUES(updated_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProgressProperties properties;
+
+    private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Flushes take the write lock so readers never see a delta both in the
+    // summary row and as unflushed
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public void recordQueued(Long broadcastId, int count) {
+        if (broadcastId != null && count > 0) {
+            counters(broadcastId).queued.add(count);
+        }
+    }
+
+    /**
+     * Count published events per broadcast.
+     */
+    public void recordQueued(List<BroadcastReportEvent> events) {
+        Map<Long, Integer> perBroadcast = new HashMap<>();
+        for (BroadcastReportEvent event : events) {
+            if (event.getBroadcastId() != null) {
+                perBroadcast.merge(event.getBroadcastId(), 1, Integer::sum);
+            }
+        }
+        perBroadcast.forEach(this::recordQueued);
+    }
+
+    public void recordSent(Long broadcastId) {
+        if (broadcastId != null) {
+            counters(broadcastId).sent.increment();
+        }
+    }
+
+    public void recordFailed(Long broadcastId) {
+        if (broadcastId != null) {
+            counters(broadcastId).failed.increment();
+        }
+    }
+
+    public void recordCancelled(Long broadcastId) {
+        if (broadcastId != null) {
+            counters(broadcastId).cancelled.increment();
+        }
+    }
+
+    public void recordDelivered(Long broadcastId) {
+        if (broadcastId != null) {
+            counters(broadcastId).delivered.increment();
+        }
+    }
+
+    public void recordRead(Long broadcastId) {
+        if (broadcastId != null) {
+            counters(broadcastId).read.increment();
+        }
+    }
+
+    /**
+     * Cluster-wide progress as of the last flushes, plus this instance's
+     * unflushed deltas.
+     */
+    public BroadcastProgress getProgress(Long broadcastId) {
+        return baseline(broadcastId).progress();
+    }
+
+    /**
+     * Cluster-wide progress together with this instance's running totals at
+     * the same instant; later totals minus these give what was counted since.
+     */
+    public Baseline baseline(Long broadcastId) {
+        flushLock.readLock().lock();
+        try {
+            BroadcastProgress stored = readStored(broadcastId);
+            Counters local = counters.get(broadcastId);
+            if (local == null) {
+                return new Baseline(stored, BroadcastProgress.empty(broadcastId));
+            }
+            BroadcastProgress totals = local.totals(broadcastId, System.currentTimeMillis());
+            return new Baseline(stored.plus(totals.minus(local.flushed)), totals);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This instance's running totals for a broadcast. Only ever grows, except
+     * after the broadcast was evicted as idle.
+     */
+    public BroadcastProgress localTotals(Long broadcastId) {
+        Counters local = counters.get(broadcastId);
+        return local == null
+                ? BroadcastProgress.empty(broadcastId)
+                : local.totals(broadcastId, System.currentTimeMillis());
+    }
+
+    private BroadcastProgress readStored(Long broadcastId) {
+        List<BroadcastProgress> rows = jdbcTemplate.query(
+                "SELECT queued, sent, failed, cancelled, delivered, read_count, updated_at "
+                        + "FROM broadcast_progress WHERE broadcast_id = ?",
+                (rs, i) -> new BroadcastProgress(broadcastId, rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7)),
+                broadcastId);
+        return rows.isEmpty() ? BroadcastProgress.empty(broadcastId) : rows.get(0);
+    }
+
+    /**
+     * Add unflushed counts to broadcast_progress in one batch. After a failure
+     * they stay unflushed for the next interval; broadcasts idle for
+     * idleEvictMs are dropped from memory.
+     */
+    @Scheduled(fixedDelayString = "${progress.flush-interval-ms:2000}")
+    @PreDestroy
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void flushLocked() {
+        long now = System.currentTimeMillis();
+        List<BroadcastProgress> deltas = new ArrayList<>();
+        List<Counters> flushing = new ArrayList<>();
+        List<BroadcastProgress> totals = new ArrayList<>();
+
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Counters local = entry.getValue();
+            BroadcastProgress total = local.totals(entry.getKey(), now);
+            BroadcastProgress delta = total.minus(local.flushed);
+            if (!delta.isEmpty()) {
+                local.lastActivity = now;
+                deltas.add(delta);
+                flushing.add(local);
+                totals.add(total);
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_DELTAS, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                        BroadcastProgress delta = deltas.get(i);
+                        ps.setLong(1, delta.broadcastId());
+                        ps.setLong(2, delta.queued());
+                        ps.setLong(3, delta.sent());
+                        ps.setLong(4, delta.failed());
+                        ps.setLong(5, delta.cancelled());
+                        ps.setLong(6, delta.delivered());
+                        ps.setLong(7, delta.read());
+                        ps.setLong(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return deltas.size();
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Progress flush failed for {} broadcasts, retrying next interval: {}",
+                        deltas.size(), e.getMessage());
+                return;
+            }
+            for (int i = 0; i < flushing.size(); i++) {
+                flushing.get(i).flushed = totals.get(i);
+            }
+        }
+
+        evictIdle(now);
+    }
+
+    private void evictIdle(long now) {
+        long idleBefore = now - properties.getIdleEvictMs();
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Counters idle = entry.getValue();
+            if (idle.lastActivity < idleBefore && counters.remove(entry.getKey(), idle)) {
+                // An increment racing the removal is carried over, not lost
+                BroadcastProgress late = idle.totals(entry.getKey(), now).minus(idle.flushed);
+                if (!late.isEmpty()) {
+                    counters(entry.getKey()).add(late);
+                }
+            }
+        }
+    }
+
+    private Counters counters(Long broadcastId) {
+        return counters.computeIfAbsent(broadcastId, k -> new Counters());
+    }
+
+    /**
+     * Running totals since the entry was created; flushed is the part already
+     * in broadcast_progress and is only touched under the write lock.
+     */
+    private static final class Counters {
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder read = new LongAdder();
+        private volatile BroadcastProgress flushed = BroadcastProgress.empty(null);
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        BroadcastProgress totals(Long broadcastId, long now) {
+            return new BroadcastProgress(broadcastId, queued.sum(), sent.sum(), failed.sum(),
+                    cancelled.sum(), delivered.sum(), read.sum(), now);
+        }
+
+        void add(BroadcastProgress delta) {
+            queued.add(delta.queued());
+            sent.add(delta.sent());
+            failed.add(delta.failed());
+            cancelled.add(delta.cancelled());
+            delivered.add(delta.delivered());
+            read.add(delta.read());
+        }
+    }
+
+    /**
+     * Progress of one broadcast. pending = queued - sent - failed - cancelled.
+     */
+    public record BroadcastProgress(
+            Long broadcastId,
+            long queued,
+            long sent,
+            long failed,
+            long cancelled,
+            long delivered,
+            long read,
+            long updatedAt) {
+
+        @JsonProperty("pending")
+        public long pending() {
+            return Math.max(0, queued - sent - failed - cancelled);
+        }
+
+        static BroadcastProgress empty(Long broadcastId) {
+            return new BroadcastProgress(broadcastId, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        boolean isEmpty() {
+            return queued == 0 && sent == 0 && failed == 0 && cancelled == 0 && delivered == 0 && read == 0;
+        }
+
+        BroadcastProgress plus(BroadcastProgress delta) {
+            return new BroadcastProgress(broadcastId, queued + delta.queued, sent + delta.sent,
+                    failed + delta.failed, cancelled + delta.cancelled, delivered + delta.delivered,
+                    read + delta.read, Math.max(updatedAt, delta.updatedAt));
+        }
+
+        BroadcastProgress minus(BroadcastProgress base) {
+            return new BroadcastProgress(broadcastId, queued - base.queued, sent - base.sent,
+                    failed - base.failed, cancelled - base.cancelled, delivered - base.delivered,
+                    read - base.read, updatedAt);
+        }
+
+        /**
+         * True when any counter is lower than in other.
+         */
+        boolean behind(BroadcastProgress other) {
+            return queued < other.queued || sent < other.sent || failed < other.failed
+                    || cancelled < other.cancelled || delivered < other.delivered || read < other.read;
+        }
+
+        boolean sameCounts(BroadcastProgress other) {
+            return other != null && !behind(other) && !other.behind(this);
+        }
+    }
+
+    /**
+     * Cluster-wide progress and the local running totals it was read with.
+     */
+    public record Baseline(BroadcastProgress progress, BroadcastProgress localTotals) {
+    }
+}
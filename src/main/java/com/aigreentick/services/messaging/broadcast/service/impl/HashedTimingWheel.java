@@ -0,0 +1,140 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: timeouts hash into wheelSize buckets by deadline tick,
+ * so scheduling and cancelling are O(1) and each advance only visits the
+ * buckets of the ticks that passed. Deadlines further out than one turn share
+ * buckets with nearer ones and are skipped until their tick comes.
+ *
+ * Not tied to a thread: the owner calls advance, typically from a scheduled
+ * task. All methods are synchronized.
+ */
+public final class HashedTimingWheel<T> {
+
+    private final long tickMs;
+    private final Timeout<T>[] buckets;
+    private final int mask;
+
+    // Last tick whose buckets were expired
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(int wheelSize, long tickMs, long startMs) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be positive: " + tickMs);
+        }
+        this.tickMs = tickMs;
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule value to expire at deadlineMs, rounded up to the next tick.
+     * Past deadlines expire on the next advance.
+     */
+    public synchronized Timeout<T> schedule(T value, long deadlineMs) {
+        long tick = Math.max((deadlineMs + tickMs - 1) / tickMs, currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(value, tick);
+
+        int bucket = (int) (tick & mask);
+        timeout.next = buckets[bucket];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        buckets[bucket] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return false if the timeout already expired or was cancelled
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.removed) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Expire everything due at nowMs, in bucket order. A gap longer than one
+     * turn visits every bucket once.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+
+        List<T> expired = new ArrayList<>();
+        long steps = Math.min(targetTick - currentTick, buckets.length);
+        for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+            Timeout<T> timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.deadlineTick <= targetTick) {
+                    unlink(timeout);
+                    expired.add(timeout.value);
+                }
+                timeout = next;
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Longest delay that lands within one turn of the wheel.
+     */
+    public long spanMs() {
+        return tickMs * buckets.length;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[(int) (timeout.deadlineTick & mask)] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.removed = true;
+        size--;
+    }
+
+    /**
+     * Handle of a scheduled value, used to cancel it.
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean removed;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.messaging.broadcast.enums.MessageStatus;
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.MessageStatusConsumer;
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.config.StatusIngestionProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds webhook statuses for coalesce-window-ms and writes one row per
+ * message: the status with the highest MessageStatus precedence, ties going
+ * to the later callback.
+ *
+ * Kafka batches are acknowledged only after the flush that contains them,
+ * so nothing is committed before it is written. A failed flush merges its
+ * entries back and is retried from the scheduler with a doubling backoff.
+ *
+ * Flushes never run on the consumer thread. Once coalesce-max-entries
+ * messages are buffered the status listener is paused, and the next
+ * successful flush resumes it, so a database outage holds the buffer at
+ * about that size instead of growing it.
+ */
+@Slf4j
+@Service
+public class MessageStatusCoalescer {
+
+    // Rough heap cost of one buffered entry besides its message id
+    private static final int ENTRY_OVERHEAD_BYTES = 240;
+
+    private final MessageStatusServiceImpl statusService;
+    private final StatusIngestionProperties properties;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    private final Object bufferLock = new Object();
+    private Map<String, MessageStatusEvent> latest = new HashMap<>();
+    private List<Acknowledgment> pendingAcks = new ArrayList<>();
+    private long oldestBufferedAt;
+    private long bufferedBytes;
+
+    // Serializes flushes so acknowledgments are issued in poll order
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Backoff after failed flushes, reset by a successful one
+    private volatile long retryAt;
+    private long retryDelayMs;
+
+    // Set while the status listener is paused on a full buffer
+    private volatile boolean consumerPaused;
+
+    private final Counter received;
+    private final Counter written;
+    private final Timer flushDuration;
+    private final Timer bufferDelay;
+
+    public MessageStatusCoalescer(
+            MessageStatusServiceImpl statusService,
+            StatusIngestionProperties properties,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            MeterRegistry meterRegistry) {
+        this.statusService = statusService;
+        this.properties = properties;
+        this.listenerRegistry = listenerRegistry;
+
+        this.received = Counter.builder("whatsapp.status.coalesce.received")
+                .description("Status callbacks offered to the coalescing buffer")
+                .register(meterRegistry);
+        this.written = Counter.builder("whatsapp.status.coalesce.written")
+                .description("Report rows written after coalescing")
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("whatsapp.status.coalesce.flush")
+                .description("Time to write one coalesced flush")
+                .register(meterRegistry);
+        this.bufferDelay = Timer.builder("whatsapp.status.coalesce.delay")
+                .description("Age of the oldest buffered status when its flush starts")
+                .register(meterRegistry);
+
+        Gauge.builder("whatsapp.status.coalesce.buffer.entries", this, MessageStatusCoalescer::bufferedEntries)
+                .description("Messages waiting in the coalescing buffer")
+                .register(meterRegistry);
+        Gauge.builder("whatsapp.status.coalesce.buffer.bytes", this, MessageStatusCoalescer::bufferedBytes)
+                .description("Estimated heap held by the coalescing buffer")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Merge a polled batch into the buffer; the ack runs once it is written.
+     * Pauses the status listener when the buffer is over its entry limit.
+     */
+    public void offer(List<MessageStatusEvent> events, Acknowledgment acknowledgment) {
+        boolean full;
+        synchronized (bufferLock) {
+            if (latest.isEmpty()) {
+                oldestBufferedAt = System.currentTimeMillis();
+            }
+            for (MessageStatusEvent event : events) {
+                merge(latest, event);
+            }
+            if (acknowledgment != null) {
+                pendingAcks.add(acknowledgment);
+            }
+            full = latest.size() >= properties.getCoalesceMaxEntries();
+        }
+        received.increment(events.size());
+
+        if (full) {
+            pauseConsumer();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${status-ingestion.coalesce-window-ms:1000}")
+    public void flushWindow() {
+        if (System.currentTimeMillis() >= retryAt) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<String, MessageStatusEvent> batch;
+            List<Acknowledgment> acks;
+            long bufferedAt;
+            synchronized (bufferLock) {
+                if (latest.isEmpty() && pendingAcks.isEmpty()) {
+                    return;
+                }
+                batch = latest;
+                acks = pendingAcks;
+                bufferedAt = oldestBufferedAt;
+                latest = new HashMap<>();
+                pendingAcks = new ArrayList<>();
+                bufferedBytes = 0;
+            }
+
+            bufferDelay.record(System.currentTimeMillis() - bufferedAt, TimeUnit.MILLISECONDS);
+            try {
+                flushDuration.record(() -> statusService.applyStatuses(new ArrayList<>(batch.values())));
+            } catch (Exception e) {
+                requeue(batch, acks, bufferedAt);
+                retryDelayMs = retryDelayMs == 0
+                        ? properties.getCoalesceWindowMs()
+                        : Math.min(2 * retryDelayMs, properties.getCoalesceRetryMaxMs());
+                retryAt = System.currentTimeMillis() + retryDelayMs;
+                log.error("Status flush failed for {} messages, retrying in {}ms", batch.size(), retryDelayMs, e);
+                return;
+            }
+            written.increment(batch.size());
+            retryDelayMs = 0;
+            retryAt = 0;
+            resumeConsumer();
+
+            for (Acknowledgment ack : acks) {
+                try {
+                    ack.acknowledge();
+                } catch (Exception e) {
+                    log.error("Failed to acknowledge status batch", e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void requeue(Map<String, MessageStatusEvent> batch, List<Acknowledgment> acks, long bufferedAt) {
+        synchronized (bufferLock) {
+            for (MessageStatusEvent event : batch.values()) {
+                merge(latest, event);
+            }
+            // Older acks go first so offsets are still committed in order
+            acks.addAll(pendingAcks);
+            pendingAcks = acks;
+            oldestBufferedAt = bufferedAt;
+        }
+    }
+
+    private synchronized void pauseConsumer() {
+        if (consumerPaused) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(MessageStatusConsumer.LISTENER_ID);
+        if (container != null) {
+            consumerPaused = true;
+            container.pause();
+            log.warn("Status buffer full ({} messages), pausing status consumption until a flush succeeds",
+                    properties.getCoalesceMaxEntries());
+        }
+    }
+
+    private synchronized void resumeConsumer() {
+        if (!consumerPaused) {
+            return;
+        }
+        synchronized (bufferLock) {
+            if (latest.size() >= properties.getCoalesceMaxEntries()) {
+                return;
+            }
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(MessageStatusConsumer.LISTENER_ID);
+        if (container != null) {
+            container.resume();
+        }
+        consumerPaused = false;
+        log.info("Status buffer drained, resumed status consumption");
+    }
+
+    private void merge(Map<String, MessageStatusEvent> buffer, MessageStatusEvent event) {
+        MessageStatusEvent current = buffer.get(event.getMessageId());
+        if (current == null) {
+            buffer.put(event.getMessageId(), event);
+            bufferedBytes += ENTRY_OVERHEAD_BYTES + 2L * event.getMessageId().length();
+        } else if (supersedes(event, current)) {
+            buffer.put(event.getMessageId(), event);
+        }
+    }
+
+    private static boolean supersedes(MessageStatusEvent candidate, MessageStatusEvent current) {
+        MessageStatus next = MessageStatus.fromValue(candidate.getStatus());
+        MessageStatus held = MessageStatus.fromValue(current.getStatus());
+        if (next != held) {
+            return next.outranks(held);
+        }
+        long nextAt = candidate.getStatusTimestamp() != null ? candidate.getStatusTimestamp() : 0L;
+        long heldAt = current.getStatusTimestamp() != null ? current.getStatusTimestamp() : 0L;
+        return nextAt >= heldAt;
+    }
+
+    private double bufferedEntries() {
+        synchronized (bufferLock) {
+            return latest.size();
+        }
+    }
+
+    private double bufferedBytes() {
+        synchronized (bufferLock) {
+            return bufferedBytes;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.aigreentick.services.messaging.broadcast.enums.MessageStatus;
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.config.StatusIngestionProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies webhook delivery statuses to reports by message_id.
+ *
+ * A status can arrive before the send result that sets message_id is
+ * committed. Such statuses match no row; they are parked in
+ * message_status_pending and retried until they match or expire.
+ *
+ * Updates never lower a report's status below its current MessageStatus
+ * precedence, so a late delivered cannot overwrite read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageStatusServiceImpl {
+
+    // Changes the row only while its precedence is in [?, ?), so the affected
+    // count says whether this status raised it from that band
+    private static final String UPDATE_STATUS = """
+            UPDATE reports
+            SET status = CASE WHEN ? = 'failed' THEN 'failed' ELSE status END,
+                message_status = ?,
+                updated_at = ?
+            WHERE message_id = ?
+              AND %1$s >= ? AND %1$s < ?
+            """.formatted(precedenceOf("message_status"));
+
+    private static final String UPSERT_PENDING = """
+            INSERT INTO message_status_pending (message_id, status, status_timestamp, received_at)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE status_timestamp = VALUES(status_timestamp)
+            """;
+
+    private static final int SELECT_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatusIngestionProperties properties;
+    private final BroadcastProgressTracker progressTracker;
+
+    /**
+     * Apply a batch of statuses in one transaction; unmatched ones are parked.
+     *
+     * @return Number of reports updated
+     */
+    @Transactional
+    public int applyStatuses(List<MessageStatusEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        List<MessageStatusEvent> unmatched = new ArrayList<>();
+        int updated = update(events, unmatched);
+        park(unmatched);
+
+        log.info("Status batch applied: Updated={}, Parked={}, Total={}, Duration={}ms",
+                updated, unmatched.size(), events.size(), System.currentTimeMillis() - startTime);
+
+        return updated;
+    }
+
+    /**
+     * Retry parked statuses, oldest first, and drop those past pendingTtlMs.
+     */
+    @Scheduled(fixedDelayString = "${status-ingestion.pending-retry-interval-ms:5000}")
+    @Transactional
+    public void retryPending() {
+        List<MessageStatusEvent> pending = jdbcTemplate.query(
+                "SELECT message_id, status, status_timestamp, received_at FROM message_status_pending "
+                        + "ORDER BY received_at LIMIT ?",
+                (rs, i) -> MessageStatusEvent.builder()
+                        .messageId(rs.getString(1))
+                        .status(rs.getString(2))
+                        .statusTimestamp(rs.getLong(3))
+                        .receivedAt(rs.getLong(4))
+                        .build(),
+                properties.getPendingBatchSize());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<MessageStatusEvent> unmatched = new ArrayList<>();
+        int updated = update(pending, unmatched);
+
+        Set<MessageStatusEvent> stillUnmatched = Collections.newSetFromMap(new IdentityHashMap<>());
+        stillUnmatched.addAll(unmatched);
+
+        long expiry = System.currentTimeMillis() - properties.getPendingTtlMs();
+        List<Object[]> resolved = new ArrayList<>();
+        int expired = 0;
+        for (MessageStatusEvent event : pending) {
+            boolean matched = !stillUnmatched.contains(event);
+            if (matched || event.getReceivedAt() < expiry) {
+                resolved.add(new Object[] { event.getMessageId(), event.getStatus() });
+                expired += matched ? 0 : 1;
+            }
+        }
+        if (!resolved.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM message_status_pending WHERE message_id = ? AND status = ?", resolved);
+        }
+
+        if (updated > 0 || expired > 0) {
+            log.info("Pending statuses retried: Updated={}, Expired={}, StillPending={}",
+                    updated, expired, unmatched.size() - expired);
+        }
+    }
+
+    /**
+     * Batch update by message_id. Statuses matching no row go to unmatched;
+     * an outranked status still counts as applied.
+     *
+     * Rows are only read without locks and updated in (broadcast_id, mobile)
+     * order. Delivered and read are written one precedence band at a time, so
+     * the affected counts alone say which messages reached them.
+     */
+    private int update(List<MessageStatusEvent> events, List<MessageStatusEvent> unmatched) {
+        Map<String, ReportKey> reports = findReports(events);
+
+        List<MessageStatusEvent> matched = new ArrayList<>(events.size());
+        for (MessageStatusEvent event : events) {
+            if (reports.containsKey(event.getMessageId())) {
+                matched.add(event);
+            } else {
+                unmatched.add(event);
+            }
+        }
+        if (matched.isEmpty()) {
+            return 0;
+        }
+        // Precedence only rises, so write order within a row does not change the result
+        matched.sort(Comparator.comparing((MessageStatusEvent event) -> reports.get(event.getMessageId()))
+                .thenComparingInt(event -> statusOf(event).getPrecedence()));
+
+        List<BandUpdate> bandUpdates = new ArrayList<>(matched.size());
+        for (MessageStatusEvent event : matched) {
+            MessageStatus status = statusOf(event);
+            int precedence = status.getPrecedence();
+            if (status == MessageStatus.DELIVERED || status == MessageStatus.READ) {
+                int delivered = MessageStatus.DELIVERED.getPrecedence();
+                bandUpdates.add(new BandUpdate(event, status, 0, delivered));
+                if (status == MessageStatus.READ) {
+                    bandUpdates.add(new BandUpdate(event, status, delivered, precedence));
+                }
+            } else {
+                bandUpdates.add(new BandUpdate(event, status, 0, precedence));
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_STATUS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                BandUpdate update = bandUpdates.get(i);
+                String status = update.event().getStatus().toLowerCase();
+                ps.setString(1, status);
+                ps.setString(2, status);
+                ps.setTimestamp(3, now);
+                ps.setString(4, update.event().getMessageId());
+                ps.setInt(5, update.from());
+                ps.setInt(6, update.to());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bandUpdates.size();
+            }
+        });
+
+        List<Long> delivered = new ArrayList<>();
+        List<Long> read = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] <= 0) {
+                continue;
+            }
+            BandUpdate update = bandUpdates.get(i);
+            long broadcastId = reports.get(update.event().getMessageId()).broadcastId();
+            if (update.status() == MessageStatus.READ || update.status() == MessageStatus.DELIVERED) {
+                if (update.from() < MessageStatus.DELIVERED.getPrecedence()) {
+                    delivered.add(broadcastId);
+                }
+                if (update.status() == MessageStatus.READ) {
+                    read.add(broadcastId);
+                }
+            }
+        }
+        recordProgress(delivered, read);
+
+        return matched.size();
+    }
+
+    /**
+     * broadcast_id and mobile of the reports with these message ids, read
+     * without locking; neither changes once message_id is set.
+     */
+    private Map<String, ReportKey> findReports(List<MessageStatusEvent> events) {
+        Map<String, ReportKey> reports = new HashMap<>();
+        List<String> ids = events.stream().map(MessageStatusEvent::getMessageId).distinct().toList();
+        for (int from = 0; from < ids.size(); from += SELECT_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + SELECT_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(
+                    "SELECT message_id, broadcast_id, mobile FROM reports WHERE message_id IN ("
+                            + placeholders + ")",
+                    rs -> {
+                        reports.put(rs.getString(1), new ReportKey(rs.getLong(2), rs.getString(3)));
+                    },
+                    chunk.toArray());
+        }
+        return reports;
+    }
+
+    /**
+     * Count messages reaching delivered or read for broadcast progress once
+     * the transaction commits.
+     */
+    private void recordProgress(List<Long> delivered, List<Long> read) {
+        if (delivered.isEmpty() && read.isEmpty()) {
+            return;
+        }
+
+        Runnable apply = () -> {
+            delivered.forEach(progressTracker::recordDelivered);
+            read.forEach(progressTracker::recordRead);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private static MessageStatus statusOf(MessageStatusEvent event) {
+        return MessageStatus.fromValue(event.getStatus());
+    }
+
+    private void park(List<MessageStatusEvent> unmatched) {
+        if (unmatched.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PENDING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                MessageStatusEvent event = unmatched.get(i);
+                ps.setString(1, event.getMessageId());
+                ps.setString(2, event.getStatus().toLowerCase());
+                ps.setLong(3, event.getStatusTimestamp() != null ? event.getStatusTimestamp() : 0L);
+                ps.setLong(4, event.getReceivedAt() != null ? event.getReceivedAt() : System.currentTimeMillis());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return unmatched.size();
+            }
+        });
+    }
+
+    /**
+     * SQL expression for the MessageStatus precedence of a status column;
+     * anything unrecognised (e.g. send error text) ranks lowest.
+     */
+    static String precedenceOf(String column) {
+        StringBuilder sql = new StringBuilder("(CASE ").append(column);
+        for (MessageStatus status : MessageStatus.values()) {
+            sql.append(" WHEN '").append(status.getValue()).append("' THEN ").append(status.getPrecedence());
+        }
+        return sql.append(" ELSE 0 END)").toString();
+    }
+
+    /**
+     * Report row a status applies to, ordered as report writes lock rows.
+     */
+    private record ReportKey(long broadcastId, String mobile) implements Comparable<ReportKey> {
+
+        private static final Comparator<ReportKey> ORDER = Comparator.comparingLong(ReportKey::broadcastId)
+                .thenComparing(ReportKey::mobile, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        @Override
+        public int compareTo(ReportKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * One status written to a row whose precedence is in [from, to).
+     */
+    private record BandUpdate(MessageStatusEvent event, MessageStatus status, int from, int to) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Commits each broadcast partition only up to its oldest record not yet
+ * acknowledged, while the container keeps polling every partition.
+ *
+ * Records are tracked in the order the consumer delivers them. Acknowledging
+ * one only marks it done; the container acknowledgment of the last record of
+ * the done prefix is forwarded, which commits everything before it. A record
+ * held for a paused broadcast or parked behind an open circuit therefore
+ * holds back the committed offset of its own partition, but not consumption
+ * of it or of any other partition.
+ *
+ * Must be tracked from the consumer thread; acknowledgments may come from any.
+ */
+final class PartitionOffsetTracker {
+
+    private final ConcurrentHashMap<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Start tracking a delivered record.
+     *
+     * @return The acknowledgment to hand to whoever completes the record
+     */
+    Acknowledgment track(int partition, long offset, Acknowledgment acknowledgment) {
+        PartitionState state = partitions.computeIfAbsent(partition, k -> new PartitionState());
+        Slot slot = new Slot(state, offset, acknowledgment);
+        synchronized (state) {
+            state.slots.addLast(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Drop the state of partitions no longer assigned here. Later
+     * acknowledgments of their records are ignored; the new owner
+     * redelivers from the last committed offset.
+     */
+    void forget(Collection<Integer> revoked) {
+        for (Integer partition : revoked) {
+            PartitionState state = partitions.remove(partition);
+            if (state != null) {
+                synchronized (state) {
+                    state.closed = true;
+                    state.slots.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records of the partition delivered but not yet committable.
+     */
+    int pending(int partition) {
+        PartitionState state = partitions.get(partition);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.slots.size();
+        }
+    }
+
+    private static final class PartitionState {
+        private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+        private boolean closed;
+    }
+
+    private static final class Slot implements Acknowledgment {
+        private final PartitionState state;
+        private final long offset;
+        private final Acknowledgment delegate;
+        private boolean done;
+
+        private Slot(PartitionState state, long offset, Acknowledgment delegate) {
+            this.state = state;
+            this.offset = offset;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void acknowledge() {
+            Slot last = null;
+            synchronized (state) {
+                if (state.closed || done) {
+                    return;
+                }
+                done = true;
+                while (!state.slots.isEmpty() && state.slots.peekFirst().done) {
+                    last = state.slots.pollFirst();
+                }
+            }
+            // The container keeps the highest offset per partition, so racing forwards cannot move it back
+            if (last != null) {
+                last.delegate.acknowledge();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Slot[offset=" + offset + ", done=" + done + "]";
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.net.InetAddress;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.messaging.config.RateBudgetProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shares each tenant's concurrency budget between instances through a lease
+ * table in the reports datasource.
+ *
+ * Every renewInterval each node upserts its local demand per tenant, reads all
+ * live leases and takes budget * ownDemand / totalDemand. All nodes compute the
+ * split from the same rows, so the grants add up to the budget without any
+ * coordination beyond the table. The send path only reads the resulting limit
+ * from memory.
+ */
+@Slf4j
+@Service
+public class RateBudgetLeaseService {
+
+    private static final String UPSERT_LEASE = """
+            INSERT INTO tenant_rate_leases (phone_number_id, node_id, demand, granted, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE demand = VALUES(demand), granted = VALUES(granted),
+                                    expires_at = VALUES(expires_at)
+            """;
+
+    private final BatchCoordinator batchCoordinator;
+    private final JdbcTemplate jdbcTemplate;
+    private final RateBudgetProperties properties;
+    private final String nodeId;
+
+    // Tenants this node holds a lease row for, with the grant last computed
+    private final Map<String, Integer> grants = new HashMap<>();
+
+    public RateBudgetLeaseService(
+            BatchCoordinator batchCoordinator,
+            JdbcTemplate jdbcTemplate,
+            RateBudgetProperties properties) {
+        this.batchCoordinator = batchCoordinator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.nodeId = properties.getNodeId() != null ? properties.getNodeId() : defaultNodeId();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            log.info("Rate budget leases disabled, each instance uses the full tenant budget");
+            return;
+        }
+        log.info("Rate budget leases enabled: node={} tenantConcurrency={} renewIntervalMs={}",
+                nodeId, properties.getTenantConcurrency(), properties.getRenewIntervalMs());
+    }
+
+    /**
+     * Renew leases for tenants with local demand, release the rest and
+     * recompute this node's share of every budget.
+     */
+    @Scheduled(fixedDelayString = "${rate-budget.renew-interval-ms:2000}")
+    public synchronized void renewLeases() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        int budget = properties.getTenantConcurrency();
+        long now = System.currentTimeMillis();
+
+        Map<String, Integer> demand = new HashMap<>();
+        batchCoordinator.localDemand().forEach((phoneNumberId, pending) -> {
+            if (pending > 0) {
+                demand.put(phoneNumberId, Math.min(pending, budget));
+            }
+        });
+
+        try {
+            upsertLeases(demand, now + properties.getLeaseTtlMs());
+            releaseLeases(demand.keySet());
+
+            // Expired rows of crashed nodes only need to be gone eventually
+            jdbcTemplate.update("DELETE FROM tenant_rate_leases WHERE expires_at < ?",
+                    now - properties.getLeaseTtlMs());
+
+            Map<String, Integer> totalDemand = new HashMap<>();
+            Set<String> liveNodes = new HashSet<>();
+            liveNodes.add(nodeId);
+            jdbcTemplate.query(
+                    "SELECT phone_number_id, node_id, demand FROM tenant_rate_leases WHERE expires_at > ?",
+                    rs -> {
+                        totalDemand.merge(rs.getString(1), rs.getInt(3), Integer::sum);
+                        liveNodes.add(rs.getString(2));
+                    },
+                    now);
+
+            grants.clear();
+            for (Map.Entry<String, Integer> entry : demand.entrySet()) {
+                int total = Math.max(entry.getValue(), totalDemand.getOrDefault(entry.getKey(), 0));
+                int granted = (int) ((long) budget * entry.getValue() / total);
+                grants.put(entry.getKey(), Math.max(1, granted));
+            }
+
+            // Tenants that show up between renewals start with an even split
+            int unleasedLimit = Math.max(1, budget / liveNodes.size());
+            batchCoordinator.applyLeaseLimits(Map.copyOf(grants), unleasedLimit);
+
+            log.debug("Rate budget leases renewed: tenants={} liveNodes={}", grants.size(), liveNodes.size());
+
+        } catch (Exception e) {
+            // Keep the last limits; they stay within budget until other nodes' demand changes
+            log.warn("Rate budget lease renewal failed: {}", e.getMessage());
+        }
+    }
+
+    private void upsertLeases(Map<String, Integer> demand, long expiresAt) {
+        if (demand.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Integer>> rows = new ArrayList<>(demand.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_LEASE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                Map.Entry<String, Integer> row = rows.get(i);
+                ps.setString(1, row.getKey());
+                ps.setString(2, nodeId);
+                ps.setInt(3, row.getValue());
+                ps.setInt(4, grants.getOrDefault(row.getKey(), 0));
+                ps.setLong(5, expiresAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private void releaseLeases(Set<String> stillDemanded) {
+        List<Object[]> released = new ArrayList<>();
+        for (String phoneNumberId : grants.keySet()) {
+            if (!stillDemanded.contains(phoneNumberId)) {
+                released.add(new Object[] { phoneNumberId, nodeId });
+            }
+        }
+        if (!released.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM tenant_rate_leases WHERE phone_number_id = ? AND node_id = ?", released);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void releaseAll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM tenant_rate_leases WHERE node_id = ?", nodeId);
+        } catch (Exception e) {
+            log.warn("Could not release rate budget leases for node={}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
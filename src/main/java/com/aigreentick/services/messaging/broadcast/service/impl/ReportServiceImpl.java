@@ -1,9 +1,12 @@
 package com.aigreentick.services.messaging.broadcast.service.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.PreparedStatement;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -12,7 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 import com.aigreentick.services.messaging.broadcast.enums.MessageStatus;
 import com.aigreentick.services.messaging.broadcast.model.Report;
 import com.aigreentick.services.messaging.broadcast.repository.ReportRepository;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.BatchItem;
 import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.DatabaseUpdate;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties.Mode;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +30,36 @@ public class ReportServiceImpl {
 
     private final ReportRepository reportRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final ReportPersistenceProperties persistenceProperties;
+
+    // A redelivered or replayed result never lowers a row's MessageStatus precedence,
+    // so delivered and read survive it. status is assigned first: MySQL evaluates SET
+    // left to right, and both guards must see the old message_status.
+    private static final String FULL_UPDATE = """
+                UPDATE reports
+                SET response = ?,
+                    status = CASE WHEN %1$s < ? THEN ? ELSE status END,
+                    message_status = CASE WHEN %1$s < ? THEN ? ELSE message_status END,
+                    message_id = COALESCE(?, message_id),
+                    payload = ?,
+                    updated_at = ?
+                WHERE broadcast_id = ?
+                  AND mobile = ?
+            """.formatted(MessageStatusServiceImpl.precedenceOf("message_status"));
+
+    // Leaves payload alone, keeps the stored response unless one is bound and skips
+    // rows that already hold this status and message_id (redeliveries, replays)
+    private static final String LEAN_UPDATE = """
+                UPDATE reports
+                SET response = COALESCE(?, response),
+                    status = CASE WHEN %1$s < ? THEN ? ELSE status END,
+                    message_status = CASE WHEN %1$s < ? THEN ? ELSE message_status END,
+                    message_id = COALESCE(?, message_id),
+                    updated_at = ?
+                WHERE broadcast_id = ?
+                  AND mobile = ?
+                  AND (status <> ? OR COALESCE(message_id, '') <> COALESCE(?, ''))
+            """.formatted(MessageStatusServiceImpl.precedenceOf("message_status"));
 
     /**
      * Batch update multiple reports in SINGLE transaction.
@@ -39,34 +75,31 @@ public class ReportServiceImpl {
         }
 
         long startTime = System.currentTimeMillis();
-
-        String sql = """
-                    UPDATE reports
-                    SET response = ?,
-                        status = ?,
-                        message_status = ?,
-                        message_id = COALESCE(?, message_id),
-                        payload = ?,
-                        updated_at = ?
-                    WHERE broadcast_id = ?
-                      AND mobile = ?
-                """;
+        boolean lean = persistenceProperties.getMode() == Mode.LEAN;
 
         try {
             // Use BatchPreparedStatementSetter for proper batch processing
-            int[] updateCounts = jdbcTemplate.batchUpdate(sql,
+            int[] updateCounts = jdbcTemplate.batchUpdate(lean ? LEAN_UPDATE : FULL_UPDATE,
                     new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
                         @Override
                         public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
                             DatabaseUpdate update = updates.get(i);
-                            ps.setString(1, update.responseJson());
-                            ps.setString(2, update.status());
-                            ps.setString(3, update.messageStatus());
-                            ps.setString(4, update.whatsappMessageId());
-                            ps.setString(5, update.payload());
-                            ps.setTimestamp(6, Timestamp.valueOf(update.timestamp()));
-                            ps.setLong(7, update.broadcastId());
-                            ps.setString(8, update.mobile());
+                            if (lean) {
+                                setLeanValues(ps, update);
+                                return;
+                            }
+                            // JSON columns reject binary-charset input, so bind the raw body as text
+                            int precedence = precedenceOf(update);
+                            ps.setString(1, responseText(update));
+                            ps.setInt(2, precedence);
+                            ps.setString(3, update.status());
+                            ps.setInt(4, precedence);
+                            ps.setString(5, update.messageStatus());
+                            ps.setString(6, update.whatsappMessageId());
+                            ps.setString(7, text(update.payload()));
+                            ps.setTimestamp(8, Timestamp.valueOf(update.timestamp()));
+                            ps.setLong(9, update.broadcastId());
+                            ps.setString(10, update.mobile());
                         }
 
                         @Override
@@ -92,7 +125,8 @@ public class ReportServiceImpl {
             log.info("Batch update completed: Success={}, NotFound={}, Total={}, Duration={}ms",
                     successCount, notFoundCount, updates.size(), duration);
 
-            if (notFoundCount > 0) {
+            // LEAN counts unchanged rows as not found too, so only FULL warns
+            if (notFoundCount > 0 && !lean) {
                 log.warn("Some reports were not found in database: {}", notFoundCount);
             }
 
@@ -104,6 +138,86 @@ public class ReportServiceImpl {
         }
     }
 
+    /**
+     * Failures keep their response body, which carries the Graph error code;
+     * successes only for the sampled share.
+     */
+    private void setLeanValues(PreparedStatement ps, DatabaseUpdate update) throws java.sql.SQLException {
+        boolean storeResponse = !MessageStatus.SENT.getValue().equals(update.status())
+                || ThreadLocalRandom.current().nextDouble() < persistenceProperties.getResponseSampleRate();
+
+        int precedence = precedenceOf(update);
+        ps.setString(1, storeResponse ? responseText(update) : null);
+        ps.setInt(2, precedence);
+        ps.setString(3, update.status());
+        ps.setInt(4, precedence);
+        ps.setString(5, update.messageStatus());
+        ps.setString(6, update.whatsappMessageId());
+        ps.setTimestamp(7, Timestamp.valueOf(update.timestamp()));
+        ps.setLong(8, update.broadcastId());
+        ps.setString(9, update.mobile());
+        ps.setString(10, update.status());
+        ps.setString(11, update.whatsappMessageId());
+    }
+
+    /**
+     * Precedence of a send result. A failure's message_status holds the error
+     * text, so it ranks as the send step it ends, below any webhook status.
+     */
+    private static int precedenceOf(DatabaseUpdate update) {
+        return MessageStatus.FAILED.getValue().equals(update.status())
+                ? MessageStatus.SENT.getPrecedence()
+                : MessageStatus.fromValue(update.messageStatus()).getPrecedence();
+    }
+
+    private static String responseText(DatabaseUpdate update) {
+        return text(update.response());
+    }
+
+    private static String text(byte[] utf8) {
+        return utf8 != null ? new String(utf8, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Mark reports of cancelled, never-sent items in one batch. Rows that
+     * already got a message_id (sent before a redelivery) are left alone.
+     *
+     * @return Number of reports marked
+     */
+    @Transactional
+    public int markCancelled(List<BatchItem> items) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String status = MessageStatus.CANCELLED.getValue();
+
+        int[][] updateCounts = jdbcTemplate.batchUpdate("""
+                UPDATE reports
+                SET status = ?, message_status = ?, updated_at = ?
+                WHERE broadcast_id = ? AND mobile = ? AND message_id IS NULL
+                """,
+                items,
+                items.size(),
+                (PreparedStatement ps, BatchItem item) -> {
+                    ps.setString(1, status);
+                    ps.setString(2, status);
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, item.broadcastId());
+                    ps.setString(5, item.recipient());
+                });
+
+        int marked = 0;
+        for (int count : updateCounts[0]) {
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                marked++;
+            }
+        }
+        log.info("Cancelled reports marked: {}/{}", marked, items.size());
+        return marked;
+    }
+
     /**
      * Legacy method for single update (kept for backward compatibility).
      * Consider migrating all callers to use batchUpdateReports instead.
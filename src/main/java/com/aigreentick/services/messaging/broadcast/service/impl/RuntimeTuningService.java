@@ -0,0 +1,275 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.BroadcastReportConsumer;
+import com.aigreentick.services.messaging.config.RateBudgetProperties;
+import com.aigreentick.services.messaging.config.RuntimeTuningProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput knobs of this instance changed without a redeploy: batch size,
+ * whatsappExecutor pool sizes, per-tenant concurrency and campaign consumer
+ * concurrency.
+ *
+ * A change is validated as a whole before any of it is applied, and every
+ * knob it moves is written to runtime_tuning_audit. Consumer concurrency
+ * restarts the campaign listener container, which rebalances its partitions.
+ * Changes only reach the instance that receives them; with persist they are
+ * also stored in runtime_tuning and reapplied by every instance at startup.
+ */
+@Slf4j
+@Service
+public class RuntimeTuningService {
+
+    private static final String UPSERT_KNOB = """
+            INSERT INTO runtime_tuning (knob, knob_value, updated_at)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE knob_value = VALUES(knob_value), updated_at = VALUES(updated_at)
+            """;
+
+    private static final String INSERT_AUDIT = """
+            INSERT INTO runtime_tuning_audit (knob, old_value, new_value, node_id, reason, changed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final BatchCoordinator batchCoordinator;
+    private final ExecutorService whatsappExecutor;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final RateBudgetProperties rateBudgetProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final RuntimeTuningProperties properties;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    public RuntimeTuningService(
+            BatchCoordinator batchCoordinator,
+            @Qualifier("whatsappExecutor") ExecutorService whatsappExecutor,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            RateBudgetProperties rateBudgetProperties,
+            JdbcTemplate jdbcTemplate,
+            RuntimeTuningProperties properties) {
+        this.batchCoordinator = batchCoordinator;
+        this.whatsappExecutor = whatsappExecutor;
+        this.listenerRegistry = listenerRegistry;
+        this.rateBudgetProperties = rateBudgetProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Reapply persisted values once the listener containers are up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyPersisted() {
+        if (!properties.isPersist()) {
+            return;
+        }
+
+        Map<Knob, Integer> persisted = new EnumMap<>(Knob.class);
+        try {
+            jdbcTemplate.query("SELECT knob, knob_value FROM runtime_tuning", rs -> {
+                try {
+                    persisted.put(Knob.valueOf(rs.getString(1)), rs.getInt(2));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring unknown persisted tuning knob {}", rs.getString(1));
+                }
+            });
+            if (!persisted.isEmpty()) {
+                Tuning tuning = change(persisted);
+                log.info("Persisted runtime tuning applied: {}", tuning);
+            }
+        } catch (Exception e) {
+            log.warn("Could not apply persisted runtime tuning {}: {}", persisted, e.getMessage());
+        }
+    }
+
+    public Tuning current() {
+        ThreadPoolExecutor executor = threadPool();
+        ConcurrentMessageListenerContainer<?, ?> container = campaignContainer();
+        return new Tuning(
+                batchCoordinator.getBatchSize(),
+                executor != null ? executor.getCorePoolSize() : 0,
+                executor != null ? executor.getMaximumPoolSize() : 0,
+                batchCoordinator.getTenantConcurrency(),
+                container != null ? container.getConcurrency() : 0);
+    }
+
+    /**
+     * Validate and apply changes, then audit them and, with persist, store them.
+     *
+     * @throws IllegalArgumentException if any value is out of range; nothing is applied then
+     */
+    public synchronized Tuning apply(Map<Knob, Integer> changes, String reason) {
+        Tuning before = current();
+        Tuning after = change(changes);
+
+        long now = System.currentTimeMillis();
+        for (Knob knob : changes.keySet()) {
+            int oldValue = knob.of(before);
+            int newValue = knob.of(after);
+            if (oldValue == newValue) {
+                continue;
+            }
+            log.warn("Runtime tuning: {} {} -> {} (reason: {})", knob, oldValue, newValue, reason);
+            try {
+                jdbcTemplate.update(INSERT_AUDIT, knob.name(), oldValue, newValue, nodeId, reason, now);
+                if (properties.isPersist()) {
+                    jdbcTemplate.update(UPSERT_KNOB, knob.name(), newValue, now);
+                }
+            } catch (Exception e) {
+                // The change itself stands; incidents are when the DB is most likely to be down
+                log.warn("Could not record runtime tuning of {}: {}", knob, e.getMessage());
+            }
+        }
+        return after;
+    }
+
+    private synchronized Tuning change(Map<Knob, Integer> changes) {
+        Tuning target = validate(current(), changes);
+
+        if (changes.containsKey(Knob.BATCH_SIZE)) {
+            batchCoordinator.setBatchSize(target.batchSize());
+        }
+        if (changes.containsKey(Knob.EXECUTOR_CORE_POOL_SIZE) || changes.containsKey(Knob.EXECUTOR_MAX_POOL_SIZE)) {
+            resizeExecutor(target.executorCorePoolSize(), target.executorMaxPoolSize());
+        }
+        if (changes.containsKey(Knob.TENANT_CONCURRENCY)) {
+            batchCoordinator.setTenantConcurrency(target.tenantConcurrency());
+            // The cluster-wide budget follows; leases pick it up on their next renewal
+            rateBudgetProperties.setTenantConcurrency(target.tenantConcurrency());
+        }
+        if (changes.containsKey(Knob.CONSUMER_CONCURRENCY)) {
+            restartConsumers(target.consumerConcurrency());
+        }
+        return current().withConsumerConcurrency(target.consumerConcurrency());
+    }
+
+    private Tuning validate(Tuning current, Map<Knob, Integer> changes) {
+        Tuning target = new Tuning(
+                changes.getOrDefault(Knob.BATCH_SIZE, current.batchSize()),
+                changes.getOrDefault(Knob.EXECUTOR_CORE_POOL_SIZE, current.executorCorePoolSize()),
+                changes.getOrDefault(Knob.EXECUTOR_MAX_POOL_SIZE, current.executorMaxPoolSize()),
+                changes.getOrDefault(Knob.TENANT_CONCURRENCY, current.tenantConcurrency()),
+                changes.getOrDefault(Knob.CONSUMER_CONCURRENCY, current.consumerConcurrency()));
+
+        requireRange(Knob.BATCH_SIZE, target.batchSize(), properties.getMaxBatchSize());
+        requireRange(Knob.TENANT_CONCURRENCY, target.tenantConcurrency(), properties.getMaxTenantConcurrency());
+        if (changes.containsKey(Knob.EXECUTOR_CORE_POOL_SIZE) || changes.containsKey(Knob.EXECUTOR_MAX_POOL_SIZE)) {
+            if (threadPool() == null) {
+                throw new IllegalArgumentException("whatsappExecutor is not a resizable thread pool");
+            }
+            requireRange(Knob.EXECUTOR_CORE_POOL_SIZE, target.executorCorePoolSize(), properties.getMaxPoolSize());
+            requireRange(Knob.EXECUTOR_MAX_POOL_SIZE, target.executorMaxPoolSize(), properties.getMaxPoolSize());
+            if (target.executorMaxPoolSize() < target.executorCorePoolSize()) {
+                throw new IllegalArgumentException("EXECUTOR_MAX_POOL_SIZE " + target.executorMaxPoolSize()
+                        + " is below EXECUTOR_CORE_POOL_SIZE " + target.executorCorePoolSize());
+            }
+        }
+        if (changes.containsKey(Knob.CONSUMER_CONCURRENCY)) {
+            if (campaignContainer() == null) {
+                throw new IllegalArgumentException("Campaign listener container not found");
+            }
+            requireRange(Knob.CONSUMER_CONCURRENCY, target.consumerConcurrency(), properties.getMaxConsumerConcurrency());
+        }
+        return target;
+    }
+
+    private static void requireRange(Knob knob, int value, int max) {
+        if (value < 1 || value > max) {
+            throw new IllegalArgumentException(knob + " must be between 1 and " + max + ": " + value);
+        }
+    }
+
+    /**
+     * The pool rejects a core size above the current maximum and a maximum
+     * below the current core, so the order depends on the direction.
+     */
+    private void resizeExecutor(int corePoolSize, int maxPoolSize) {
+        ThreadPoolExecutor executor = threadPool();
+        if (corePoolSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxPoolSize);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaximumPoolSize(maxPoolSize);
+        }
+    }
+
+    /**
+     * Concurrency only takes effect on start. Stopping revokes the partitions,
+     * which BatchCoordinator drains like any rebalance.
+     */
+    private void restartConsumers(int concurrency) {
+        ConcurrentMessageListenerContainer<?, ?> container = campaignContainer();
+        if (container.getConcurrency() == concurrency) {
+            return;
+        }
+        if (!container.isRunning()) {
+            container.setConcurrency(concurrency);
+            return;
+        }
+        container.stop(() -> {
+            container.setConcurrency(concurrency);
+            container.start();
+            log.info("Campaign listener restarted with concurrency {}", concurrency);
+        });
+    }
+
+    private ThreadPoolExecutor threadPool() {
+        return whatsappExecutor instanceof ThreadPoolExecutor executor ? executor : null;
+    }
+
+    private ConcurrentMessageListenerContainer<?, ?> campaignContainer() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(BroadcastReportConsumer.LISTENER_ID);
+        return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent : null;
+    }
+
+    public enum Knob {
+        BATCH_SIZE,
+        EXECUTOR_CORE_POOL_SIZE,
+        EXECUTOR_MAX_POOL_SIZE,
+        TENANT_CONCURRENCY,
+        CONSUMER_CONCURRENCY;
+
+        int of(Tuning tuning) {
+            return switch (this) {
+                case BATCH_SIZE -> tuning.batchSize();
+                case EXECUTOR_CORE_POOL_SIZE -> tuning.executorCorePoolSize();
+                case EXECUTOR_MAX_POOL_SIZE -> tuning.executorMaxPoolSize();
+                case TENANT_CONCURRENCY -> tuning.tenantConcurrency();
+                case CONSUMER_CONCURRENCY -> tuning.consumerConcurrency();
+            };
+        }
+    }
+
+    /**
+     * Current knob values; 0 where the component is not there to tune.
+     */
+    public record Tuning(
+            int batchSize,
+            int executorCorePoolSize,
+            int executorMaxPoolSize,
+            int tenantConcurrency,
+            int consumerConcurrency) {
+
+        // A consumer restart completes after the call returns
+        Tuning withConsumerConcurrency(int consumerConcurrency) {
+            return new Tuning(batchSize, executorCorePoolSize, executorMaxPoolSize, tenantConcurrency,
+                    consumerConcurrency);
+        }
+    }
+}
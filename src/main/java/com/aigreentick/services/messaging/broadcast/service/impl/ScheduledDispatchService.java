@@ -0,0 +1,408 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aigreentick.services.messaging.broadcast.dto.WhatsappAccountInfo;
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.BroadcastReportProducer;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.HotTenantTracker;
+import com.aigreentick.services.messaging.config.ScheduledDispatchProperties;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatch requests with a future sendAt.
+ *
+ * Items are stored in scheduled_dispatch_items under one scheduled_dispatches
+ * row per request. Only dispatches due within one turn of the timing wheel are
+ * held in memory, one entry per request; the rest stay in the table until a
+ * reload brings them into the horizon, which is also how a restart recovers.
+ *
+ * When a dispatch comes due, the instance that claims its row publishes the
+ * items page by page, at most maxPublishPerTick per tick, deleting each page
+ * once Kafka has it. A crash mid-dispatch leaves the remaining items for
+ * whichever instance takes over the stale claim.
+ *
+ * A drip dispatch publishes one item per interval from its send_at instead.
+ * Its start comes from the broadcast's virtual clock in drip_clocks, so the
+ * requests of one campaign take consecutive slots rather than overlapping.
+ * After each page the dispatch goes back into the wheel until its next item
+ * is due, so Kafka, and everything after it, sees a flat rate.
+ */
+@Slf4j
+@Service
+public class ScheduledDispatchService {
+
+    private static final String CLAIM = """
+            UPDATE scheduled_dispatches SET claimed_by = ?, claimed_at = ?
+            WHERE id = ? AND (claimed_by IS NULL OR claimed_by = ? OR claimed_at < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledDispatchProperties properties;
+    private final BroadcastReportProducer broadcastReportProducer;
+    private final HotTenantTracker hotTenantTracker;
+    private final BroadcastProgressTracker progressTracker;
+    private final String nodeId;
+
+    private final HashedTimingWheel<Long> wheel;
+
+    // Dispatch ids in the wheel or ready, so reloads do not add them twice
+    private final Set<Long> loaded = ConcurrentHashMap.newKeySet();
+
+    // Due dispatches, published oldest first within the per-tick budget
+    private final ConcurrentLinkedQueue<Long> ready = new ConcurrentLinkedQueue<>();
+
+    public ScheduledDispatchService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ScheduledDispatchProperties properties,
+            BroadcastReportProducer broadcastReportProducer,
+            HotTenantTracker hotTenantTracker,
+            BroadcastProgressTracker progressTracker,
+            RateBudgetLeaseService rateBudgetLeaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.broadcastReportProducer = broadcastReportProducer;
+        this.hotTenantTracker = hotTenantTracker;
+        this.progressTracker = progressTracker;
+        this.nodeId = rateBudgetLeaseService.getNodeId();
+        this.wheel = new HashedTimingWheel<>(properties.getWheelSize(), properties.getTickMs(),
+                System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Store validated events to be published at sendAtMs.
+     *
+     * @return Id of the scheduled dispatch
+     */
+    @Transactional
+    public long schedule(WhatsappAccountInfo accountInfo, Long expectedTotal,
+            List<BroadcastReportEvent> events, long sendAtMs) {
+        return store(accountInfo, expectedTotal, events, sendAtMs, null);
+    }
+
+    /**
+     * Store validated events of one broadcast to be published one every
+     * intervalMicros, from the broadcast's next free slot but not before
+     * notBeforeMs.
+     *
+     * @return Id of the scheduled dispatch
+     */
+    @Transactional
+    public long drip(WhatsappAccountInfo accountInfo, List<BroadcastReportEvent> events,
+            long notBeforeMs, long intervalMicros) {
+        long broadcastId = events.get(0).getBroadcastId();
+
+        // Row lock serializes requests of the same broadcast across instances
+        jdbcTemplate.update("INSERT INTO drip_clocks (broadcast_id, next_release_micros) VALUES (?, 0) "
+                + "ON DUPLICATE KEY UPDATE broadcast_id = broadcast_id", broadcastId);
+        long next = jdbcTemplate.queryForObject(
+                "SELECT next_release_micros FROM drip_clocks WHERE broadcast_id = ? FOR UPDATE",
+                Long.class, broadcastId);
+        long startMicros = Math.max(next, notBeforeMs * 1000);
+        jdbcTemplate.update("UPDATE drip_clocks SET next_release_micros = ? WHERE broadcast_id = ?",
+                startMicros + events.size() * intervalMicros, broadcastId);
+
+        return store(accountInfo, null, events, startMicros / 1000, intervalMicros);
+    }
+
+    private long store(WhatsappAccountInfo accountInfo, Long expectedTotal,
+            List<BroadcastReportEvent> events, long sendAtMs, Long dripIntervalMicros) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO scheduled_dispatches (phone_number_id, access_token, expected_total, item_count,
+                        send_at, drip_interval_micros)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, accountInfo.getPhoneNumberId());
+            ps.setString(2, accountInfo.getAccessToken());
+            ps.setObject(3, expectedTotal);
+            ps.setInt(4, events.size());
+            ps.setLong(5, sendAtMs);
+            ps.setObject(6, dripIntervalMicros);
+            return ps;
+        }, keyHolder);
+        long dispatchId = keyHolder.getKey().longValue();
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO scheduled_dispatch_items (dispatch_id, broadcast_id, mobile, payload)
+                VALUES (?, ?, ?, ?)
+                """,
+                events,
+                properties.getPageSize(),
+                (PreparedStatement ps, BroadcastReportEvent event) -> {
+                    ps.setLong(1, dispatchId);
+                    ps.setLong(2, event.getBroadcastId());
+                    ps.setString(3, event.getRecipient());
+                    ps.setString(4, event.getPayload());
+                });
+
+        // Only after commit, or the claim could run before the row is visible
+        Runnable enqueue = () -> {
+            if (sendAtMs < System.currentTimeMillis() + wheel.spanMs()) {
+                load(dispatchId, sendAtMs);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue.run();
+                }
+            });
+        } else {
+            enqueue.run();
+        }
+
+        log.info("Dispatch scheduled: id={} phoneNumberId={} items={} sendAt={} dripIntervalMicros={}",
+                dispatchId, accountInfo.getPhoneNumberId(), events.size(), sendAtMs, dripIntervalMicros);
+        return dispatchId;
+    }
+
+    /**
+     * Put dispatches due within the wheel's horizon into it, including
+     * overdue ones and those whose claim went stale. Drops drip clocks whose
+     * last slot passed long ago.
+     */
+    @Scheduled(fixedDelayString = "${scheduled-dispatch.reload-interval-ms:60000}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update("DELETE FROM drip_clocks WHERE next_release_micros < ?",
+                    (now - properties.getDripClockRetentionMs()) * 1000);
+
+            int[] added = new int[1];
+            jdbcTemplate.query("""
+                    SELECT id, send_at FROM scheduled_dispatches
+                    WHERE send_at < ? AND (claimed_by IS NULL OR claimed_by = ? OR claimed_at < ?)
+                    """,
+                    rs -> {
+                        if (load(rs.getLong(1), rs.getLong(2))) {
+                            added[0]++;
+                        }
+                    },
+                    now + wheel.spanMs() - properties.getTickMs(), nodeId, now - properties.getClaimTimeoutMs());
+
+            if (added[0] > 0) {
+                log.info("Scheduled dispatches loaded: {} | In wheel: {} | Ready: {}",
+                        added[0], wheel.size(), ready.size());
+            }
+        } catch (Exception e) {
+            log.warn("Scheduled dispatch reload failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean load(long dispatchId, long sendAtMs) {
+        if (!loaded.add(dispatchId)) {
+            return false;
+        }
+        wheel.schedule(dispatchId, sendAtMs);
+        return true;
+    }
+
+    /**
+     * Move due dispatches to the ready queue and publish within this tick's
+     * budget, in rounds of one page per ready dispatch.
+     */
+    @Scheduled(fixedDelayString = "${scheduled-dispatch.tick-ms:1000}")
+    public void tick() {
+        ready.addAll(wheel.advance(System.currentTimeMillis()));
+
+        int budget = properties.getMaxPublishPerTick();
+        while (budget > 0 && !ready.isEmpty()) {
+            int published = publishRound(budget);
+            if (published == 0) {
+                return;
+            }
+            budget -= published;
+        }
+    }
+
+    /**
+     * Read the next page of every ready dispatch, send them all to Kafka and
+     * only then wait, so one tick is not a sum of publish round trips.
+     *
+     * @return Items published
+     */
+    private int publishRound(int budget) {
+        List<Page> pages = new ArrayList<>();
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (Long dispatchId : List.copyOf(ready)) {
+            if (budget <= 0) {
+                break;
+            }
+            Page page;
+            try {
+                page = nextPage(dispatchId, Math.min(budget, properties.getPageSize()));
+            } catch (Exception e) {
+                // Stays ready; retried next round or tick
+                log.error("Reading scheduled dispatch {} failed", dispatchId, e);
+                continue;
+            }
+            if (page == null) {
+                ready.remove(dispatchId);
+                loaded.remove(dispatchId);
+            } else if (page.events().isEmpty()) {
+                // Drip dispatch back in the wheel until its next slot
+                ready.remove(dispatchId);
+            } else {
+                if (page.header().expectedTotal() != null) {
+                    hotTenantTracker.declareVolume(page.header().phoneNumberId(), page.header().expectedTotal());
+                }
+                sends.add(broadcastReportProducer.publishBatch(page.events()));
+                pages.add(page);
+                budget -= page.events().size();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + properties.getPublishTimeoutMs();
+        int published = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            try {
+                sends.get(i).get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                published += completePage(page);
+            } catch (Exception e) {
+                // Items stay in the table; retried next round or tick
+                log.error("Publishing scheduled dispatch {} failed", page.dispatchId(), e);
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Claim a due dispatch and read its next page. A drip dispatch reads only
+     * the items whose slot has passed, and goes back into the wheel when none has.
+     *
+     * @return The page, or null once the dispatch is finished or claimed elsewhere
+     */
+    private Page nextPage(long dispatchId, int limit) {
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(CLAIM, nodeId, now, dispatchId, nodeId, now - properties.getClaimTimeoutMs()) == 0) {
+            return null;
+        }
+
+        List<DispatchHeader> headers = jdbcTemplate.query(
+                "SELECT phone_number_id, access_token, expected_total, item_count, send_at, drip_interval_micros, "
+                        + "published FROM scheduled_dispatches WHERE id = ?",
+                (rs, i) -> new DispatchHeader(rs.getString(1), rs.getString(2),
+                        rs.getObject(3) != null ? rs.getLong(3) : null, rs.getInt(4), rs.getLong(5),
+                        rs.getObject(6) != null ? rs.getLong(6) : null, rs.getInt(7)),
+                dispatchId);
+        if (headers.isEmpty()) {
+            return null;
+        }
+        DispatchHeader header = headers.get(0);
+
+        boolean dripping = header.dripIntervalMicros() != null && header.published() < header.itemCount();
+        if (dripping) {
+            long due = Math.min(header.itemCount(),
+                    (now - header.sendAt()) * 1000 / header.dripIntervalMicros() + 1) - header.published();
+            limit = (int) Math.min(limit, Math.max(due, 0));
+        }
+
+        List<Long> itemIds = new ArrayList<>(limit);
+        List<BroadcastReportEvent> events = new ArrayList<>(limit);
+        if (limit > 0) {
+            jdbcTemplate.query(
+                    "SELECT id, broadcast_id, mobile, payload FROM scheduled_dispatch_items "
+                            + "WHERE dispatch_id = ? ORDER BY id LIMIT ?",
+                    rs -> {
+                        itemIds.add(rs.getLong(1));
+                        events.add(BroadcastReportEvent.createForDispatch(rs.getLong(2), header.phoneNumberId(),
+                                header.accessToken(), rs.getString(3), rs.getString(4)));
+                    },
+                    dispatchId, limit);
+        }
+
+        if (events.isEmpty() && dripping) {
+            rearm(dispatchId, header, header.published());
+            return new Page(dispatchId, header, 0, events);
+        }
+        if (events.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM scheduled_dispatches WHERE id = ?", dispatchId);
+            log.info("Scheduled dispatch {} published: {} items", dispatchId, header.itemCount());
+            return null;
+        }
+        return new Page(dispatchId, header, itemIds.get(itemIds.size() - 1), events);
+    }
+
+    /**
+     * Delete a page Kafka has accepted; a drip dispatch goes back into the wheel.
+     * The delete and a drip dispatch's published count commit together, so a
+     * failure between them cannot shift its remaining slots.
+     *
+     * @return Items published
+     */
+    private int completePage(Page page) {
+        progressTracker.recordQueued(page.events());
+        DispatchHeader header = page.header();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM scheduled_dispatch_items WHERE dispatch_id = ? AND id <= ?",
+                    page.dispatchId(), page.lastItemId());
+            if (header.dripIntervalMicros() != null) {
+                jdbcTemplate.update("UPDATE scheduled_dispatches SET published = published + ? WHERE id = ?",
+                        page.events().size(), page.dispatchId());
+            }
+        });
+
+        if (header.dripIntervalMicros() != null) {
+            ready.remove(page.dispatchId());
+            rearm(page.dispatchId(), header, header.published() + page.events().size());
+        }
+        return page.events().size();
+    }
+
+    /**
+     * Put a drip dispatch back into the wheel at its next slot, or at once
+     * when all items are out so the row gets deleted.
+     */
+    private void rearm(long dispatchId, DispatchHeader header, int published) {
+        long nextDueMs = published < header.itemCount()
+                ? header.sendAt() + published * header.dripIntervalMicros() / 1000
+                : System.currentTimeMillis();
+        wheel.schedule(dispatchId, nextDueMs);
+    }
+
+    /**
+     * Dispatches waiting in memory, in the wheel or ready to publish.
+     */
+    public int pendingInMemory() {
+        return loaded.size();
+    }
+
+    private record DispatchHeader(String phoneNumberId, String accessToken, Long expectedTotal, int itemCount,
+            long sendAt, Long dripIntervalMicros, int published) {
+    }
+
+    private record Page(long dispatchId, DispatchHeader header, long lastItemId, List<BroadcastReportEvent> events) {
+    }
+}
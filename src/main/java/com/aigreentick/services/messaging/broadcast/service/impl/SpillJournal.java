@@ -0,0 +1,580 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.DatabaseUpdate;
+import com.aigreentick.services.messaging.config.SpillJournalProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-ahead spill journal for send results.
+ *
+ * When a reports write fails or is slow, BatchCoordinator appends the batch
+ * here instead and acks it once appended. Records go into memory-mapped
+ * segment files of segmentBytes, each framed by its length and CRC32; a
+ * segment without room for the next record is sealed and a new one started.
+ * Concurrent appends share one force() rather than paying one each.
+ *
+ * A scheduled replayer writes the records to reports in order, keeps its
+ * position in a checkpoint file and deletes segments it has passed. While
+ * anything is left to replay new results are journaled too, so a row's later
+ * result never lands before an earlier one. After a restart everything past
+ * the checkpoint is replayed; a torn record ends its segment.
+ *
+ * A batch the DB keeps rejecting for anything but being unavailable is
+ * retried record by record after maxReplayAttempts, and a record that fails
+ * on its own is moved to the quarantine file so the rest can drain.
+ */
+@Slf4j
+@Service
+public class SpillJournal {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String QUARANTINE = "quarantine.log";
+
+    // Record length and CRC32 ahead of each record
+    private static final int HEADER_BYTES = 8;
+
+    private final ReportServiceImpl reportService;
+    private final SpillJournalProperties properties;
+    private final Counter quarantined;
+
+    private Path directory;
+    private volatile boolean available;
+
+    // Writer state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private long writeSegment;
+    private volatile MappedByteBuffer writeBuffer;
+    private int writeOffset;
+    private volatile long writtenBytes;
+
+    // Bytes known to be on disk, guarded by forceLock
+    private final Object forceLock = new Object();
+    private long forcedBytes;
+
+    // Replayer position, only used by replay()
+    private long readSegment;
+    private int readOffset;
+    private ByteBuffer readBuffer;
+
+    // Journaled results not yet replayed
+    private final AtomicLong pending = new AtomicLong();
+
+    // Consecutive failed replays of the batch at the replay position
+    private int failedAttempts;
+
+    private volatile long spillUntil;
+
+    public SpillJournal(
+            ReportServiceImpl reportService,
+            SpillJournalProperties properties,
+            MeterRegistry meterRegistry) {
+        this.reportService = reportService;
+        this.properties = properties;
+        this.quarantined = Counter.builder("spill.journal.quarantined")
+                .description("Journaled results the DB rejected on their own, moved to the quarantine file")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            directory = Path.of(properties.getDirectory());
+            Files.createDirectories(directory);
+
+            List<Long> segments = listSegments();
+            long[] checkpoint = readCheckpoint();
+            long first = segments.isEmpty() ? 0 : segments.get(0);
+            long last = segments.isEmpty() ? Math.max(checkpoint[0], 0) : segments.get(segments.size() - 1);
+
+            if (checkpoint[0] >= first && !segments.isEmpty()) {
+                readSegment = checkpoint[0];
+                readOffset = (int) checkpoint[1];
+            } else {
+                readSegment = segments.isEmpty() ? last + 1 : first;
+                readOffset = 0;
+            }
+
+            // Never append to a segment from before the restart; its tail may be torn
+            writeSegment = last + 1;
+            writeBuffer = map(writeSegment, true);
+            available = true;
+
+            long recovered = countRecords(segments);
+            pending.set(recovered);
+            if (recovered > 0) {
+                log.warn("Spill journal has {} results to replay from segment {}", recovered, readSegment);
+            } else {
+                // Nothing to replay: drop the old segments rather than wait for a spill to pass them
+                for (long segment : segments) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+                readSegment = writeSegment;
+                readOffset = 0;
+                saveCheckpoint();
+            }
+        } catch (IOException e) {
+            log.warn("Spill journal unavailable, results are written to the DB only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * True while results should go to the journal rather than to the DB.
+     */
+    public boolean shouldSpill() {
+        return available && (pending.get() > 0 || System.currentTimeMillis() < spillUntil);
+    }
+
+    /**
+     * A direct write slower than slowWriteMs sends the next results to the journal.
+     */
+    public void directWriteTook(long durationMs) {
+        if (available && durationMs > properties.getSlowWriteMs()) {
+            spillUntil = System.currentTimeMillis() + properties.getSpillHoldMs();
+            log.warn("Reports write took {}ms, spilling results for {}ms", durationMs, properties.getSpillHoldMs());
+        }
+    }
+
+    public void directWriteFailed() {
+        if (available) {
+            spillUntil = System.currentTimeMillis() + properties.getSpillHoldMs();
+        }
+    }
+
+    /**
+     * Append updates and, with fsync, return once they are on disk.
+     *
+     * @throws IOException if the journal is unavailable or the write failed
+     */
+    public void append(List<DatabaseUpdate> updates) throws IOException {
+        if (!available) {
+            throw new IOException("Spill journal is not available");
+        }
+
+        // Encoded up front, so a record that cannot be written fails the append before any is
+        List<byte[]> records = new ArrayList<>(updates.size());
+        for (DatabaseUpdate update : updates) {
+            byte[] record = encode(update);
+            if (HEADER_BYTES + record.length > properties.getSegmentBytes()) {
+                throw new IOException("Record of " + record.length + " bytes does not fit a segment");
+            }
+            records.add(record);
+        }
+
+        long end;
+        synchronized (writeLock) {
+            for (byte[] record : records) {
+                if (writeOffset + HEADER_BYTES + record.length > writeBuffer.capacity()) {
+                    rotate();
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                writeBuffer.putInt(writeOffset + 4, (int) crc.getValue());
+                writeBuffer.put(writeOffset + HEADER_BYTES, record);
+                // Length last, so a zero length still ends the segment if the body is cut short
+                writeBuffer.putInt(writeOffset, record.length);
+
+                writeOffset += HEADER_BYTES + record.length;
+                writtenBytes += HEADER_BYTES + record.length;
+                pending.incrementAndGet();
+            }
+            end = writtenBytes;
+        }
+
+        if (properties.isFsync()) {
+            force(end);
+        }
+    }
+
+    private void rotate() throws IOException {
+        writeBuffer.force();
+        writeBuffer = map(writeSegment + 1, true);
+        writeSegment++;
+        writeOffset = 0;
+    }
+
+    /**
+     * Group commit: whoever gets the lock forces everything written so far,
+     * covering the appends that queued behind it.
+     */
+    private void force(long end) {
+        synchronized (forceLock) {
+            if (forcedBytes >= end) {
+                return;
+            }
+            // Read before the buffer: bytes of a segment rotated out since were forced by rotate
+            long upTo = writtenBytes;
+            writeBuffer.force();
+            forcedBytes = upTo;
+        }
+    }
+
+    /**
+     * Write journaled results to reports, replayBatchSize at a time, until
+     * the journal is drained or a write fails.
+     */
+    @Scheduled(fixedDelayString = "${spill-journal.replay-interval-ms:1000}")
+    public void replay() {
+        if (!available || pending.get() == 0) {
+            return;
+        }
+
+        long replayed = 0;
+        try {
+            while (pending.get() > 0) {
+                List<byte[]> records = new ArrayList<>(properties.getReplayBatchSize());
+                int end = readRecords(records, properties.getReplayBatchSize());
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                try {
+                    reportService.batchUpdateReports(decode(records));
+                } catch (Exception e) {
+                    if (unavailable(e) || ++failedAttempts < properties.getMaxReplayAttempts()) {
+                        throw e;
+                    }
+                    log.warn("Spill journal batch failed {} times, replaying it record by record: {}",
+                            failedAttempts, e.getMessage());
+                    failedAttempts = 0;
+                    replayed += replaySingly(records);
+                    continue;
+                }
+
+                failedAttempts = 0;
+                readOffset = end;
+                pending.addAndGet(-records.size());
+                replayed += records.size();
+                saveCheckpoint();
+            }
+        } catch (Exception e) {
+            log.warn("Spill journal replay stopped, {} results left: {}", pending.get(), e.getMessage());
+        }
+
+        if (replayed > 0) {
+            log.info("Spill journal replayed {} results, {} left", replayed, pending.get());
+        }
+    }
+
+    /**
+     * Write records one at a time, quarantining any the DB rejects on its own.
+     *
+     * @return The number of records written
+     * @throws Exception if the DB became unavailable; the records written so far stay replayed
+     */
+    private int replaySingly(List<byte[]> records) throws Exception {
+        int written = 0;
+        try {
+            for (byte[] record : records) {
+                try {
+                    reportService.batchUpdateReports(List.of(decode(record)));
+                    written++;
+                } catch (Exception e) {
+                    if (unavailable(e)) {
+                        throw e;
+                    }
+                    quarantine(record, e);
+                }
+                readOffset += HEADER_BYTES + record.length;
+                pending.decrementAndGet();
+            }
+        } finally {
+            saveCheckpoint();
+        }
+        return written;
+    }
+
+    /**
+     * Failures that say nothing about the records, only that the DB cannot be reached right now.
+     */
+    private static boolean unavailable(Exception e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void quarantine(byte[] record, Exception cause) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer framed = ByteBuffer.allocate(HEADER_BYTES + record.length)
+                .putInt(record.length)
+                .putInt((int) crc.getValue())
+                .put(record);
+        Files.write(directory.resolve(QUARANTINE), framed.array(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        quarantined.increment();
+        log.error("Spill journal record at segment {} offset {} quarantined, the DB rejected it on its own: {}",
+                readSegment, readOffset, cause.getMessage());
+    }
+
+    /**
+     * Read up to max records from the replay position, moving on to the next
+     * segment when a sealed one is exhausted. Records are returned from one
+     * segment only, contiguous from readOffset.
+     *
+     * @return Offset in readSegment just past the records read
+     */
+    private int readRecords(List<byte[]> into, int max) throws IOException {
+        // Segment, offset and buffer from one snapshot, so a rotation cannot pair them up wrongly
+        long activeSegment;
+        int activeOffset;
+        ByteBuffer activeBuffer;
+        synchronized (writeLock) {
+            activeSegment = writeSegment;
+            activeOffset = writeOffset;
+            activeBuffer = writeBuffer;
+        }
+
+        while (true) {
+            boolean sealed = readSegment < activeSegment;
+            if (readBuffer == null) {
+                readBuffer = sealed ? mapIfExists(readSegment) : activeBuffer.duplicate();
+            }
+
+            int offset = readOffset;
+            if (readBuffer != null) {
+                int limit = sealed ? readBuffer.capacity() : activeOffset;
+                while (into.size() < max && offset + HEADER_BYTES <= limit) {
+                    byte[] record = recordAt(readBuffer, offset, limit);
+                    if (record == null) {
+                        break;
+                    }
+                    into.add(record);
+                    offset += HEADER_BYTES + record.length;
+                }
+            }
+            if (!into.isEmpty() || !sealed) {
+                return offset;
+            }
+
+            // Sealed segment fully replayed
+            Files.deleteIfExists(segmentPath(readSegment));
+            readSegment++;
+            readOffset = 0;
+            readBuffer = null;
+            saveCheckpoint();
+        }
+    }
+
+    /**
+     * @return The record at offset, or null at the end of the written data or a torn record
+     */
+    private static byte[] recordAt(ByteBuffer buffer, int offset, int limit) {
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        buffer.get(offset + HEADER_BYTES, record);
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            log.warn("Torn spill journal record at offset {}, skipping the rest of its segment", offset);
+            return null;
+        }
+        return record;
+    }
+
+    private long countRecords(List<Long> segments) throws IOException {
+        long count = 0;
+        for (long segment : segments) {
+            if (segment < readSegment) {
+                continue;
+            }
+            ByteBuffer buffer = mapIfExists(segment);
+            int offset = segment == readSegment ? readOffset : 0;
+            byte[] record;
+            while (buffer != null && offset + HEADER_BYTES <= buffer.capacity()
+                    && (record = recordAt(buffer, offset, buffer.capacity())) != null) {
+                offset += HEADER_BYTES + record.length;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (available) {
+            synchronized (writeLock) {
+                writeBuffer.force();
+            }
+        }
+    }
+
+    // ==================== FILES ====================
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", segment) + SEGMENT_SUFFIX);
+    }
+
+    private MappedByteBuffer map(long segment, boolean create) throws IOException {
+        try (FileChannel channel = create
+                ? FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)
+                : FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            return create
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.getSegmentBytes())
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private ByteBuffer mapIfExists(long segment) throws IOException {
+        try {
+            return map(segment, false);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * @return Segment and offset replayed up to, or -1 and 0 without a checkpoint
+     */
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return new long[] { -1, 0 };
+        }
+        String[] parts = Files.readString(path).trim().split(" ");
+        return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+    }
+
+    private void saveCheckpoint() throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, readSegment + " " + readOffset);
+        Files.move(temp, directory.resolve(CHECKPOINT),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ==================== RECORDS ====================
+
+    static byte[] encode(DatabaseUpdate update) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + (update.response() != null
+                ? update.response().length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            // Presence flags ahead of the fields a record cannot hold as null
+            out.writeBoolean(update.broadcastId() != null);
+            if (update.broadcastId() != null) {
+                out.writeLong(update.broadcastId());
+            }
+            writeString(out, update.mobile());
+            writeBytes(out, update.response());
+            writeString(out, update.status());
+            writeString(out, update.messageStatus());
+            writeString(out, update.whatsappMessageId());
+            writeBytes(out, update.payload());
+            out.writeBoolean(update.timestamp() != null);
+            if (update.timestamp() != null) {
+                out.writeLong(update.timestamp().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(update.timestamp().getNano());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<DatabaseUpdate> decode(List<byte[]> records) {
+        List<DatabaseUpdate> updates = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            updates.add(decode(record));
+        }
+        return updates;
+    }
+
+    static DatabaseUpdate decode(byte[] record) {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        Long broadcastId = in.get() != 0 ? in.getLong() : null;
+        String mobile = readString(in);
+        byte[] response = readBytes(in);
+        String status = readString(in);
+        String messageStatus = readString(in);
+        String whatsappMessageId = readString(in);
+        byte[] payload = readBytes(in);
+        LocalDateTime timestamp = in.get() != 0
+                ? LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC)
+                : null;
+        return new DatabaseUpdate(broadcastId, mobile, response, status, messageStatus, whatsappMessageId,
+                payload, timestamp);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] value = readBytes(in);
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+}
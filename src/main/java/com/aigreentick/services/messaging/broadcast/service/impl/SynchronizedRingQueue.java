@@ -0,0 +1,152 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Unbounded FIFO queue on a power-of-two ring buffer, with every mutator
+ * synchronized on the queue. It is neither lock-free nor limited to one
+ * consumer. Over a linked queue it saves a node allocation per offer, moves
+ * a whole batch per drainTo under one lock acquisition, and keeps size as a
+ * counter instead of a walk.
+ *
+ * The buffer doubles when full, so offer never blocks or fails. One grown
+ * past MAX_RETAINED by a burst drops back to its initial capacity once a
+ * drain empties it. Holding the lock for bulk operations also lets other
+ * threads remove items in place.
+ */
+public final class SynchronizedRingQueue<E> {
+
+    // Largest buffer kept once empty; a tenant's steady batches fit in it
+    private static final int MAX_RETAINED = 1024;
+
+    private final int initialCapacity;
+    private Object[] buffer;
+
+    // Index of the oldest item
+    private int head;
+
+    // Written under the lock, read without it by size and isEmpty
+    private volatile int size;
+
+    public SynchronizedRingQueue(int initialCapacity) {
+        if (initialCapacity <= 0 || Integer.bitCount(initialCapacity) != 1) {
+            throw new IllegalArgumentException("initialCapacity must be a power of two: " + initialCapacity);
+        }
+        this.initialCapacity = initialCapacity;
+        this.buffer = new Object[initialCapacity];
+    }
+
+    public synchronized void offer(E item) {
+        Objects.requireNonNull(item);
+        if (size == buffer.length) {
+            grow();
+        }
+        buffer[(head + size) & (buffer.length - 1)] = item;
+        size++;
+    }
+
+    /**
+     * Put an item back at the head, ahead of everything queued.
+     */
+    public synchronized void offerFirst(E item) {
+        Objects.requireNonNull(item);
+        if (size == buffer.length) {
+            grow();
+        }
+        head = (head - 1) & (buffer.length - 1);
+        buffer[head] = item;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized E poll() {
+        if (size == 0) {
+            return null;
+        }
+        E item = (E) buffer[head];
+        buffer[head] = null;
+        head = (head + 1) & (buffer.length - 1);
+        if (--size == 0) {
+            reset();
+        }
+        return item;
+    }
+
+    /**
+     * Move up to max items, oldest first, into target.
+     *
+     * @return The number of items moved
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized int drainTo(Collection<? super E> target, int max) {
+        int count = Math.min(max, size);
+        int mask = buffer.length - 1;
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) & mask;
+            target.add((E) buffer[index]);
+            buffer[index] = null;
+        }
+        head = (head + count) & mask;
+        size -= count;
+        if (size == 0) {
+            reset();
+        }
+        return count;
+    }
+
+    /**
+     * Remove every item matching the filter into removed, keeping the order
+     * of the rest.
+     *
+     * @return The number of items removed
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized int removeIf(Predicate<? super E> filter, Collection<? super E> removed) {
+        int mask = buffer.length - 1;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & mask;
+            E item = (E) buffer[index];
+            buffer[index] = null;
+            if (filter.test(item)) {
+                removed.add(item);
+            } else {
+                buffer[(head + kept++) & mask] = item;
+            }
+        }
+        int count = size - kept;
+        size = kept;
+        if (size == 0) {
+            reset();
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void grow() {
+        Object[] grown = new Object[buffer.length << 1];
+        int mask = buffer.length - 1;
+        for (int i = 0; i < size; i++) {
+            grown[i] = buffer[(head + i) & mask];
+        }
+        buffer = grown;
+        head = 0;
+    }
+
+    private void reset() {
+        head = 0;
+        if (buffer.length > MAX_RETAINED) {
+            // Give back the memory of a burst
+            buffer = new Object[initialCapacity];
+        }
+    }
+}
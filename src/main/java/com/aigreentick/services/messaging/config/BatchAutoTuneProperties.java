@@ -0,0 +1,27 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Batch sizes adjusted from observed stage latency instead of the fixed
+ * batch.size, which becomes the starting point.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "batch.auto-tune")
+@Data
+public class BatchAutoTuneProperties {
+
+    // Off by default; batch.size is used as is
+    private boolean enabled = false;
+
+    private int minSize = 10;
+
+    private int maxSize = 500;
+
+    // Latency a batch should stay under: WINDOWED from the oldest buffered result to its
+    // write, BARRIER from collecting a tenant's batch to its write
+    private long targetLatencyMs = 1000;
+}
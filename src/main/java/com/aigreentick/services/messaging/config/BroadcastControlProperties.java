@@ -0,0 +1,22 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Cancel and pause controls, shared between instances through the
+ * broadcast_controls table.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "broadcast-control")
+@Data
+public class BroadcastControlProperties {
+
+    // How soon a control set on another instance takes effect here
+    private long refreshIntervalMs = 1000;
+
+    // Cancels are kept this long so redelivered records are still skipped
+    private long cancelRetentionMs = 604800000;
+}
@@ -1,10 +1,8 @@
 package com.aigreentick.services.messaging.config;
 
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -14,7 +12,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,9 +24,6 @@ public class ExecutorConfig {
     @Value("${campaign.max-concurrent-users:100}")
     private int maxConcurrentUsers;
 
-    @Value("${campaign.semaphore-cleanup-enabled:true}")
-    private boolean semaphoreCleanupEnabled;
-    
     @Value("${campaign.executor.core-pool-size:500}")
     private int executorCorePoolSize;
     
@@ -39,8 +33,6 @@ public class ExecutorConfig {
     @Value("${campaign.executor.queue-capacity:10000}")
     private int executorQueueCapacity;
 
-    private final ConcurrentHashMap<String, Integer> activeCampaignsPerUser = new ConcurrentHashMap<>();
-    
     // NEW: Track executor metrics
     private final AtomicLong totalTasksSubmitted = new AtomicLong(0);
     private final AtomicLong totalTasksCompleted = new AtomicLong(0);
@@ -87,8 +79,9 @@ public class ExecutorConfig {
                     t.setDaemon(false);
                     return t;
                 },
-                // Rejection policy: CallerRuns (blocks producer if queue full)
-                new ThreadPoolExecutor.CallerRunsPolicy() {
+                // Rejection policy: Abort, so a send never runs on the submitting thread (the Kafka
+                // consumer, when it pumps a queue); callers keep the item queued and retry
+                new ThreadPoolExecutor.AbortPolicy() {
                     @Override
                     public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
                         totalTasksRejected.incrementAndGet();
@@ -115,130 +108,4 @@ public class ExecutorConfig {
             return t;
         });
     }
-
-    @Bean
-    public ConcurrentHashMap<String, Semaphore> userSemaphores() {
-        return new ConcurrentHashMap<>();
-    }
-
-    @Bean
-    public ConcurrentHashMap<String, Long> semaphoreLastUsed() {
-        return new ConcurrentHashMap<>();
-    }
-
-    /**
-     * Helper method to get or create semaphore with campaign tracking
-     */
-    public static Semaphore getSemaphoreForUser(
-            ConcurrentHashMap<String, Semaphore> userSemaphores,
-            ConcurrentHashMap<String, Long> semaphoreLastUsed,
-            String phoneNumberId) {
-        
-        semaphoreLastUsed.put(phoneNumberId, System.currentTimeMillis());
-        
-        return userSemaphores.computeIfAbsent(
-                phoneNumberId,
-                key -> {
-                    Semaphore semaphore = new Semaphore(ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS);
-                    log.info("Created new semaphore for user: {} (Total semaphores: {})", 
-                            phoneNumberId, userSemaphores.size());
-                    return semaphore;
-                });
-    }
-
-    public void incrementActiveCampaigns(String phoneNumberId) {
-        activeCampaignsPerUser.compute(phoneNumberId, (k, v) -> v == null ? 1 : v + 1);
-    }
-
-    public void decrementActiveCampaigns(String phoneNumberId) {
-        activeCampaignsPerUser.compute(phoneNumberId, (k, v) -> {
-            if (v == null || v <= 1) {
-                return null;
-            }
-            return v - 1;
-        });
-    }
-
-    @Scheduled(fixedRate = 3600000) // Every hour
-    public void cleanupInactiveSemaphores() {
-        if (!semaphoreCleanupEnabled) {
-            return;
-        }
-
-        ConcurrentHashMap<String, Semaphore> semaphores = userSemaphores();
-        ConcurrentHashMap<String, Long> lastUsed = semaphoreLastUsed();
-        
-        long now = System.currentTimeMillis();
-        long inactivityThreshold = TimeUnit.HOURS.toMillis(6);
-        
-        int initialSize = semaphores.size();
-        int removed = 0;
-        
-        for (var entry : semaphores.entrySet()) {
-            String phoneNumberId = entry.getKey();
-            Semaphore semaphore = entry.getValue();
-            
-            Integer activeCampaigns = activeCampaignsPerUser.get(phoneNumberId);
-            if (activeCampaigns != null && activeCampaigns > 0) {
-                continue;
-            }
-            
-            if (semaphore.availablePermits() == ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS) {
-                Long lastUsedTime = lastUsed.get(phoneNumberId);
-                
-                if (lastUsedTime != null && (now - lastUsedTime) > inactivityThreshold) {
-                    if (activeCampaignsPerUser.get(phoneNumberId) == null) {
-                        if (semaphores.remove(phoneNumberId) != null) {
-                            lastUsed.remove(phoneNumberId);
-                            removed++;
-                        }
-                    }
-                }
-            }
-        }
-        
-        if (removed > 0) {
-            log.info("Semaphore cleanup completed. Removed: {}, Remaining: {} (was: {})", 
-                    removed, semaphores.size(), initialSize);
-        }
-    }
-
-    public SemaphoreStats getSemaphoreStats() {
-        ConcurrentHashMap<String, Semaphore> semaphores = userSemaphores();
-        
-        int totalSemaphores = semaphores.size();
-        int activeSemaphores = 0;
-        int totalPermitsInUse = 0;
-        int usersWithActiveCampaigns = activeCampaignsPerUser.size();
-        
-        for (Semaphore semaphore : semaphores.values()) {
-            int inUse = ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS - semaphore.availablePermits();
-            if (inUse > 0) {
-                activeSemaphores++;
-                totalPermitsInUse += inUse;
-            }
-        }
-        
-        return new SemaphoreStats(
-                totalSemaphores,
-                activeSemaphores,
-                totalPermitsInUse,
-                totalSemaphores * ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS,
-                usersWithActiveCampaigns
-        );
-    }
-
-    public record SemaphoreStats(
-            int totalSemaphores,
-            int activeSemaphores,
-            int totalPermitsInUse,
-            int totalPermitsAvailable,
-            int usersWithActiveCampaigns
-    ) {
-        public double utilizationPercentage() {
-            return totalPermitsAvailable > 0 
-                    ? (totalPermitsInUse * 100.0) / totalPermitsAvailable 
-                    : 0.0;
-        }
-    }
 }
@@ -18,7 +18,10 @@ import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.BroadcastRebalanceListener;
 import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.TenantSplitPartitioner;
 
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -39,6 +42,9 @@ public class KafkaConfiguration {
 
     private int consumerConcurrency;
 
+    @Value("${kafka.topics.message-status.concurrency:10}")
+    private int statusConsumerConcurrency;
+
     // ==================== PRODUCER CONFIGURATION ====================
 
     @Bean
@@ -64,6 +70,9 @@ public class KafkaConfiguration {
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
         config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "5");
 
+        // Keyed by phoneNumberId; hot tenants are spread over several partitions
+        config.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, TenantSplitPartitioner.class);
+
         // log.info("Kafka Producer initialized with type headers ENABLED");
 
         return new DefaultKafkaProducerFactory<>(config);
@@ -112,7 +121,8 @@ public class KafkaConfiguration {
      */
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, BroadcastReportEvent> campaignKafkaListenerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, BroadcastReportEvent> campaignKafkaListenerFactory(
+            BroadcastRebalanceListener broadcastRebalanceListener) {
         ConcurrentKafkaListenerContainerFactory<String, BroadcastReportEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(campaignMessageConsumerFactory());
         factory.setConcurrency(consumerConcurrency); // Match partition count
@@ -120,10 +130,66 @@ public class KafkaConfiguration {
         // MANUAL ack mode allows async processing before acknowledgment
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
 
+        // No asyncAcks: one record held unacked (paused broadcast, open circuit) would pause
+        // every partition of its consumer. BatchCoordinator forwards acks only for the
+        // contiguous acked prefix of each partition instead, so no offset is committed
+        // past a record that was not processed.
+
+        // Tracks partition ownership and drains revoked partitions before their commit
+        factory.getContainerProperties().setConsumerRebalanceListener(broadcastRebalanceListener);
+
         log.info("Campaign Kafka Listener Factory initialized:");
         log.info("  - Type: CampaignMessageEvent");
         log.info("  - Concurrency: {} consumers", consumerConcurrency);
-        log.info("  - Ack Mode: MANUAL (async processing)");
+        log.info("  - Ack Mode: MANUAL (async processing, contiguous acks per partition)");
+
+        return factory;
+    }
+
+    // ==================== MESSAGE STATUS CONSUMER ====================
+
+    /**
+     * Consumer factory for webhook status events
+     */
+    @Bean
+    public ConsumerFactory<String, MessageStatusEvent> statusConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, "com.aigreentick.services.messaging.*");
+        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, MessageStatusEvent.class.getName());
+        config.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, true);
+
+        // Larger polls coalesce better
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "500");
+        config.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, "16384");
+        config.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, "200");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        return new DefaultKafkaConsumerFactory<>(
+                config,
+                new StringDeserializer(),
+                new JsonDeserializer<>(MessageStatusEvent.class));
+    }
+
+    /**
+     * Batch listener factory for webhook statuses
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MessageStatusEvent> statusKafkaListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MessageStatusEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(statusConsumerFactory());
+        factory.setConcurrency(statusConsumerConcurrency);
+        factory.setBatchListener(true);
+
+        // Polls are acknowledged by MessageStatusCoalescer once their statuses are written
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        log.info("Status Kafka Listener Factory initialized: concurrency={} (batch)", statusConsumerConcurrency);
 
         return factory;
     }
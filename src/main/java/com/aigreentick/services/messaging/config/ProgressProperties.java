@@ -0,0 +1,45 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Per-broadcast progress counters and their broadcast_progress summary table.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "progress")
+@Data
+public class ProgressProperties {
+
+    private long flushIntervalMs = 2000;
+
+    // Broadcasts without updates for this long are dropped from memory
+    private long idleEvictMs = 600000;
+
+    private Stream stream = new Stream();
+
+    /**
+     * Server-sent progress events.
+     */
+    @Data
+    public static class Stream {
+
+        // How often open streams are checked for changed counters
+        private long intervalMs = 1000;
+
+        // Re-read the summary row so other instances' progress shows up
+        private long resyncIntervalMs = 10000;
+
+        // Unchanged progress is re-sent this often to keep idle connections open
+        private long heartbeatIntervalMs = 15000;
+
+        private int maxSubscribers = 10000;
+
+        private int maxSubscribersPerBroadcast = 2000;
+
+        // Threads writing events to clients, shared by all streams
+        private int writerThreads = 4;
+    }
+}
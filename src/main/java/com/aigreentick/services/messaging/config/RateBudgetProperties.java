@@ -0,0 +1,29 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Cluster-wide per-tenant concurrency budget, shared out through leases in the
+ * tenant_rate_leases table.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-budget")
+@Data
+public class RateBudgetProperties {
+
+    private boolean enabled = true;
+
+    // Concurrent sends per phoneNumberId across all instances
+    private int tenantConcurrency = ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS;
+
+    private long renewIntervalMs = 2000;
+
+    // A lease not renewed within this time no longer counts against the budget
+    private long leaseTtlMs = 10000;
+
+    // Defaults to host:pid
+    private String nodeId;
+}
@@ -0,0 +1,28 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Which columns a send result writes to reports.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "report-persistence")
+@Data
+public class ReportPersistenceProperties {
+
+    private Mode mode = Mode.FULL;
+
+    // LEAN: share of successful sends whose response body is still stored
+    private double responseSampleRate = 0.01;
+
+    public enum Mode {
+        // Every column, including payload and the response of every send
+        FULL,
+        // Status, message_status and message_id; response only for failures and sampled successes,
+        // payload left as the report-creating service stored it, unchanged rows skipped
+        LEAN
+    }
+}
@@ -0,0 +1,33 @@
+package com.aigreentick.services.messaging.config;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Per-tenant send semaphore whose permit count can change while permits are
+ * held. Shrinking takes effect as holders release; available permits may go
+ * negative meanwhile.
+ */
+public class ResizableSemaphore extends Semaphore {
+
+    private int permits;
+
+    public ResizableSemaphore(int permits) {
+        super(permits);
+        this.permits = permits;
+    }
+
+    public synchronized void resize(int newPermits) {
+        int delta = newPermits - permits;
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+        permits = newPermits;
+    }
+
+    public synchronized int getPermits() {
+        return permits;
+    }
+
+}
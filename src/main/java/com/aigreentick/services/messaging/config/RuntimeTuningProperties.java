@@ -0,0 +1,25 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Limits and persistence of throughput knobs changed at runtime through the
+ * tuning actuator endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "runtime-tuning")
+@Data
+public class RuntimeTuningProperties {
+
+    // Keep applied values in runtime_tuning and reapply them on every instance at startup
+    private boolean persist = false;
+
+    // Highest values the endpoint accepts
+    private int maxBatchSize = 1000;
+    private int maxPoolSize = 5000;
+    private int maxTenantConcurrency = 1000;
+    private int maxConsumerConcurrency = 200;
+}
@@ -0,0 +1,39 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Dispatches with a future sendAt or a drip window, kept in
+ * scheduled_dispatches and fired by an in-process timing wheel.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "scheduled-dispatch")
+@Data
+public class ScheduledDispatchProperties {
+
+    // Wheel resolution; a dispatch fires at most this late
+    private long tickMs = 1000;
+
+    // Buckets per turn (power of two); tickMs * wheelSize is the load-ahead horizon
+    private int wheelSize = 4096;
+
+    // How often dispatches entering the horizon are loaded from the table
+    private long reloadIntervalMs = 60000;
+
+    // Items read and published per query
+    private int pageSize = 1000;
+
+    // Items published per tick across all due dispatches, so bursts on the hour are spread out
+    private int maxPublishPerTick = 5000;
+
+    private long publishTimeoutMs = 30000;
+
+    // A claim not refreshed for this long is taken over by another instance
+    private long claimTimeoutMs = 60000;
+
+    // Drip clocks are kept this long past their last slot, for late requests of a campaign
+    private long dripClockRetentionMs = 86400000;
+}
@@ -0,0 +1,41 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Local journal that takes send results when the reports write fails or is
+ * slow, so Kafka acks do not wait for MySQL.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "spill-journal")
+@Data
+public class SpillJournalProperties {
+
+    private boolean enabled = true;
+
+    // Should survive a pod restart (persistent volume), or spilled results are lost with it
+    private String directory = "spill-journal";
+
+    // Size of each memory-mapped segment; a record must fit in one
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    // Force appended records to disk before the batch is acked
+    private boolean fsync = true;
+
+    // A direct write slower than this sends results to the journal for spillHoldMs
+    private long slowWriteMs = 2000;
+
+    // How long writes keep going to the journal after a slow or failed direct write
+    private long spillHoldMs = 10000;
+
+    private long replayIntervalMs = 1000;
+
+    // Records per replayed batch update
+    private int replayBatchSize = 500;
+
+    // Failed replays of one batch before it is retried record by record and rejected records are quarantined
+    private int maxReplayAttempts = 5;
+}
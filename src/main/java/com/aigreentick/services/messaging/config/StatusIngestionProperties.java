@@ -0,0 +1,32 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Applying webhook delivery statuses to reports.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "status-ingestion")
+@Data
+public class StatusIngestionProperties {
+
+    // How long statuses are held so sent/delivered/read of a message collapse into one write
+    private long coalesceWindowMs = 1000;
+
+    // Buffered messages at which status consumption pauses until a flush succeeds
+    private int coalesceMaxEntries = 50000;
+
+    // Cap of the doubling delay between retries of a failing flush
+    private long coalesceRetryMaxMs = 30000;
+
+    // Statuses whose message_id is not in reports yet wait in message_status_pending
+    private long pendingRetryIntervalMs = 5000;
+
+    // Pending statuses still unmatched after this long are dropped
+    private long pendingTtlMs = 600000;
+
+    private int pendingBatchSize = 500;
+}
@@ -1,5 +1,6 @@
 package com.aigreentick.services.messaging.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
@@ -8,21 +9,47 @@ import org.springframework.web.reactive.function.client.WebClient;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
+@Slf4j
 public class WebClientConfig {
 
+    // Reactor-netty defaults to 2 x cores (min 16) connections, far below our send concurrency
+    @Value("${whatsapp-service.http.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${whatsapp-service.http.pending-acquire-max-count:10000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${whatsapp-service.http.pending-acquire-timeout-ms:45000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${whatsapp-service.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
     /**
      * WebClient.Builder bean for WhatsApp API calls.
      * Configured with timeouts and connection pooling.
      */
     @Bean
     public WebClient.Builder webClientBuilder() {
-        HttpClient httpClient = HttpClient.create()
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("whatsapp")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+
+        log.info("WhatsApp HTTP pool: maxConnections={} pendingAcquireMaxCount={}",
+                maxConnections, pendingAcquireMaxCount);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 30000)
                 .responseTimeout(Duration.ofSeconds(30))
                 .doOnConnected(conn -> conn
@@ -35,4 +62,4 @@ public class WebClientConfig {
                         .defaultCodecs()
                         .maxInMemorySize(2 * 1024 * 1024)); // 2 mb buffer
     }
-}
\ No newline at end of file
+}
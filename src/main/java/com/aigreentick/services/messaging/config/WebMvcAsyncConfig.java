@@ -0,0 +1,36 @@
+package com.aigreentick.services.messaging.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Executor for reactive return values such as progress event streams.
+ *
+ * The ExecutorService beans in ExecutorConfig make Boot skip its
+ * applicationTaskExecutor, which would leave Spring MVC writing each stream
+ * from a new thread. A small fixed pool writes for all streams instead.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    private final ProgressProperties progressProperties;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        int threads = progressProperties.getStream().getWriterThreads();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setDaemon(true);
+        executor.initialize();
+
+        configurer.setTaskExecutor(executor);
+    }
+}
@@ -0,0 +1,92 @@
+-- Schema this service needs in production MySQL, applied once by the deploy
+-- pipeline before the release that first uses it. Statements are in release
+-- order; add new ones at the end.
+
+-- Webhook statuses and pending-status retries look reports up by message_id
+CREATE INDEX idx_reports_message_id ON reports (message_id);
+
+-- Per-tenant send budget leases shared between instances (rate-budget)
+CREATE TABLE tenant_rate_leases (
+    phone_number_id VARCHAR(64)  NOT NULL,
+    node_id         VARCHAR(128) NOT NULL,
+    demand          INT          NOT NULL,
+    granted         INT          NOT NULL,
+    expires_at      BIGINT       NOT NULL,
+    PRIMARY KEY (phone_number_id, node_id)
+);
+
+-- Webhook statuses that arrived before their message_id was in reports (status-ingestion)
+CREATE TABLE message_status_pending (
+    message_id       VARCHAR(255) NOT NULL,
+    status           VARCHAR(32)  NOT NULL,
+    status_timestamp BIGINT       NOT NULL,
+    received_at      BIGINT       NOT NULL,
+    PRIMARY KEY (message_id, status)
+);
+
+-- Per-broadcast progress counters (progress)
+CREATE TABLE broadcast_progress (
+    broadcast_id BIGINT NOT NULL PRIMARY KEY,
+    queued       BIGINT NOT NULL DEFAULT 0,
+    sent         BIGINT NOT NULL DEFAULT 0,
+    failed       BIGINT NOT NULL DEFAULT 0,
+    cancelled    BIGINT NOT NULL DEFAULT 0,
+    delivered    BIGINT NOT NULL DEFAULT 0,
+    read_count   BIGINT NOT NULL DEFAULT 0,
+    updated_at   BIGINT NOT NULL
+);
+
+-- Cancel and pause controls shared between instances (broadcast-control)
+CREATE TABLE broadcast_controls (
+    scope      VARCHAR(16) NOT NULL,
+    target_id  VARCHAR(64) NOT NULL,
+    action     VARCHAR(16) NOT NULL,
+    created_at BIGINT      NOT NULL,
+    PRIMARY KEY (scope, target_id)
+);
+
+-- Dispatches with a future send_at or a drip window, their items and drip clocks (scheduled-dispatch)
+CREATE TABLE scheduled_dispatches (
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    phone_number_id VARCHAR(64)   NOT NULL,
+    access_token    VARCHAR(1024) NOT NULL,
+    expected_total  BIGINT,
+    item_count      INT           NOT NULL,
+    send_at         BIGINT        NOT NULL,
+    drip_interval_micros BIGINT,
+    published       INT           NOT NULL DEFAULT 0,
+    claimed_by      VARCHAR(128),
+    claimed_at      BIGINT,
+    INDEX idx_scheduled_dispatches_send_at (send_at)
+);
+
+CREATE TABLE scheduled_dispatch_items (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    dispatch_id  BIGINT      NOT NULL,
+    broadcast_id BIGINT      NOT NULL,
+    mobile       VARCHAR(20) NOT NULL,
+    payload      LONGTEXT    NOT NULL,
+    INDEX idx_scheduled_dispatch_items_dispatch (dispatch_id, id)
+);
+
+CREATE TABLE drip_clocks (
+    broadcast_id        BIGINT PRIMARY KEY,
+    next_release_micros BIGINT NOT NULL
+);
+
+-- Persisted tuning knobs and their change log (runtime-tuning)
+CREATE TABLE runtime_tuning (
+    knob        VARCHAR(64) NOT NULL PRIMARY KEY,
+    knob_value  INT         NOT NULL,
+    updated_at  BIGINT      NOT NULL
+);
+
+CREATE TABLE runtime_tuning_audit (
+    id          BIGINT       AUTO_INCREMENT PRIMARY KEY,
+    knob        VARCHAR(64)  NOT NULL,
+    old_value   INT          NOT NULL,
+    new_value   INT          NOT NULL,
+    node_id     VARCHAR(128) NOT NULL,
+    reason      VARCHAR(255),
+    changed_at  BIGINT       NOT NULL
+);
@@ -0,0 +1,143 @@
+package com.aigreentick.services.messaging.broadcast.client.circuit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreaker.State;
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreakerRegistry.Admission;
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties;
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties.Settings;
+import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SendCircuitBreakerRegistryTest {
+
+    private static final String TENANT = "100000000000001";
+    private static final String OTHER_TENANT = "100000000000002";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void throttlingOpensOnlyTheTenantBreaker() {
+        SendCircuitBreakerRegistry registry = registry(60000);
+
+        Admission admission = registry.admit(TENANT, 4);
+        for (int i = 0; i < 4; i++) {
+            registry.record(TENANT, admission, FacebookApiResponse.error("(#130429) Rate limit hit", 429), null);
+        }
+
+        assertThat(registry.getState(TENANT)).isEqualTo(State.OPEN);
+        assertThat(registry.getGlobalState()).isEqualTo(State.CLOSED);
+        assertThat(registry.admit(TENANT, 1).permitted()).isFalse();
+        assertThat(registry.admit(OTHER_TENANT, 1).permitted()).isTrue();
+        assertThat(meterRegistry.counter("whatsapp.circuit.rejections", "scope", "tenant").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serverErrorsCountAgainstBothBreakers() {
+        SendCircuitBreakerRegistry registry = registry(60000);
+
+        Admission admission = registry.admit(TENANT, 4);
+        for (int i = 0; i < 4; i++) {
+            registry.record(TENANT, admission, null, new IllegalStateException("Read timed out"));
+        }
+
+        assertThat(registry.getState(TENANT)).isEqualTo(State.OPEN);
+        assertThat(registry.getGlobalState()).isEqualTo(State.OPEN);
+        assertThat(registry.admit(OTHER_TENANT, 1).permitted()).isFalse();
+        assertThat(meterRegistry.counter("whatsapp.circuit.rejections", "scope", "global").count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsNeverSentAreNeitherSuccessesNorFailures() {
+        SendCircuitBreakerRegistry registry = registry(0);
+        FacebookApiResponse<Object> notSent = FacebookApiResponse.error("Outgoing requests disabled",
+                FacebookApiResponse.NOT_SENT);
+
+        Admission closed = registry.admit(TENANT, 10);
+        for (int i = 0; i < 10; i++) {
+            registry.record(TENANT, closed, notSent, null);
+        }
+        assertThat(registry.getState(TENANT)).isEqualTo(State.CLOSED);
+
+        trip(registry);
+        Admission probes = registry.admit(TENANT, 10);
+        assertThat(registry.getState(TENANT)).isEqualTo(State.HALF_OPEN);
+        assertThat(probes.permits()).isEqualTo(2);
+
+        // The probe permit comes back instead of deciding the half-open breaker
+        registry.record(TENANT, probes, notSent, null);
+        assertThat(registry.getState(TENANT)).isEqualTo(State.HALF_OPEN);
+        assertThat(registry.admit(TENANT, 10).permits()).isEqualTo(1);
+    }
+
+    @Test
+    void staleResultsDoNotDecideTheProbes() {
+        SendCircuitBreakerRegistry registry = registry(0);
+        Admission closed = registry.admit(TENANT, 10);
+
+        trip(registry);
+        Admission probes = registry.admit(TENANT, 10);
+        registry.record(TENANT, closed, FacebookApiResponse.success(null, 200), null);
+        registry.record(TENANT, closed, FacebookApiResponse.success(null, 200), null);
+        assertThat(registry.getState(TENANT)).isEqualTo(State.HALF_OPEN);
+
+        registry.record(TENANT, probes, FacebookApiResponse.success(null, 200), null);
+        registry.record(TENANT, probes, FacebookApiResponse.success(null, 200), null);
+        assertThat(registry.getState(TENANT)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void releasedPermitsGoBackToBothBreakers() {
+        SendCircuitBreakerRegistry registry = registry(0);
+        trip(registry);
+
+        Admission probes = registry.admit(TENANT, 10);
+        assertThat(registry.admit(TENANT, 10).permitted()).isFalse();
+
+        registry.release(TENANT, probes, probes.permits());
+
+        assertThat(registry.admit(TENANT, 10).permits()).isEqualTo(2);
+    }
+
+    @Test
+    void disabledRegistryAdmitsEverything() {
+        CircuitBreakerProperties properties = properties(60000);
+        properties.setEnabled(false);
+        SendCircuitBreakerRegistry registry = new SendCircuitBreakerRegistry(properties, meterRegistry);
+
+        Admission admission = registry.admit(TENANT, 50);
+        for (int i = 0; i < 50; i++) {
+            registry.record(TENANT, admission, null, new IllegalStateException("Read timed out"));
+        }
+
+        assertThat(registry.admit(TENANT, 50).permits()).isEqualTo(50);
+        assertThat(registry.getState(TENANT)).isEqualTo(State.CLOSED);
+    }
+
+    // ==================== FIXTURES ====================
+
+    private SendCircuitBreakerRegistry registry(long tenantOpenMs) {
+        return new SendCircuitBreakerRegistry(properties(tenantOpenMs), meterRegistry);
+    }
+
+    private static CircuitBreakerProperties properties(long tenantOpenMs) {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setTenant(new Settings(10, 4, 0.5, tenantOpenMs, 2));
+        properties.setGlobal(new Settings(10, 4, 0.5, 60000, 20));
+        return properties;
+    }
+
+    /**
+     * Open the tenant breaker with throttling, which leaves the global one closed.
+     */
+    private static void trip(SendCircuitBreakerRegistry registry) {
+        Admission admission = registry.admit(TENANT, 4);
+        for (int i = 0; i < 4; i++) {
+            registry.record(TENANT, admission, FacebookApiResponse.error("(#130429) Rate limit hit", 429), null);
+        }
+        assertThat(registry.getState(TENANT)).isEqualTo(State.OPEN);
+    }
+}
@@ -0,0 +1,129 @@
+package com.aigreentick.services.messaging.broadcast.client.circuit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreaker.Permits;
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreaker.State;
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties.Settings;
+
+class SendCircuitBreakerTest {
+
+    private static final long OPEN_MS = 1000;
+    private static final int PROBES = 2;
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private final SendCircuitBreaker breaker = new SendCircuitBreaker("100000000000001",
+            new Settings(10, 4, 0.5, OPEN_MS, PROBES),
+            (source, from, to) -> transitions.add(from + "->" + to));
+
+    @Test
+    void closedAdmitsEverythingUntilTheFailureRateIsTrusted() {
+        long generation = breaker.tryAcquire(50, 0).generation();
+        assertThat(breaker.tryAcquire(50, 0).permits()).isEqualTo(50);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.onResult(true, generation, 0);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        breaker.onResult(true, generation, 0);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void openRejectsUntilTheOpenDurationHasPassed() {
+        open(0);
+
+        Permits rejected = breaker.tryAcquire(10, 400);
+
+        assertThat(rejected.permits()).isZero();
+        assertThat(rejected.retryAfterMs()).isEqualTo(OPEN_MS - 400);
+    }
+
+    @Test
+    void halfOpenHandsOutOnlyItsProbesAndClosesWhenTheySucceed() {
+        open(0);
+
+        Permits probes = breaker.tryAcquire(10, OPEN_MS);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(probes.permits()).isEqualTo(PROBES);
+
+        Permits waiting = breaker.tryAcquire(10, OPEN_MS);
+        assertThat(waiting.permits()).isZero();
+        assertThat(waiting.retryAfterMs()).isEqualTo(SendCircuitBreaker.PROBE_WAIT_MS);
+
+        breaker.onResult(false, probes.generation(), OPEN_MS);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(false, probes.generation(), OPEN_MS);
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    void failedProbesReopen() {
+        open(0);
+        Permits probes = breaker.tryAcquire(10, OPEN_MS);
+
+        breaker.onResult(true, probes.generation(), OPEN_MS);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire(1, OPEN_MS + 1).permits()).isZero();
+    }
+
+    @Test
+    void closedEraResultsDoNotCountAsProbes() {
+        long closed = breaker.tryAcquire(10, 0).generation();
+        open(0);
+        Permits probes = breaker.tryAcquire(10, OPEN_MS);
+
+        // Stragglers admitted before the breaker opened complete during half-open
+        for (int i = 0; i < PROBES; i++) {
+            breaker.onResult(false, closed, OPEN_MS);
+        }
+        breaker.onResult(true, closed, OPEN_MS);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+
+        breaker.onResult(false, probes.generation(), OPEN_MS);
+        breaker.onResult(false, probes.generation(), OPEN_MS);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void releaseReturnsOnlyProbesOfTheCurrentGeneration() {
+        long closed = breaker.tryAcquire(10, 0).generation();
+        open(0);
+        Permits probes = breaker.tryAcquire(10, OPEN_MS);
+
+        breaker.release(PROBES, closed);
+        assertThat(breaker.tryAcquire(10, OPEN_MS).permits()).isZero();
+
+        breaker.release(1, probes.generation());
+        assertThat(breaker.tryAcquire(10, OPEN_MS).permits()).isEqualTo(1);
+    }
+
+    @Test
+    void releaseNeverReturnsProbesThatAlreadyReported() {
+        open(0);
+        Permits probes = breaker.tryAcquire(10, OPEN_MS);
+        breaker.onResult(false, probes.generation(), OPEN_MS);
+
+        breaker.release(PROBES, probes.generation());
+
+        assertThat(breaker.tryAcquire(10, OPEN_MS).permits()).isEqualTo(1);
+    }
+
+    private void open(long now) {
+        long generation = breaker.tryAcquire(4, now).generation();
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, generation, now);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+}
@@ -0,0 +1,89 @@
+package com.aigreentick.services.messaging.broadcast.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappClientProperties;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.MessageStatusProducer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class WhatsappWebhookControllerTest {
+
+    private static final byte[] BODY = """
+            {"entry":[{"changes":[{"value":{"statuses":[{"id":"wamid.1","status":"read","timestamp":"1"}]}}]}]}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final WhatsappClientProperties properties = new WhatsappClientProperties();
+    private final MessageStatusProducer producer = mock(MessageStatusProducer.class);
+    private final WhatsappWebhookController controller = new WhatsappWebhookController(
+            properties, producer, new ObjectMapper());
+
+    @BeforeEach
+    void brokerAccepts() {
+        when(producer.publishStatus(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void rejectsEverythingWithoutAnAppSecret() {
+        assertThat(controller.receive(null, BODY).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verify(producer, never()).publishStatus(any());
+    }
+
+    @Test
+    void acceptsUnsignedOnlyWhenExplicitlyAllowed() {
+        properties.getWebhook().setAllowUnsigned(true);
+
+        assertThat(controller.receive(null, BODY).getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(producer).publishStatus(any());
+    }
+
+    @Test
+    void checksTheSignatureAgainstTheAppSecret() throws Exception {
+        properties.getWebhook().setAppSecret("secret");
+        properties.getWebhook().setAllowUnsigned(true);
+
+        assertThat(controller.receive(null, BODY).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(controller.receive(sign("other"), BODY).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(controller.receive(sign("secret"), BODY).getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(producer).publishStatus(any());
+    }
+
+    @Test
+    void answers503WhenKafkaRejectsTheStatus() {
+        properties.getWebhook().setAllowUnsigned(true);
+        when(producer.publishStatus(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(controller.receive(null, BODY).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void answers503WhenKafkaDoesNotAnswerInTime() {
+        properties.getWebhook().setAllowUnsigned(true);
+        properties.getWebhook().setPublishTimeoutMs(50);
+        when(producer.publishStatus(any())).thenReturn(new CompletableFuture<>());
+
+        assertThat(controller.receive(null, BODY).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static String sign(String secret) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "sha256=" + HexFormat.of().formatHex(mac.doFinal(BODY));
+    }
+}
@@ -0,0 +1,64 @@
+package com.aigreentick.services.messaging.broadcast.kafka.event;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures;
+
+/**
+ * Kafka value (de)serialization cost of {@link BroadcastReportEvent}, using the
+ * same serializer types as {@code KafkaConfiguration}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-bench.xml")
+public class BroadcastReportEventSerializationBenchmark {
+
+    private static final String TOPIC = "broadcast-messages";
+
+    private JsonSerializer<BroadcastReportEvent> serializer;
+    private JsonDeserializer<BroadcastReportEvent> deserializer;
+    private BroadcastReportEvent event;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(BroadcastReportEvent.class);
+        event = BenchmarkFixtures.event(1L, "100000000000001", 0);
+        serialized = serializer.serialize(TOPIC, event);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BroadcastReportEvent deserialize() {
+        return deserializer.deserialize(TOPIC, serialized);
+    }
+}
@@ -0,0 +1,73 @@
+package com.aigreentick.services.messaging.broadcast.kafka.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+
+class TenantSplitPartitionerTest {
+
+    private static final String TOPIC = "broadcast-messages";
+    private static final int PARTITIONS = 12;
+
+    private final TenantSplitPartitioner partitioner = new TenantSplitPartitioner();
+
+    @Test
+    void keyedRecordsLandOnTheMurmur2Partition() {
+        byte[] key = "100000000000001".getBytes(StandardCharsets.UTF_8);
+        int expected = Utils.toPositive(Utils.murmur2(key)) % PARTITIONS;
+
+        assertThat(partition(key, "not an event")).isEqualTo(expected);
+        assertThat(partition(key, event(1))).isEqualTo(expected);
+    }
+
+    @Test
+    void splitTenantsGoRoundRobinOverTheirPartitions() {
+        byte[] key = "100000000000001".getBytes(StandardCharsets.UTF_8);
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            used.add(partition(key, event(4)));
+        }
+
+        assertThat(used).containsExactlyInAnyOrderElementsOf(
+                IntStream.of(TenantSplitPartitioner.partitionsFor("100000000000001", 4, PARTITIONS)).boxed()
+                        .toList());
+    }
+
+    @Test
+    void recordsWithoutKeyAreSpreadOverAvailablePartitions() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 2 * PARTITIONS; i++) {
+            used.add(partition(null, event(4)));
+        }
+
+        assertThat(used).hasSize(PARTITIONS);
+    }
+
+    private int partition(byte[] key, Object value) {
+        return partitioner.partition(TOPIC, key, key, value, null, cluster());
+    }
+
+    private static BroadcastReportEvent event(int split) {
+        return BroadcastReportEvent.builder().partitionSplit(split).build();
+    }
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = IntStream.range(0, PARTITIONS)
+                .mapToObj(p -> new PartitionInfo(TOPIC, p, node, new Node[] { node }, new Node[] { node }))
+                .toList();
+        return new Cluster("test", List.of(node), partitions, Set.of(), Set.of());
+    }
+}
@@ -0,0 +1,178 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.BatchItem;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.SendMode;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.TenantState;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.WhatsAppResult;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.InProcessWhatsappClientService;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.NoOpReportService;
+import com.aigreentick.services.messaging.config.ConfigConstants;
+
+/**
+ * Hot-path benchmarks for {@link BatchCoordinator} with an in-process WhatsApp
+ * client and a no-op report writer.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="BatchCoordinatorBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-bench.xml")
+public class BatchCoordinatorBenchmark {
+
+    private static final Acknowledgment NO_OP_ACK = () -> {
+    };
+
+    /**
+     * Collecting a batch out of a freshly filled user queue.
+     */
+    @State(Scope.Thread)
+    public static class CollectState {
+
+        @Param({ "80" })
+        int batchSize;
+
+        BatchCoordinator coordinator;
+        TenantState tenant;
+        List<BatchItem> items;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            coordinator = BenchmarkFixtures.coordinator(
+                    new InProcessWhatsappClientService(), new NoOpReportService(), null, batchSize);
+            tenant = new TenantState("100000000000001", ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS,
+                    new BatchSizeController(batchSize, 1, batchSize, Long.MAX_VALUE));
+            items = BenchmarkFixtures.batch("100000000000001", batchSize, NO_OP_ACK);
+        }
+    }
+
+    @Benchmark
+    public List<BatchItem> collectBatch(CollectState state) {
+        for (BatchItem item : state.items) {
+            state.tenant.addItem(item);
+        }
+        return state.coordinator.collectBatch(state.tenant);
+    }
+
+    /**
+     * Preparing report rows from raw Graph API response bodies.
+     */
+    @State(Scope.Thread)
+    public static class PrepareState {
+
+        @Param({ "80" })
+        int batchSize;
+
+        BatchCoordinator coordinator;
+        List<BatchItem> batch;
+        List<WhatsAppResult> results;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            coordinator = BenchmarkFixtures.coordinator(
+                    new InProcessWhatsappClientService(), new NoOpReportService(), null, batchSize);
+            batch = BenchmarkFixtures.batch("100000000000001", batchSize, NO_OP_ACK);
+            results = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                BatchItem item = batch.get(i);
+                // One in twenty failing keeps both branches warm
+                results.add(i % 20 == 0
+                        ? new WhatsAppResult(item.broadcastId(), item.recipient(),
+                                FacebookApiResponse.error("Rate limit exceeded", 429), false, null)
+                        : new WhatsAppResult(item.broadcastId(), item.recipient(),
+                                FacebookApiResponse.success(
+                                        BenchmarkFixtures.successResponse(item.recipient(), i), 200),
+                                true, null));
+            }
+        }
+    }
+
+    @Benchmark
+    public void prepareDatabaseUpdates(PrepareState state, Blackhole blackhole) {
+        blackhole.consume(state.coordinator.prepareDatabaseUpdates(state.batch, state.results));
+    }
+
+    /**
+     * Full admission-to-ack cycle: addEventToBatch, batch or window scheduling,
+     * concurrent sends, report preparation and acknowledgment.
+     */
+    @State(Scope.Benchmark)
+    public static class PipelineState {
+
+        static final int EVENTS_PER_INVOCATION = 8_000;
+
+        @Param({ "80" })
+        int batchSize;
+
+        @Param({ "1", "50" })
+        int tenants;
+
+        @Param({ "BARRIER", "WINDOWED" })
+        SendMode sendMode;
+
+        ExecutorService executor;
+        BatchCoordinator coordinator;
+        BroadcastReportEvent[] events;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = BenchmarkFixtures.whatsappExecutor(200, 500, 5000);
+            coordinator = BenchmarkFixtures.coordinator(
+                    new InProcessWhatsappClientService(), new NoOpReportService(), executor, batchSize);
+            ReflectionTestUtils.setField(coordinator, "sendMode", sendMode);
+            // Keeps the final partial flush from dominating a WINDOWED invocation
+            ReflectionTestUtils.setField(coordinator, "batchTimeoutMs", 5L);
+            events = new BroadcastReportEvent[EVENTS_PER_INVOCATION];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = BenchmarkFixtures.event(1L, String.valueOf(100000000000000L + (i % tenants)), i);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PipelineState.EVENTS_PER_INVOCATION)
+    public void addEventToBatchUntilAcked(PipelineState state) throws InterruptedException {
+        CountDownLatch acked = new CountDownLatch(state.events.length);
+        Acknowledgment acknowledgment = acked::countDown;
+
+        for (BroadcastReportEvent event : state.events) {
+            state.coordinator.addEventToBatch(event, acknowledgment);
+        }
+
+        if (!acked.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Pipeline did not drain: " + acked.getCount() + " unacked");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.TenantState;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.InProcessWhatsappClientService;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.NoOpReportService;
+
+class BatchCoordinatorLeaseTest {
+
+    private static final String LEASED = "100000000000001";
+    private static final String NEW_TENANT = "100000000000002";
+
+    @Test
+    void tenantArrivingBetweenRenewalsStartsAtTheUnleasedLimit() {
+        BatchCoordinator coordinator = BenchmarkFixtures.coordinator(
+                new InProcessWhatsappClientService(), new NoOpReportService(), null, 80);
+        coordinator.applyLeaseLimits(Map.of(LEASED, 30), 10);
+
+        TenantState tenant = ReflectionTestUtils.invokeMethod(coordinator, "newTenant", NEW_TENANT);
+
+        assertThat(tenant.getWindowLimit()).isEqualTo(10);
+    }
+}
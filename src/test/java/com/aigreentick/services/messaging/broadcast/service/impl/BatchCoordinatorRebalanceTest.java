@@ -0,0 +1,108 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.kafka.producer.BroadcastReportProducer;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.SendMode;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Action;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Control;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.ControlSet;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Scope;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.InProcessWhatsappClientService;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.NoOpReportService;
+
+class BatchCoordinatorRebalanceTest {
+
+    private static final String PHONE_NUMBER_ID = "100000000000001";
+    private static final long PAUSED = 1L;
+    private static final long ACTIVE = 2L;
+
+    private final ExecutorService executor = BenchmarkFixtures.whatsappExecutor(2, 2, 10);
+    private final BroadcastReportProducer producer = mock(BroadcastReportProducer.class);
+    private final List<Long> committed = new CopyOnWriteArrayList<>();
+    private BatchCoordinator coordinator;
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void revocationRequeuesHeldRecordsSoTheOnesBehindThemCommit() throws Exception {
+        when(producer.publishMessage(any())).thenReturn(CompletableFuture.completedFuture(null));
+        start();
+
+        admit(PAUSED, 0);
+        admit(ACTIVE, 1);
+        awaitProcessed(1);
+        assertThat(committed).as("held record blocks the commit").isEmpty();
+
+        coordinator.onPartitionsRevoked(List.of(0), 1000);
+
+        ArgumentCaptor<BroadcastReportEvent> copy = ArgumentCaptor.forClass(BroadcastReportEvent.class);
+        verify(producer).publishMessage(copy.capture());
+        assertThat(copy.getValue().getBroadcastId()).isEqualTo(PAUSED);
+        assertThat(copy.getValue().getPhoneNumberId()).isEqualTo(PHONE_NUMBER_ID);
+        assertThat(committed).containsExactly(1L);
+    }
+
+    @Test
+    void heldRecordsOfLostPartitionsAreLeftForRedelivery() throws Exception {
+        start();
+
+        admit(PAUSED, 0);
+        admit(ACTIVE, 1);
+        awaitProcessed(1);
+
+        coordinator.onPartitionsLost(List.of(0));
+
+        verify(producer, never()).publishMessage(any());
+        assertThat(committed).isEmpty();
+    }
+
+    private void start() {
+        coordinator = BenchmarkFixtures.coordinator(
+                new InProcessWhatsappClientService(), new NoOpReportService(), executor, 80);
+        ReflectionTestUtils.setField(coordinator, "sendMode", SendMode.WINDOWED);
+        ReflectionTestUtils.setField(coordinator, "batchTimeoutMs", 10L);
+        ReflectionTestUtils.setField(coordinator, "reportProducer", producer);
+        coordinator.applyControls(new ControlSet(
+                Map.of(PAUSED, new Control(Scope.BROADCAST, String.valueOf(PAUSED), Action.PAUSE, 0L)), Map.of()));
+    }
+
+    private void admit(long broadcastId, long offset) {
+        coordinator.addEventToBatch(BenchmarkFixtures.event(broadcastId, PHONE_NUMBER_ID, (int) offset),
+                () -> committed.add(offset), 0, offset);
+    }
+
+    /**
+     * Until that many records were sent, written and acked into the offset tracker.
+     */
+    private void awaitProcessed(long processed) throws InterruptedException {
+        AtomicLong total = (AtomicLong) ReflectionTestUtils.getField(coordinator, "totalProcessed");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (total.get() < processed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(total.get()).isEqualTo(processed);
+    }
+}
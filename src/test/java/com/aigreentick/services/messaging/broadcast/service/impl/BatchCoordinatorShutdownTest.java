@@ -0,0 +1,98 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.SendMode;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.TenantState;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.InProcessWhatsappClientService;
+import com.aigreentick.services.messaging.broadcast.service.impl.BenchmarkFixtures.NoOpReportService;
+import com.aigreentick.services.messaging.config.ConfigConstants;
+
+class BatchCoordinatorShutdownTest {
+
+    private static final String PHONE_NUMBER_ID = "100000000000001";
+
+    private final ExecutorService executor = BenchmarkFixtures.whatsappExecutor(2, 2, 10);
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void windowedSendCompletingDuringShutdownIsWrittenAndAcked() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InProcessWhatsappClientService client = new InProcessWhatsappClientService() {
+            @Override
+            public FacebookApiResponse<RawSendMessageResponse> sendMessage(
+                    byte[] bodyJson, String phoneNumberId, String accessToken) {
+                sending.countDown();
+                await(release);
+                return super.sendMessage(bodyJson, phoneNumberId, accessToken);
+            }
+        };
+        NoOpReportService reportService = new NoOpReportService();
+        BatchCoordinator coordinator = BenchmarkFixtures.coordinator(client, reportService, executor, 80);
+        ReflectionTestUtils.setField(coordinator, "sendMode", SendMode.WINDOWED);
+        // Only the shutdown write may flush the result
+        ReflectionTestUtils.setField(coordinator, "batchTimeoutMs", 60_000L);
+
+        // Stalls the completing send right after its in-flight count drops, until shutdown has finished
+        CountDownLatch shutDown = new CountDownLatch(1);
+        TenantState tenant = new TenantState(PHONE_NUMBER_ID, ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS,
+                new BatchSizeController(80, 1, 80, Long.MAX_VALUE)) {
+            @Override
+            void decrementInFlight() {
+                super.decrementInFlight();
+                await(shutDown);
+            }
+        };
+        tenants(coordinator).put(PHONE_NUMBER_ID, tenant);
+
+        AtomicInteger acked = new AtomicInteger();
+        coordinator.addEventToBatch(BenchmarkFixtures.event(1L, PHONE_NUMBER_ID, 0), acked::incrementAndGet);
+        assertThat(sending.await(5, TimeUnit.SECONDS)).as("send started").isTrue();
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            coordinator.shutdown();
+            shutDown.countDown();
+        });
+        AtomicBoolean requested = (AtomicBoolean) ReflectionTestUtils.getField(coordinator, "shutdownRequested");
+        while (!requested.get()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        shutdown.get(10, TimeUnit.SECONDS);
+
+        assertThat(reportService.getRowsWritten()).as("rows written").isEqualTo(1);
+        assertThat(acked.get()).as("acks").isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, TenantState> tenants(BatchCoordinator coordinator) {
+        return (Map<String, TenantState>) ReflectionTestUtils.getField(coordinator, "tenants");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
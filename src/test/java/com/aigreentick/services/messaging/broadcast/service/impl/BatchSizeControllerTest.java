@@ -0,0 +1,88 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class BatchSizeControllerTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long PER_ITEM_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void convergesBelowTheTargetLatency() {
+        BatchSizeController controller = new BatchSizeController(10, 1, 1000, TARGET_NANOS);
+
+        int low = Integer.MAX_VALUE;
+        int high = 0;
+        for (int i = 0; i < 500; i++) {
+            int size = controller.size();
+            controller.record(size, size * PER_ITEM_NANOS);
+            if (i >= 400) {
+                low = Math.min(low, controller.size());
+                high = Math.max(high, controller.size());
+            }
+        }
+
+        // 1ms per item: grows to about 80 items (80% of target), never settles past 100
+        assertThat(low).isGreaterThanOrEqualTo(60);
+        assertThat(high).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void shrinksInProportionToTheOvershoot() {
+        BatchSizeController controller = new BatchSizeController(400, 1, 1000, TARGET_NANOS);
+
+        int next = controller.record(400, 4 * TARGET_NANOS);
+
+        assertThat(next).isEqualTo(100);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        BatchSizeController slow = new BatchSizeController(50, 5, 200, TARGET_NANOS);
+        BatchSizeController fast = new BatchSizeController(50, 5, 200, TARGET_NANOS);
+
+        for (int i = 0; i < 200; i++) {
+            slow.record(slow.size(), 100 * TARGET_NANOS);
+            fast.record(fast.size(), 1);
+        }
+
+        assertThat(slow.size()).isEqualTo(5);
+        assertThat(fast.size()).isEqualTo(200);
+    }
+
+    @Test
+    void shortBatchesNeverGrowTheSize() {
+        BatchSizeController controller = new BatchSizeController(50, 1, 1000, TARGET_NANOS);
+
+        for (int i = 0; i < 50; i++) {
+            controller.record(10, 1);
+        }
+
+        assertThat(controller.size()).isEqualTo(50);
+    }
+
+    @Test
+    void initialAndResetSizesAreClamped() {
+        BatchSizeController controller = new BatchSizeController(5000, 10, 500, TARGET_NANOS);
+        assertThat(controller.size()).isEqualTo(500);
+
+        controller.record(500, 2 * TARGET_NANOS);
+        controller.reset(1);
+
+        assertThat(controller.size()).isEqualTo(10);
+        assertThat(controller.smoothedLatencyMs()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new BatchSizeController(10, 0, 100, TARGET_NANOS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BatchSizeController(10, 50, 20, TARGET_NANOS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,171 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aigreentick.services.messaging.broadcast.client.circuit.SendCircuitBreakerRegistry;
+import com.aigreentick.services.messaging.broadcast.client.config.CircuitBreakerProperties;
+import com.aigreentick.services.messaging.broadcast.client.dto.FacebookApiResponse;
+import com.aigreentick.services.messaging.broadcast.client.service.WhatsappClientService;
+import com.aigreentick.services.messaging.broadcast.client.service.impl.WhatsappClient;
+import com.aigreentick.services.messaging.broadcast.dto.response.RawSendMessageResponse;
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.TenantPartitionBudget;
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.BatchItem;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.TenantCredentials;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.DatabaseUpdate;
+import com.aigreentick.services.messaging.config.BatchAutoTuneProperties;
+import com.aigreentick.services.messaging.config.ExecutorConfig;
+import com.aigreentick.services.messaging.config.ProgressProperties;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties;
+import com.aigreentick.services.messaging.config.SpillJournalProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Shared wiring for benchmarks that exercise {@link BatchCoordinator} without
+ * Kafka, MySQL or the network.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String SAMPLE_PAYLOAD = """
+            {"messaging_product":"whatsapp","recipient_type":"individual","to":"%s","type":"template",\
+            "template":{"name":"diwali_offer_2025","language":{"code":"en_US"},"components":[\
+            {"type":"header","parameters":[{"type":"image","image":{"link":"https://cdn.example.com/banner.jpg"}}]},\
+            {"type":"body","parameters":[{"type":"text","text":"Customer"},{"type":"text","text":"30%%"}]},\
+            {"type":"button","sub_type":"url","index":"0","parameters":[{"type":"text","text":"promo-2025"}]}]}}""";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Same naming strategy as the application's Jackson configuration.
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build();
+    }
+
+    /**
+     * Builds the production whatsappExecutor with explicit pool sizes.
+     */
+    public static ExecutorService whatsappExecutor(int corePoolSize, int maxPoolSize, int queueCapacity) {
+        ExecutorConfig config = new ExecutorConfig();
+        ReflectionTestUtils.setField(config, "executorCorePoolSize", corePoolSize);
+        ReflectionTestUtils.setField(config, "executorMaxPoolSize", maxPoolSize);
+        ReflectionTestUtils.setField(config, "executorQueueCapacity", queueCapacity);
+        return config.whatsappExecutor();
+    }
+
+    public static BatchCoordinator coordinator(
+            WhatsappClientService clientService,
+            ReportServiceImpl reportService,
+            ExecutorService executor,
+            int batchSize) {
+
+        ExecutorConfig executorConfig = new ExecutorConfig();
+        BatchCoordinator coordinator = new BatchCoordinator(
+                new WhatsappClient(clientService),
+                reportService,
+                objectMapper(),
+                executor,
+                new SendCircuitBreakerRegistry(new CircuitBreakerProperties(), new SimpleMeterRegistry()),
+                executorConfig.maintenanceExecutor(),
+                new TenantPartitionBudget(),
+                new BroadcastProgressTracker(null, new ProgressProperties()),
+                // Never initialized, so every write goes straight to reportService
+                new SpillJournal(reportService, new SpillJournalProperties(), new SimpleMeterRegistry()),
+                fixedBatchSize(batchSize),
+                // Only rebalances and shutdown with queued items requeue through it
+                null);
+        ReflectionTestUtils.setField(coordinator, "batchSize", batchSize);
+        return coordinator;
+    }
+
+    /**
+     * Auto-tune off, so benchmarks measure the batch size they ask for.
+     */
+    private static BatchSizeTuner fixedBatchSize(int batchSize) {
+        BatchAutoTuneProperties properties = new BatchAutoTuneProperties();
+        properties.setEnabled(false);
+        return new BatchSizeTuner(properties, batchSize, new SimpleMeterRegistry());
+    }
+
+    public static BroadcastReportEvent event(long broadcastId, String phoneNumberId, int index) {
+        String recipient = String.valueOf(919800000000L + index);
+        return BroadcastReportEvent.createForDispatch(
+                broadcastId,
+                phoneNumberId,
+                "EAAG" + "x".repeat(180),
+                recipient,
+                SAMPLE_PAYLOAD.formatted(recipient));
+    }
+
+    public static List<BatchItem> batch(String phoneNumberId, int size, Acknowledgment acknowledgment) {
+        List<BatchItem> batch = new ArrayList<>(size);
+        TenantCredentials tenant = new TenantCredentials(phoneNumberId, "EAAG" + "x".repeat(180));
+        for (int i = 0; i < size; i++) {
+            batch.add(BatchItem.of(event(1L, phoneNumberId, i), tenant, acknowledgment, BatchItem.UNKNOWN_PARTITION));
+        }
+        return batch;
+    }
+
+    /**
+     * In-process client that answers immediately with a canned Graph API success.
+     */
+    public static class InProcessWhatsappClientService implements WhatsappClientService {
+
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public FacebookApiResponse<RawSendMessageResponse> sendMessage(
+                byte[] bodyJson,
+                String phoneNumberId,
+                String accessToken) {
+            return FacebookApiResponse.success(successResponse(phoneNumberId, counter.incrementAndGet()), 200);
+        }
+    }
+
+    /**
+     * Graph API success body, run through the same streaming extraction as the real client.
+     */
+    public static RawSendMessageResponse successResponse(String waId, long sequence) {
+        String body = """
+                {"messaging_product":"whatsapp","contacts":[{"input":"%s","wa_id":"%s"}],\
+                "messages":[{"id":"wamid.HBgMOTE5ODAwMDAwMDAwFQIAERgSQjk2RkQ3MUY0NTBFRTQ5_%d","message_status":"accepted"}]}"""
+                .formatted(waId, waId, sequence);
+        return RawSendMessageResponse.parse(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Report writer that accepts every update without touching a database.
+     */
+    public static class NoOpReportService extends ReportServiceImpl {
+
+        private final AtomicLong rowsWritten = new AtomicLong();
+
+        public NoOpReportService() {
+            super(null, null, new ReportPersistenceProperties());
+        }
+
+        @Override
+        public int batchUpdateReports(List<DatabaseUpdate> updates) {
+            rowsWritten.addAndGet(updates.size());
+            return updates.size();
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten.get();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Action;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Control;
+import com.aigreentick.services.messaging.broadcast.service.impl.BroadcastControlService.Scope;
+import com.aigreentick.services.messaging.config.BroadcastControlProperties;
+
+class BroadcastControlServiceTest {
+
+    private static final String PHONE_NUMBER_ID = "100000000000001";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final BroadcastControlService service = new BroadcastControlService(
+            mock(BatchCoordinator.class), jdbcTemplate, new BroadcastControlProperties());
+
+    @Test
+    void tenantPauseDoesNotOverwriteACancel() {
+        existing(new Control(Scope.TENANT, PHONE_NUMBER_ID, Action.CANCEL, 1_000L));
+
+        assertThatThrownBy(() -> service.pauseTenant(PHONE_NUMBER_ID))
+                .isInstanceOf(IllegalStateException.class);
+        verify(jdbcTemplate, never()).update(anyString(), eq("TENANT"), eq(PHONE_NUMBER_ID), eq("PAUSE"), any());
+    }
+
+    @Test
+    void tenantCancelMovesAnEarlierCancelForward() {
+        existing(new Control(Scope.TENANT, PHONE_NUMBER_ID, Action.CANCEL, 1_000L));
+
+        Control control = service.cancelTenant(PHONE_NUMBER_ID);
+
+        assertThat(control.since()).isGreaterThan(1_000L);
+        verify(jdbcTemplate).update(anyString(), eq("TENANT"), eq(PHONE_NUMBER_ID), eq("CANCEL"), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void existing(Control control) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(control.scope().name()), eq(control.targetId())))
+                .thenReturn(List.of(control));
+    }
+}
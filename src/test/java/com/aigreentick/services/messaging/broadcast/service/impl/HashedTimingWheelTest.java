@@ -0,0 +1,102 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.HashedTimingWheel.Timeout;
+
+class HashedTimingWheelTest {
+
+    private static final int WHEEL_SIZE = 8;
+    private static final long TICK_MS = 10;
+
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(WHEEL_SIZE, TICK_MS, 0);
+
+    @Test
+    void expiresOnTheTickItsDeadlineRoundsUpTo() {
+        wheel.schedule("a", 25);
+
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        wheel.advance(50);
+
+        wheel.schedule("late", 10);
+
+        assertThat(wheel.advance(55)).isEmpty();
+        assertThat(wheel.advance(60)).containsExactly("late");
+    }
+
+    @Test
+    void deadlinesBeyondOneTurnWaitForTheirRound() {
+        // Both hash to bucket 2, one turn apart
+        wheel.schedule("near", 20);
+        wheel.schedule("far", 20 + wheel.spanMs());
+
+        assertThat(wheel.advance(20)).containsExactly("near");
+        assertThat(wheel.advance(20 + wheel.spanMs() - TICK_MS)).isEmpty();
+        assertThat(wheel.advance(20 + wheel.spanMs())).containsExactly("far");
+    }
+
+    @Test
+    void gapLongerThanATurnExpiresEverythingDueOnce() {
+        List<String> scheduled = new ArrayList<>();
+        for (int i = 1; i <= 3 * WHEEL_SIZE; i++) {
+            scheduled.add("t" + i);
+            wheel.schedule("t" + i, i * TICK_MS);
+        }
+        wheel.schedule("later", 10 * wheel.spanMs());
+
+        List<String> expired = wheel.advance(5 * wheel.spanMs());
+
+        assertThat(expired).containsExactlyInAnyOrderElementsOf(scheduled);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(10 * wheel.spanMs())).containsExactly("later");
+    }
+
+    @Test
+    void cancelUnlinksFromAnywhereInTheBucket() {
+        // All in bucket 1: one per turn, so each insert becomes the new head
+        List<Timeout<String>> timeouts = IntStream.range(0, 4)
+                .mapToObj(i -> wheel.schedule("t" + i, TICK_MS + i * wheel.spanMs()))
+                .toList();
+
+        assertThat(wheel.cancel(timeouts.get(0))).isTrue();
+        assertThat(wheel.cancel(timeouts.get(2))).isTrue();
+        assertThat(wheel.cancel(timeouts.get(3))).isTrue();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(wheel.advance(4 * wheel.spanMs())).containsExactly("t1");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelReportsTimeoutsAlreadyGone() {
+        Timeout<String> cancelled = wheel.schedule("cancelled", 30);
+        Timeout<String> expired = wheel.schedule("expired", 30);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.advance(30)).containsExactly("expired");
+        assertThat(wheel.cancel(expired)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void wheelSizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new HashedTimingWheel<>(12, TICK_MS, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HashedTimingWheel<>(WHEEL_SIZE, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import com.aigreentick.services.messaging.broadcast.kafka.consumer.MessageStatusConsumer;
+import com.aigreentick.services.messaging.broadcast.kafka.event.MessageStatusEvent;
+import com.aigreentick.services.messaging.config.StatusIngestionProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MessageStatusCoalescerTest {
+
+    private static final int MAX_ENTRIES = 10;
+
+    private final MessageStatusServiceImpl statusService = mock(MessageStatusServiceImpl.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final StatusIngestionProperties properties = new StatusIngestionProperties();
+    private final MessageStatusCoalescer coalescer;
+
+    MessageStatusCoalescerTest() {
+        properties.setCoalesceMaxEntries(MAX_ENTRIES);
+        properties.setCoalesceWindowMs(60000);
+
+        KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+        when(listenerRegistry.getListenerContainer(MessageStatusConsumer.LISTENER_ID)).thenReturn(container);
+        coalescer = new MessageStatusCoalescer(statusService, properties, listenerRegistry, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void keepsTheHighestStatusPerMessage() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+        coalescer.offer(List.of(event("wamid.1", "read", 3), event("wamid.1", "sent", 1),
+                event("wamid.2", "sent", 1), event("wamid.2", "delivered", 2)), ack);
+
+        coalescer.flushWindow();
+
+        assertThat(written()).extracting(MessageStatusEvent::getStatus).containsExactlyInAnyOrder("read", "delivered");
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void fullBufferPausesConsumptionWithoutFlushingOnTheConsumerThread() {
+        coalescer.offer(events(0, MAX_ENTRIES), mock(Acknowledgment.class));
+        coalescer.offer(events(MAX_ENTRIES, MAX_ENTRIES + 5), mock(Acknowledgment.class));
+
+        verify(statusService, never()).applyStatuses(anyList());
+        verify(container, times(1)).pause();
+
+        coalescer.flushWindow();
+
+        assertThat(written()).hasSize(MAX_ENTRIES + 5);
+        verify(container).resume();
+    }
+
+    @Test
+    void failingFlushBacksOffAndKeepsConsumptionPaused() {
+        when(statusService.applyStatuses(anyList())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        Acknowledgment ack = mock(Acknowledgment.class);
+        coalescer.offer(events(0, MAX_ENTRIES), ack);
+
+        coalescer.flushWindow();
+        coalescer.flushWindow();
+        coalescer.offer(events(0, MAX_ENTRIES), mock(Acknowledgment.class));
+
+        // The second window falls inside the backoff
+        verify(statusService, times(1)).applyStatuses(anyList());
+        verify(container, times(1)).pause();
+        verify(container, never()).resume();
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    void flushAfterAFailureWritesTheMergedBufferAndAcksInPollOrder() {
+        when(statusService.applyStatuses(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(2);
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+        List<Acknowledgment> acked = new ArrayList<>();
+        doAnswer(invocation -> acked.add(first)).when(first).acknowledge();
+        doAnswer(invocation -> acked.add(second)).when(second).acknowledge();
+
+        coalescer.offer(List.of(event("wamid.1", "delivered", 2)), first);
+        coalescer.flush();
+        coalescer.offer(List.of(event("wamid.1", "read", 3), event("wamid.2", "sent", 1)), second);
+        coalescer.flush();
+
+        assertThat(written()).extracting(MessageStatusEvent::getStatus).containsExactlyInAnyOrder("read", "sent");
+        assertThat(acked).containsExactly(first, second);
+    }
+
+    // ==================== FIXTURES ====================
+
+    /**
+     * Events of the last applyStatuses call.
+     */
+    @SuppressWarnings("unchecked")
+    private List<MessageStatusEvent> written() {
+        ArgumentCaptor<List<MessageStatusEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(statusService, atLeastOnce()).applyStatuses(captor.capture());
+        return captor.getValue();
+    }
+
+    private static List<MessageStatusEvent> events(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> event("wamid." + i, "sent", 1)).toList();
+    }
+
+    private static MessageStatusEvent event(String messageId, String status, long timestamp) {
+        return MessageStatusEvent.builder().messageId(messageId).status(status).statusTimestamp(timestamp).build();
+    }
+}
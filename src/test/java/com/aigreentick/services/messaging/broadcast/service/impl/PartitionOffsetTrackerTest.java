@@ -0,0 +1,63 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+class PartitionOffsetTrackerTest {
+
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    private final List<Long> committed = new ArrayList<>();
+
+    @Test
+    void forwardsOnlyTheLastOfTheContiguousDonePrefix() {
+        Acknowledgment first = track(0, 10);
+        Acknowledgment held = track(0, 11);
+        Acknowledgment third = track(0, 12);
+
+        third.acknowledge();
+        assertThat(committed).isEmpty();
+
+        first.acknowledge();
+        assertThat(committed).containsExactly(10L);
+        assertThat(tracker.pending(0)).isEqualTo(2);
+
+        held.acknowledge();
+        assertThat(committed).containsExactly(10L, 12L);
+        assertThat(tracker.pending(0)).isZero();
+    }
+
+    @Test
+    void aHeldRecordDoesNotHoldBackOtherPartitions() {
+        track(0, 5);
+        Acknowledgment other = track(1, 7);
+
+        other.acknowledge();
+
+        assertThat(committed).containsExactly(7L);
+        assertThat(tracker.pending(0)).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresRepeatedAndRevokedAcknowledgments() {
+        Acknowledgment first = track(0, 1);
+        first.acknowledge();
+        first.acknowledge();
+        assertThat(committed).containsExactly(1L);
+
+        Acknowledgment revoked = track(0, 2);
+        tracker.forget(List.of(0));
+        revoked.acknowledge();
+
+        assertThat(committed).containsExactly(1L);
+        assertThat(tracker.pending(0)).isZero();
+    }
+
+    private Acknowledgment track(int partition, long offset) {
+        return tracker.track(partition, offset, () -> committed.add(offset));
+    }
+}
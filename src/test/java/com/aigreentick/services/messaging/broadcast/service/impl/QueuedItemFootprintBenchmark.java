@@ -0,0 +1,115 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.aigreentick.services.messaging.broadcast.kafka.event.BroadcastReportEvent;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.BatchItem;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.TenantState;
+import com.aigreentick.services.messaging.config.ConfigConstants;
+
+/**
+ * Heap retained per queued message, measured with JOL: the former queue entry
+ * holding the whole consumed {@link BroadcastReportEvent} against the compact
+ * {@link BatchItem}. Events are deserialized from Kafka values, so each has
+ * its own copy of every string, as off the wire.
+ *
+ * Both footprints are printed once per trial; the benchmark times the
+ * conversion admission does.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="QueuedItemFootprintBenchmark -f 1"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// JOL reads record fields (BatchItem) only through its magic field offsets
+@Fork(value = 1, jvmArgsAppend = { "-Dlogback.configurationFile=logback-bench.xml", "-Djol.magicFieldOffset=true" })
+public class QueuedItemFootprintBenchmark {
+
+    private static final String TOPIC = "broadcast-messages";
+    private static final String PHONE_NUMBER_ID = "100000000000001";
+    private static final int MESSAGES = 10_000;
+
+    private static final Acknowledgment NO_OP_ACK = () -> {
+    };
+
+    // Latin-1 template text is one byte per char in a String too; Devanagari makes it UTF-16
+    @Param({ "latin1", "devanagari" })
+    String text;
+
+    private BroadcastReportEvent[] events;
+    private TenantState tenant;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        events = new BroadcastReportEvent[MESSAGES];
+        try (JsonSerializer<BroadcastReportEvent> serializer = new JsonSerializer<>();
+                JsonDeserializer<BroadcastReportEvent> deserializer = new JsonDeserializer<>(BroadcastReportEvent.class)) {
+            for (int i = 0; i < MESSAGES; i++) {
+                BroadcastReportEvent event = BenchmarkFixtures.event(1L, PHONE_NUMBER_ID, i);
+                if ("devanagari".equals(text)) {
+                    event.setPayload(event.getPayload().replace("Customer", "प्रिय ग्राहक"));
+                }
+                events[i] = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event));
+            }
+        }
+        tenant = new TenantState(PHONE_NUMBER_ID, ConfigConstants.MAX_CONCURRENT_WHATSAPP_REQUESTS, null);
+
+        Object[] before = new Object[MESSAGES];
+        Object[] after = new Object[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            before[i] = new EventItem(events[i], NO_OP_ACK, 0);
+            after[i] = toQueued(events[i]);
+        }
+        System.out.printf("%nBytes per queued message (%s payload): event=%d compact=%d%n",
+                text, bytesPerItem(before), bytesPerItem(after));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void toCompactItem(Blackhole blackhole) {
+        for (BroadcastReportEvent event : events) {
+            blackhole.consume(toQueued(event));
+        }
+    }
+
+    private BatchItem toQueued(BroadcastReportEvent event) {
+        return BatchItem.of(event, tenant.credentials(event.getAccessToken()), NO_OP_ACK, 0);
+    }
+
+    /**
+     * Everything reachable from the items, shared objects counted once, less
+     * the array holding them.
+     */
+    private static long bytesPerItem(Object[] items) {
+        long total = GraphLayout.parseInstance((Object) items).totalSize();
+        return (total - ClassLayout.parseInstance(items).instanceSize()) / items.length;
+    }
+
+    /**
+     * Queue entry as it was before the compact form.
+     */
+    private record EventItem(BroadcastReportEvent event, Acknowledgment acknowledgment, int partition) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.DatabaseUpdate;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties;
+import com.aigreentick.services.messaging.config.SpillJournalProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SpillJournalTest {
+
+    // Room for a handful of test records, so appends rotate segments often
+    private static final int SEGMENT_BYTES = 512;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsRoundTripWithNullFields() throws IOException {
+        DatabaseUpdate update = new DatabaseUpdate(null, "919800000001", null, "sent", null, null, null, null);
+
+        DatabaseUpdate decoded = SpillJournal.decode(SpillJournal.encode(update));
+
+        assertThat(decoded.broadcastId()).isNull();
+        assertThat(decoded.timestamp()).isNull();
+        assertThat(decoded.mobile()).isEqualTo("919800000001");
+        assertThat(decoded.status()).isEqualTo("sent");
+        assertThat(decoded.response()).isNull();
+        assertThat(decoded.payload()).isNull();
+    }
+
+    @Test
+    void replaysAcrossSegmentRotationsInOrder() throws IOException {
+        RecordingReportService reports = new RecordingReportService();
+        SpillJournal journal = journal(reports, 3);
+
+        // The replayer is left positioned in the active segment, which the next appends rotate away from
+        journal.append(updates(0, 2));
+        journal.replay();
+        journal.append(updates(2, 40));
+        journal.replay();
+
+        assertThat(reports.mobiles()).containsExactlyElementsOf(mobiles(0, 40));
+        assertThat(journal.pending()).isZero();
+        assertThat(segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replaysWhileAppendsRotateConcurrently() throws Exception {
+        RecordingReportService reports = new RecordingReportService();
+        SpillJournal journal = journal(reports, 7);
+
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i += 5) {
+                    journal.append(updates(i, i + 5));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            journal.replay();
+        }
+        writer.join();
+        journal.replay();
+
+        assertThat(reports.mobiles()).containsExactlyElementsOf(mobiles(0, 2000));
+        assertThat(journal.pending()).isZero();
+    }
+
+    @Test
+    void restartReplaysOnlyPastTheCheckpoint() throws IOException {
+        RecordingReportService before = new RecordingReportService();
+        SpillJournal journal = journal(before, 500);
+        journal.append(updates(0, 5));
+        journal.replay();
+        journal.append(updates(5, 12));
+        journal.close();
+
+        RecordingReportService after = new RecordingReportService();
+        SpillJournal restarted = journal(after, 500);
+        assertThat(restarted.pending()).isEqualTo(7);
+        restarted.replay();
+
+        assertThat(before.mobiles()).containsExactlyElementsOf(mobiles(0, 5));
+        assertThat(after.mobiles()).containsExactlyElementsOf(mobiles(5, 12));
+    }
+
+    @Test
+    void crcMismatchEndsTheSegment() throws IOException {
+        SpillJournal journal = journal(new RecordingReportService(), 500);
+        journal.append(updates(0, 3));
+        journal.close();
+
+        // Flip a byte in the body of the second record
+        int first = recordBytes(0);
+        corrupt(first + 8 + 2, (byte) 0x5A);
+
+        RecordingReportService reports = new RecordingReportService();
+        SpillJournal restarted = journal(reports, 500);
+        assertThat(restarted.pending()).isEqualTo(1);
+        restarted.replay();
+
+        assertThat(reports.mobiles()).containsExactlyElementsOf(mobiles(0, 1));
+    }
+
+    @Test
+    void tornTailIsNotReplayed() throws IOException {
+        SpillJournal journal = journal(new RecordingReportService(), 500);
+        journal.append(updates(0, 3));
+        journal.close();
+
+        // Length and CRC of the last record reached disk, the end of its body did not
+        int end = recordBytes(0) + recordBytes(1) + recordBytes(2);
+        for (int i = 1; i <= 6; i++) {
+            corrupt(end - i, (byte) 0);
+        }
+
+        RecordingReportService reports = new RecordingReportService();
+        SpillJournal restarted = journal(reports, 500);
+        restarted.replay();
+
+        assertThat(reports.mobiles()).containsExactlyElementsOf(mobiles(0, 2));
+        assertThat(restarted.pending()).isZero();
+    }
+
+    @Test
+    void recordRejectedOnItsOwnIsQuarantined() throws IOException {
+        RecordingReportService reports = new RecordingReportService();
+        reports.reject = mobile(2);
+        SpillJournal journal = journal(reports, 500);
+        journal.append(updates(0, 5));
+
+        journal.replay();
+        journal.replay();
+        assertThat(journal.pending()).isEqualTo(5);
+        assertThat(reports.mobiles()).isEmpty();
+
+        journal.replay();
+
+        assertThat(journal.pending()).isZero();
+        assertThat(reports.mobiles()).containsExactly(mobile(0), mobile(1), mobile(3), mobile(4));
+        assertThat(meterRegistry.counter("spill.journal.quarantined").count()).isEqualTo(1);
+        assertThat(Files.size(directory.resolve("quarantine.log"))).isEqualTo(recordBytes(2));
+    }
+
+    @Test
+    void outageNeverQuarantines() throws IOException {
+        RecordingReportService reports = new RecordingReportService();
+        reports.unavailable = true;
+        SpillJournal journal = journal(reports, 500);
+        journal.append(updates(0, 5));
+
+        for (int i = 0; i < 10; i++) {
+            journal.replay();
+        }
+        assertThat(journal.pending()).isEqualTo(5);
+        assertThat(directory.resolve("quarantine.log")).doesNotExist();
+
+        reports.unavailable = false;
+        journal.replay();
+
+        assertThat(reports.mobiles()).containsExactlyElementsOf(mobiles(0, 5));
+    }
+
+    // ==================== FIXTURES ====================
+
+    private SpillJournal journal(ReportServiceImpl reports, int replayBatchSize) {
+        SpillJournalProperties properties = new SpillJournalProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSegmentBytes(SEGMENT_BYTES);
+        properties.setFsync(false);
+        properties.setReplayBatchSize(replayBatchSize);
+        properties.setMaxReplayAttempts(3);
+
+        SpillJournal journal = new SpillJournal(reports, properties, meterRegistry);
+        journal.init();
+        return journal;
+    }
+
+    private static List<DatabaseUpdate> updates(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new DatabaseUpdate(7L, mobile(i), null, "sent", "sent", "wamid." + i, null,
+                        LocalDateTime.of(2026, 1, 1, 0, 0)))
+                .toList();
+    }
+
+    private static List<String> mobiles(int from, int to) {
+        return IntStream.range(from, to).mapToObj(SpillJournalTest::mobile).toList();
+    }
+
+    private static String mobile(int i) {
+        return String.format("9198%08d", i);
+    }
+
+    /**
+     * Framed size of update i in the journal.
+     */
+    private static int recordBytes(int i) throws IOException {
+        return 8 + SpillJournal.encode(updates(i, i + 1).get(0)).length;
+    }
+
+    private void corrupt(int position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { value }), position);
+        }
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("spill-")).sorted().findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("spill-")).count();
+        }
+    }
+
+    /**
+     * Report writer that records the mobiles written, in write order.
+     */
+    private static class RecordingReportService extends ReportServiceImpl {
+
+        private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+        // Any batch holding this mobile fails as the DB would reject a bad row
+        volatile String reject;
+
+        volatile boolean unavailable;
+
+        RecordingReportService() {
+            super(null, null, new ReportPersistenceProperties());
+        }
+
+        @Override
+        public int batchUpdateReports(List<DatabaseUpdate> updates) {
+            if (unavailable) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            if (updates.stream().anyMatch(update -> update.mobile().equals(reject))) {
+                throw new IllegalArgumentException("Data too long for column 'mobile'");
+            }
+            updates.forEach(update -> written.add(update.mobile()));
+            return updates.size();
+        }
+
+        List<String> mobiles() {
+            return List.copyOf(written);
+        }
+    }
+}
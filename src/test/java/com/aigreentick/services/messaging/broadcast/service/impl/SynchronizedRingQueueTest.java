@@ -0,0 +1,156 @@
+package com.aigreentick.services.messaging.broadcast.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SynchronizedRingQueueTest {
+
+    @Test
+    void growsWhileWrappedAroundAndKeepsOrder() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(4);
+        offer(queue, 0, 3);
+        assertThat(queue.poll()).isZero();
+        assertThat(queue.poll()).isEqualTo(1);
+
+        // Head is at index 2: these wrap past the end, then force two doublings
+        offer(queue, 3, 12);
+
+        assertThat(queue.size()).isEqualTo(10);
+        assertThat(drainAll(queue)).containsExactlyElementsOf(range(2, 12));
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void drainToMovesAtMostMaxOldestFirst() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(8);
+        offer(queue, 0, 6);
+        queue.poll();
+        offer(queue, 6, 10);
+
+        List<Integer> batch = new ArrayList<>();
+        assertThat(queue.drainTo(batch, 4)).isEqualTo(4);
+        assertThat(batch).containsExactlyElementsOf(range(1, 5));
+
+        batch.clear();
+        assertThat(queue.drainTo(batch, 100)).isEqualTo(5);
+        assertThat(batch).containsExactlyElementsOf(range(5, 10));
+
+        assertThat(queue.drainTo(batch, 100)).isZero();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void removeIfKeepsTheOrderOfBothSides() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(8);
+        offer(queue, 0, 5);
+        drainTo(queue, 3);
+        // Wrapped: 3..10 with the head at index 3
+        offer(queue, 5, 11);
+
+        List<Integer> removed = new ArrayList<>();
+        assertThat(queue.removeIf(item -> item % 2 == 0, removed)).isEqualTo(4);
+
+        assertThat(removed).containsExactly(4, 6, 8, 10);
+        assertThat(queue.size()).isEqualTo(4);
+
+        // The kept items are compacted at the head and new offers go after them
+        queue.offer(11);
+        assertThat(drainAll(queue)).containsExactly(3, 5, 7, 9, 11);
+    }
+
+    @Test
+    void removeIfCanEmptyTheQueue() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(4);
+        offer(queue, 0, 3);
+
+        List<Integer> removed = new ArrayList<>();
+        queue.removeIf(item -> true, removed);
+
+        assertThat(removed).containsExactly(0, 1, 2);
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void offerFirstGoesAheadOfEverythingQueued() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(4);
+        offer(queue, 1, 5);
+
+        // Head at index 0 wraps back to the end of a full buffer, which grows first
+        queue.offerFirst(0);
+
+        assertThat(drainAll(queue)).containsExactlyElementsOf(range(0, 5));
+    }
+
+    @Test
+    void emptiedQueueIsReusableAfterABurst() {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(4);
+        offer(queue, 0, 5000);
+        assertThat(drainAll(queue)).containsExactlyElementsOf(range(0, 5000));
+
+        offer(queue, 0, 6);
+        assertThat(drainAll(queue)).containsExactlyElementsOf(range(0, 6));
+    }
+
+    @Test
+    void concurrentProducersKeepTheirOwnOrder() throws InterruptedException {
+        SynchronizedRingQueue<Integer> queue = new SynchronizedRingQueue<>(4);
+        int producers = 4;
+        int perProducer = 10_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> offer(queue, base, base + perProducer)));
+        }
+        List<Integer> drained = new ArrayList<>();
+        while (threads.stream().anyMatch(Thread::isAlive) || !queue.isEmpty()) {
+            queue.drainTo(drained, 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        queue.drainTo(drained, Integer.MAX_VALUE);
+
+        assertThat(drained).hasSize(producers * perProducer);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            assertThat(drained.stream().filter(item -> item / perProducer == base / perProducer).toList())
+                    .containsExactlyElementsOf(range(base, base + perProducer));
+        }
+    }
+
+    @Test
+    void initialCapacityMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new SynchronizedRingQueue<>(6)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SynchronizedRingQueue<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ==================== FIXTURES ====================
+
+    private static void offer(SynchronizedRingQueue<Integer> queue, int from, int to) {
+        for (int i = from; i < to; i++) {
+            queue.offer(i);
+        }
+    }
+
+    private static void drainTo(SynchronizedRingQueue<Integer> queue, int max) {
+        queue.drainTo(new ArrayList<>(), max);
+    }
+
+    private static List<Integer> drainAll(SynchronizedRingQueue<Integer> queue) {
+        List<Integer> items = new ArrayList<>();
+        queue.drainTo(items, Integer.MAX_VALUE);
+        return items;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+}
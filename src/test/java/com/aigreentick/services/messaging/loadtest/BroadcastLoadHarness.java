@@ -0,0 +1,710 @@
+package com.aigreentick.services.messaging.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappClientProperties;
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties.Distribution;
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties.Latency;
+import com.aigreentick.services.messaging.broadcast.dto.BroadcastDispatchItemDto;
+import com.aigreentick.services.messaging.broadcast.dto.BroadcastDispatchRequestDto;
+import com.aigreentick.services.messaging.broadcast.dto.WhatsappAccountInfo;
+import com.aigreentick.services.messaging.broadcast.repository.ReportRepository;
+import com.aigreentick.services.messaging.broadcast.service.impl.SpillJournal;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties;
+import com.aigreentick.services.messaging.loadtest.LoadRecorder.RecordingReportService;
+import com.aigreentick.services.messaging.loadtest.LoadReport.GcSnapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+
+/**
+ * Self-contained load harness: embedded Kafka, an in-memory reports table and
+ * either the stress-test WhatsApp mock or the real HTTP client pointed at a
+ * local {@link GraphApiStubServer}, driven through /api/v1/broadcast/dispatch.
+ *
+ * Not part of the regular test run. Start it explicitly:
+ * ./mvnw test -Dtest=BroadcastLoadHarness -Dloadtest.messages=20000 -Dloadtest.rate=2000
+ *
+ * Settings (system properties):
+ * - loadtest.messages           total messages to dispatch (default 10000)
+ * - loadtest.rate               target messages per second (default 1000)
+ * - loadtest.request-size       items per dispatch request (default 100)
+ * - loadtest.tenants            distinct phoneNumberIds (default 10)
+ * - loadtest.hot-tenant-share   fraction of requests sent to the first tenant (default 0)
+ * - loadtest.drain-timeout-seconds  how long to wait for the last commit (default 180)
+ * - loadtest.min-throughput     fail the run below this msg/s (default off)
+ * - loadtest.max-p99-ms         fail the run above this p99 (default off)
+ * - loadtest.client             mock (default) or graph-stub for the real WebClient path
+ * - loadtest.stub.median-ms     graph-stub lognormal median latency (default 120)
+ * - loadtest.stub.failure-rate  graph-stub error fraction (default 0.02)
+ * - loadtest.stub.tenant-max-mps  graph-stub 429 threshold per phoneNumberId (default off)
+ * - loadtest.webhook-statuses   afterwards post sent/delivered/read webhooks for every sent message (default false)
+ * - loadtest.webhook.late-share fraction of messages whose send result lands after their statuses (default 0.1)
+ * - loadtest.webhook.batch      statuses per webhook request (default 10)
+ * - loadtest.schedule-delay-ms  send every request with the same sendAt this far ahead, like a cron
+ *                              burst on the hour, through the scheduled dispatch path (default 0 = immediate)
+ * - loadtest.drip-window-ms    dispatch every broadcast with this drip window and check that sends are
+ *                              spread over it rather than done at once (default 0 = off)
+ * - loadtest.controls          pause the second tenant and the third broadcast during dispatch, then
+ *                              resume the tenant and cancel the broadcast (default false, needs 3+ tenants);
+ *                              the third broadcast goes out on the first tenant's number, so its held
+ *                              records share partitions with the busiest active broadcast
+ * - loadtest.db-outage-ms      fail every reports write for this long from the start of dispatch, so
+ *                              results go through the spill journal and are replayed (default 0 = off)
+ * - loadtest.tuning            halfway through dispatch, halve batch size and tenant concurrency and
+ *                              change pool sizes and consumer concurrency through /actuator/tuning (default false)
+ *
+ * Application properties pass through as well; with -Dreport-persistence.mode=LEAN the run also
+ * checks that payloads are untouched and only sampled successful responses are stored.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(resolver = BroadcastLoadHarness.ClientProfileResolver.class)
+@EmbeddedKafka(partitions = 50)
+class BroadcastLoadHarness {
+
+    private static final int MESSAGES = Integer.getInteger("loadtest.messages", 10_000);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 1_000);
+    private static final int REQUEST_SIZE = Integer.getInteger("loadtest.request-size", 100);
+    private static final int TENANTS = Integer.getInteger("loadtest.tenants", 10);
+    private static final double HOT_TENANT_SHARE = Double.parseDouble(
+            System.getProperty("loadtest.hot-tenant-share", "0"));
+    private static final int DRAIN_TIMEOUT_SECONDS = Integer.getInteger("loadtest.drain-timeout-seconds", 180);
+    private static final double MIN_THROUGHPUT = Double.parseDouble(
+            System.getProperty("loadtest.min-throughput", "0"));
+    private static final double MAX_P99_MS = Double.parseDouble(
+            System.getProperty("loadtest.max-p99-ms", "0"));
+
+    private static final boolean WEBHOOK_STATUSES = Boolean.getBoolean("loadtest.webhook-statuses");
+    private static final double WEBHOOK_LATE_SHARE = Double.parseDouble(
+            System.getProperty("loadtest.webhook.late-share", "0.1"));
+    private static final int WEBHOOK_BATCH = Integer.getInteger("loadtest.webhook.batch", 10);
+    private static final boolean CONTROLS = Boolean.getBoolean("loadtest.controls");
+    private static final long SCHEDULE_DELAY_MS = Long.getLong("loadtest.schedule-delay-ms", 0L);
+    private static final long DRIP_WINDOW_MS = Long.getLong("loadtest.drip-window-ms", 0L);
+    private static final long DB_OUTAGE_MS = Long.getLong("loadtest.db-outage-ms", 0L);
+    private static final boolean TUNING = Boolean.getBoolean("loadtest.tuning");
+    private static final String[] WEBHOOK_STATUS_ORDER = { "sent", "delivered", "read" };
+    private static final boolean GRAPH_STUB = "graph-stub".equals(System.getProperty("loadtest.client", "mock"));
+
+    private static final long BROADCAST_ID_BASE = 10_000L;
+    private static final long PHONE_NUMBER_ID_BASE = 100_000_000_000_000L;
+
+    private static GraphApiStubServer graphStub;
+
+    /**
+     * The mock replaces the real client under stress-test; graph-stub keeps the real one.
+     */
+    static class ClientProfileResolver implements ActiveProfilesResolver {
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            return GRAPH_STUB
+                    ? new String[] { "loadtest" }
+                    : new String[] { "stress-test", "loadtest" };
+        }
+    }
+
+    @DynamicPropertySource
+    static void graphStubProperties(DynamicPropertyRegistry registry) {
+        if (!GRAPH_STUB) {
+            return;
+        }
+        Latency latency = new Latency();
+        latency.setDistribution(Distribution.LOGNORMAL);
+        latency.setMedianMs(Long.getLong("loadtest.stub.median-ms", 120L));
+
+        graphStub = new GraphApiStubServer(
+                latency,
+                Double.parseDouble(System.getProperty("loadtest.stub.failure-rate", "0.02")),
+                Integer.getInteger("loadtest.stub.tenant-max-mps", 0)).start(0);
+        registry.add("whatsapp-service.base-url", graphStub::getBaseUrl);
+    }
+
+    /**
+     * A fresh journal per run; one left over would replay into the new tables.
+     */
+    @DynamicPropertySource
+    static void spillJournalProperties(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createDirectories(Path.of("target"));
+        registry.add("spill-journal.directory",
+                Files.createTempDirectory(directory, "spill-journal-")::toString);
+    }
+
+    @AfterAll
+    static void stopGraphStub() {
+        if (graphStub != null) {
+            log.info("Graph API stub: requests={} rateLimited={} failures={}",
+                    graphStub.getRequests(), graphStub.getRateLimited(), graphStub.getFailures());
+            graphStub.close();
+        }
+    }
+
+    @TestConfiguration
+    static class HarnessConfig {
+
+        @Bean
+        LoadRecorder loadRecorder() {
+            return new LoadRecorder(MESSAGES);
+        }
+
+        @Bean
+        @Primary
+        RecordingReportService recordingReportService(
+                ReportRepository reportRepository,
+                JdbcTemplate jdbcTemplate,
+                ReportPersistenceProperties persistenceProperties,
+                LoadRecorder loadRecorder) {
+            return new RecordingReportService(reportRepository, jdbcTemplate, persistenceProperties, loadRecorder);
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LoadRecorder recorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecordingReportService reportService;
+
+    @Autowired
+    private SpillJournal spillJournal;
+
+    @Autowired
+    private ReportPersistenceProperties persistenceProperties;
+
+    @Autowired
+    private WhatsappClientProperties whatsappProperties;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void dispatchUnderLoad() throws IOException {
+        List<BroadcastDispatchRequestDto> requests = planRequests();
+        seedReports(requests);
+
+        log.info("Load harness: {} messages in {} requests, {} msg/s, {} tenants (hot share {}), client={}",
+                MESSAGES, requests.size(), RATE, TENANTS, HOT_TENANT_SHARE, GRAPH_STUB ? "graph-stub" : "mock");
+
+        long pausedTenant = BROADCAST_ID_BASE + 1;
+        long cancelledBroadcast = BROADCAST_ID_BASE + 2;
+        int pausedCount = CONTROLS ? countItems(requests, pausedTenant) : 0;
+        int cancelledCount = CONTROLS ? countItems(requests, cancelledBroadcast) : 0;
+        if (CONTROLS) {
+            post("/api/v1/broadcast/tenants/" + (PHONE_NUMBER_ID_BASE + 1) + "/pause");
+            post("/api/v1/broadcast/" + cancelledBroadcast + "/pause");
+        }
+
+        ProgressWatch watch = watchProgress(requests.get(0).getItems().get(0).getBroadcastId());
+
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        GcSnapshot gcBefore = GcSnapshot.take();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(REQUEST_SIZE) / RATE;
+        if (DB_OUTAGE_MS > 0) {
+            reportService.failFor(DB_OUTAGE_MS);
+        }
+        long start = System.nanoTime();
+        Instant sendAt = SCHEDULE_DELAY_MS > 0 ? Instant.now().plusMillis(SCHEDULE_DELAY_MS) : null;
+        long sendAtNanos = start + TimeUnit.MILLISECONDS.toNanos(SCHEDULE_DELAY_MS);
+
+        for (int i = 0; i < requests.size(); i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (TUNING && i == requests.size() / 2) {
+                retune();
+            }
+
+            BroadcastDispatchRequestDto request = requests.get(i);
+            request.setSendAt(sendAt);
+            if (DRIP_WINDOW_MS > 0) {
+                request.setDripWindow(Duration.ofMillis(DRIP_WINDOW_MS));
+                request.setExpectedTotal((long) countItems(requests, request.getItems().get(0).getBroadcastId()));
+            }
+            for (BroadcastDispatchItemDto item : request.getItems()) {
+                recorder.dispatched(item.getBroadcastId(), item.getMobileNo(),
+                        sendAt != null ? sendAtNanos : intendedStart);
+            }
+
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    "/api/v1/broadcast/dispatch", request, String.class);
+            assertThat(response.getStatusCode().is2xxSuccessful())
+                    .as("dispatch response: %s", response.getBody())
+                    .isTrue();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        if (DRIP_WINDOW_MS > 0) {
+            assertDripSpread(start);
+        }
+        if (CONTROLS) {
+            awaitCompleted(MESSAGES - pausedCount - cancelledCount, deadline);
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            assertThat(recorder.completed()).as("sent while paused")
+                    .isEqualTo(MESSAGES - pausedCount - cancelledCount);
+
+            post("/api/v1/broadcast/" + cancelledBroadcast + "/cancel");
+            post("/api/v1/broadcast/tenants/" + (PHONE_NUMBER_ID_BASE + 1) + "/resume");
+        }
+        int expected = MESSAGES - cancelledCount;
+        awaitCompleted(expected, deadline);
+
+        LoadReport report = LoadReport.from(expected, recorder, System.nanoTime() - start, gcBefore);
+        log.info("\n{}", report);
+        Path output = Path.of("target", "loadtest-report.txt");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, report.toString());
+
+        assertThat(report.messagesCompleted()).as("messages committed").isEqualTo(expected);
+        logBatchSizes();
+        if (DB_OUTAGE_MS > 0) {
+            log.info("Spill journal: {}ms outage, {} results left to replay", DB_OUTAGE_MS, spillJournal.pending());
+            assertThat(spillJournal.pending()).as("spill journal pending").isZero();
+        }
+        if (CONTROLS) {
+            Integer marked = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM reports WHERE broadcast_id = ? AND status = 'cancelled'",
+                    Integer.class, cancelledBroadcast);
+            log.info("Controls: {} held while paused, {} marked cancelled", pausedCount, marked);
+            assertThat(marked).as("reports marked cancelled").isEqualTo(cancelledCount);
+        }
+        assertProgressCounters(requests);
+        assertProgressStream(watch);
+        if (TUNING) {
+            assertRetuned();
+        }
+        if (persistenceProperties.getMode() == ReportPersistenceProperties.Mode.LEAN) {
+            assertLeanRows();
+        }
+        if (MIN_THROUGHPUT > 0) {
+            assertThat(report.messagesPerSecond()).as("throughput msg/s").isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+        }
+        if (MAX_P99_MS > 0) {
+            assertThat(report.p99Millis()).as("p99 ms").isLessThanOrEqualTo(MAX_P99_MS);
+        }
+
+        if (WEBHOOK_STATUSES) {
+            replayStatusWebhooks();
+        }
+    }
+
+    /**
+     * The per-broadcast progress API must account for every dispatched message.
+     */
+    private void assertProgressCounters(List<BroadcastDispatchRequestDto> requests) {
+        List<Long> broadcastIds = requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .map(BroadcastDispatchItemDto::getBroadcastId)
+                .distinct()
+                .toList();
+
+        long queued = 0;
+        long finished = 0;
+        for (Long broadcastId : broadcastIds) {
+            JsonNode progress = restTemplate.getForObject(
+                    "/api/v1/broadcast/" + broadcastId + "/progress", JsonNode.class);
+            queued += progress.path("queued").asLong();
+            finished += progress.path("sent").asLong() + progress.path("failed").asLong()
+                    + progress.path("cancelled").asLong();
+        }
+        log.info("Progress API: {} broadcasts, queued={} sent+failed+cancelled={}",
+                broadcastIds.size(), queued, finished);
+
+        assertThat(queued).as("progress queued").isEqualTo(MESSAGES);
+        assertThat(finished).as("progress sent+failed+cancelled").isEqualTo(MESSAGES);
+    }
+
+    /**
+     * Batch sizes the auto-tuner settled on, from the batch.size meters.
+     */
+    private void logBatchSizes() {
+        for (String stage : new String[] { "db", "tenant" }) {
+            DistributionSummary sizes = meterRegistry.find("batch.size").tag("stage", stage).summary();
+            if (sizes == null || sizes.count() == 0) {
+                continue;
+            }
+            log.info("Batch size ({}): {} batches, mean {}, max {}, current {}",
+                    stage, sizes.count(), Math.round(sizes.mean()), Math.round(sizes.max()),
+                    Math.round(meterRegistry.get("batch.size.current").tag("stage", stage).gauge().value()));
+        }
+    }
+
+    /**
+     * LEAN must keep the seeded payload and store only a sampled share of
+     * successful responses.
+     */
+    private void assertLeanRows() {
+        Integer sent = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE status = 'sent'", Integer.class);
+        Integer withResponse = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE status = 'sent' AND response IS NOT NULL", Integer.class);
+        Integer withoutPayload = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reports WHERE payload IS NULL", Integer.class);
+        log.info("Lean persistence: {} sent, {} with a stored response", sent, withResponse);
+
+        assertThat(withResponse).as("sent rows with a response")
+                .isLessThanOrEqualTo((int) (sent * persistenceProperties.getResponseSampleRate() * 3) + 10);
+        assertThat(withoutPayload).as("rows without payload").isZero();
+    }
+
+    /**
+     * Sends must be spread over the drip window rather than done at once:
+     * halfway through, well short of all are sent, and the last goes out near
+     * the end. The lower bound is loose, as the scheduler tick and a cold
+     * start delay the first sends.
+     */
+    private void assertDripSpread(long start) {
+        LockSupport.parkNanos(start + TimeUnit.MILLISECONDS.toNanos(DRIP_WINDOW_MS / 2) - System.nanoTime());
+        int atHalf = recorder.completed();
+
+        awaitCompleted(MESSAGES, start + TimeUnit.MILLISECONDS.toNanos(DRIP_WINDOW_MS * 2));
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Drip: {} of {} sent at half of the {}ms window, all sent after {}ms",
+                atHalf, MESSAGES, DRIP_WINDOW_MS, tookMs);
+
+        assertThat(atHalf).as("sent at half window").isBetween(MESSAGES * 15 / 100, MESSAGES * 7 / 10);
+        assertThat(tookMs).as("drip duration ms").isGreaterThanOrEqualTo(DRIP_WINDOW_MS * 9 / 10);
+    }
+
+    private void awaitCompleted(int messages, long deadline) {
+        while (recorder.completed() < messages && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    /**
+     * Change every knob mid-run; an out-of-range value must be rejected first
+     * without changing anything.
+     */
+    private void retune() {
+        ResponseEntity<String> rejected = restTemplate.postForEntity("/actuator/tuning",
+                jsonEntity(Map.of("batchSize", 40, "tenantConcurrency", 0)), String.class);
+        assertThat(rejected.getStatusCode().value()).as("out-of-range tuning").isEqualTo(400);
+
+        ResponseEntity<JsonNode> response = restTemplate.postForEntity("/actuator/tuning",
+                jsonEntity(Map.of(
+                        "batchSize", 40,
+                        "tenantConcurrency", 40,
+                        "executorCorePoolSize", 300,
+                        "executorMaxPoolSize", 1000,
+                        "consumerConcurrency", 25,
+                        "reason", "load harness")),
+                JsonNode.class);
+        assertThat(response.getStatusCode().is2xxSuccessful()).as("tuning: %s", response.getBody()).isTrue();
+        log.info("Tuning applied: {}", response.getBody());
+    }
+
+    private void assertRetuned() {
+        JsonNode tuning = restTemplate.getForObject("/actuator/tuning", JsonNode.class);
+        Integer audited = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM runtime_tuning_audit WHERE reason = 'load harness'", Integer.class);
+        log.info("Tuning after run: {}, {} changes audited", tuning, audited);
+
+        assertThat(tuning.path("batch_size").asInt()).as("batch size").isEqualTo(40);
+        assertThat(tuning.path("tenant_concurrency").asInt()).as("tenant concurrency").isEqualTo(40);
+        assertThat(tuning.path("consumer_concurrency").asInt()).as("consumer concurrency").isEqualTo(25);
+        assertThat(audited).as("audited changes").isEqualTo(5);
+    }
+
+    private static HttpEntity<Map<String, Object>> jsonEntity(Map<String, Object> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private void post(String path) {
+        ResponseEntity<String> response = restTemplate.postForEntity(path, null, String.class);
+        assertThat(response.getStatusCode().is2xxSuccessful()).as("POST %s", path).isTrue();
+    }
+
+    private static int countItems(List<BroadcastDispatchRequestDto> requests, long broadcastId) {
+        return (int) requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .filter(item -> item.getBroadcastId() == broadcastId)
+                .count();
+    }
+
+    /**
+     * Follows one broadcast's progress event stream over HTTP for the whole run.
+     */
+    private ProgressWatch watchProgress(Long broadcastId) {
+        ProgressWatch watch = new ProgressWatch(broadcastId, new AtomicReference<>(), new AtomicInteger());
+        Disposable subscription = WebClient.create("http://localhost:" + port)
+                .get()
+                .uri("/api/v1/broadcast/{broadcastId}/progress", broadcastId)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<JsonNode>>() {
+                })
+                .subscribe(event -> {
+                    watch.events().incrementAndGet();
+                    watch.latest().set(event.data());
+                });
+        return new ProgressWatch(broadcastId, watch.latest(), watch.events(), subscription);
+    }
+
+    /**
+     * The stream must catch up with the progress API within a few intervals.
+     */
+    private void assertProgressStream(ProgressWatch watch) {
+        JsonNode expected = restTemplate.getForObject(
+                "/api/v1/broadcast/" + watch.broadcastId() + "/progress", JsonNode.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!watch.matches(expected) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        watch.subscription().dispose();
+
+        log.info("Progress stream: broadcast {} got {} events, last={}",
+                watch.broadcastId(), watch.events().get(), watch.latest().get());
+        assertThat(watch.matches(expected)).as("progress stream caught up with %s", expected).isTrue();
+    }
+
+    private record ProgressWatch(Long broadcastId, AtomicReference<JsonNode> latest, AtomicInteger events,
+            Disposable subscription) {
+
+        ProgressWatch(Long broadcastId, AtomicReference<JsonNode> latest, AtomicInteger events) {
+            this(broadcastId, latest, events, null);
+        }
+
+        boolean matches(JsonNode expected) {
+            JsonNode current = latest.get();
+            return current != null
+                    && current.path("queued").asLong() == expected.path("queued").asLong()
+                    && current.path("sent").asLong() == expected.path("sent").asLong()
+                    && current.path("failed").asLong() == expected.path("failed").asLong();
+        }
+    }
+
+    /**
+     * Posts sent, delivered and read callbacks for every message that got a
+     * message_id, in shuffled order per chunk of messages as Meta does, and
+     * waits until all reports show read. For late-share of the
+     * messages the message_id is hidden while their webhooks arrive and put
+     * back afterwards, as if the send result committed after the statuses.
+     */
+    private void replayStatusWebhooks() {
+        List<Object[]> sent = jdbcTemplate.query(
+                "SELECT id, message_id FROM reports WHERE message_id IS NOT NULL",
+                (rs, i) -> new Object[] { rs.getLong(1), rs.getString(2) });
+        SplittableRandom random = new SplittableRandom(7);
+        List<Object[]> late = sent.stream()
+                .filter(row -> random.nextDouble() < WEBHOOK_LATE_SHARE)
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE reports SET message_id = NULL WHERE id = ?",
+                late.stream().map(row -> new Object[] { row[0] }).toList());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        long baseTimestamp = System.currentTimeMillis() / 1000;
+        int posted = 0;
+        long start = System.nanoTime();
+
+        for (int from = 0; from < sent.size(); from += WEBHOOK_BATCH) {
+            int[] phases = { 0, 1, 2 };
+            for (int i = phases.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = phases[i];
+                phases[i] = phases[j];
+                phases[j] = swap;
+            }
+            for (int phase : phases) {
+                StringBuilder statuses = new StringBuilder();
+                for (int i = from; i < Math.min(from + WEBHOOK_BATCH, sent.size()); i++) {
+                    if (statuses.length() > 0) {
+                        statuses.append(',');
+                    }
+                    statuses.append("{\"id\":\"").append(sent.get(i)[1])
+                            .append("\",\"status\":\"").append(WEBHOOK_STATUS_ORDER[phase])
+                            .append("\",\"timestamp\":\"").append(baseTimestamp + phase)
+                            .append("\",\"recipient_id\":\"910000000000\"}");
+                    posted++;
+                }
+                String body = "{\"object\":\"whatsapp_business_account\",\"entry\":[{\"id\":\"1\",\"changes\":[{\"field\":\"messages\","
+                        + "\"value\":{\"messaging_product\":\"whatsapp\",\"statuses\":[" + statuses + "]}}]}]}";
+
+                headers.set("X-Hub-Signature-256", sign(body));
+                ResponseEntity<String> response = restTemplate.postForEntity(
+                        "/api/v1/webhooks/whatsapp", new HttpEntity<>(body, headers), String.class);
+                assertThat(response.getStatusCode().is2xxSuccessful()).as("webhook response").isTrue();
+            }
+        }
+        long postNanos = System.nanoTime() - start;
+
+        // The late send results land now; their parked statuses apply on the next retry
+        jdbcTemplate.batchUpdate("UPDATE reports SET message_id = ? WHERE id = ?",
+                late.stream().map(row -> new Object[] { row[1], row[0] }).toList());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        int read = 0;
+        while (System.nanoTime() < deadline) {
+            read = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM reports WHERE message_status = 'read'", Integer.class);
+            if (read >= sent.size()) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        log.info("Webhook statuses: {} posted in {}ms ({} statuses/s), {} messages ({} late), all read after {}ms, {} rows written",
+                posted, TimeUnit.NANOSECONDS.toMillis(postNanos),
+                posted * 1_000_000_000L / Math.max(1, postNanos), sent.size(), late.size(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                (long) meterRegistry.counter("whatsapp.status.coalesce.written").count());
+
+        assertThat(read).as("reports marked read").isEqualTo(sent.size());
+
+        long progressDelivered = 0;
+        long progressRead = 0;
+        for (Long broadcastId : jdbcTemplate.queryForList(
+                "SELECT DISTINCT broadcast_id FROM reports", Long.class)) {
+            JsonNode progress = restTemplate.getForObject(
+                    "/api/v1/broadcast/" + broadcastId + "/progress", JsonNode.class);
+            progressDelivered += progress.path("delivered").asLong();
+            progressRead += progress.path("read").asLong();
+        }
+        assertThat(progressDelivered).as("progress delivered").isEqualTo(sent.size());
+        assertThat(progressRead).as("progress read").isEqualTo(sent.size());
+    }
+
+    /**
+     * X-Hub-Signature-256 as Meta computes it, with the harness app secret.
+     */
+    private String sign(String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(
+                    whatsappProperties.getWebhook().getAppSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Splits the run into dispatch requests, each for a single tenant.
+     */
+    private List<BroadcastDispatchRequestDto> planRequests() {
+        SplittableRandom random = new SplittableRandom(42);
+        int requestCount = (MESSAGES + REQUEST_SIZE - 1) / REQUEST_SIZE;
+        List<BroadcastDispatchRequestDto> requests = new ArrayList<>(requestCount);
+        int[] sentPerTenant = new int[TENANTS];
+
+        for (int r = 0; r < requestCount; r++) {
+            int tenant = TENANTS > 1 && random.nextDouble() >= HOT_TENANT_SHARE
+                    ? random.nextInt(TENANTS)
+                    : 0;
+            int sender = CONTROLS && tenant == 2 ? 0 : tenant;
+            String phoneNumberId = String.valueOf(PHONE_NUMBER_ID_BASE + sender);
+
+            WhatsappAccountInfo accountInfo = new WhatsappAccountInfo();
+            accountInfo.setPhoneNumberId(phoneNumberId);
+            accountInfo.setAccessToken("EAAG-loadtest-" + sender);
+
+            int size = Math.min(REQUEST_SIZE, MESSAGES - r * REQUEST_SIZE);
+            List<BroadcastDispatchItemDto> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String mobile = String.valueOf(910_000_000_000L + tenant * 10_000_000L + sentPerTenant[tenant]++);
+                BroadcastDispatchItemDto item = new BroadcastDispatchItemDto();
+                item.setBroadcastId(BROADCAST_ID_BASE + tenant);
+                item.setMobileNo(mobile);
+                item.setPayload("{\"messaging_product\":\"whatsapp\",\"to\":\"" + mobile
+                        + "\",\"type\":\"template\",\"template\":{\"name\":\"loadtest\",\"language\":{\"code\":\"en\"}}}");
+                items.add(item);
+            }
+
+            BroadcastDispatchRequestDto request = new BroadcastDispatchRequestDto();
+            request.setAccountInfo(accountInfo);
+            request.setItems(items);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * Inserts the pending report rows that the report-creating service would normally own.
+     */
+    private void seedReports(List<BroadcastDispatchRequestDto> requests) {
+        List<BroadcastDispatchItemDto> items = requests.stream()
+                .flatMap(request -> request.getItems().stream())
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO reports (user_id, broadcast_id, mobile, type, status, payload, platform, created_at, updated_at)
+                VALUES (1, ?, ?, 'template', 'pending', ?, 'api', ?, ?)
+                """,
+                items,
+                1_000,
+                (PreparedStatement ps, BroadcastDispatchItemDto item) -> {
+                    ps.setLong(1, item.getBroadcastId());
+                    ps.setString(2, item.getMobileNo());
+                    ps.setString(3, item.getPayload());
+                    ps.setTimestamp(4, now);
+                    ps.setTimestamp(5, now);
+                });
+    }
+}
@@ -0,0 +1,180 @@
+package com.aigreentick.services.messaging.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties.Distribution;
+import com.aigreentick.services.messaging.broadcast.client.config.WhatsappMockProperties.Latency;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * Local stand-in for the Graph API send endpoint, {@code POST /{version}/{phoneNumberId}/messages}.
+ * Answers with Graph-shaped success and error bodies after a sampled latency,
+ * without holding a thread per request.
+ *
+ * Point the real client at it with {@code whatsapp-service.base-url=http://localhost:<port>}.
+ * Standalone: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.aigreentick.services.messaging.loadtest.GraphApiStubServer -Dexec.args=8099
+ */
+@Slf4j
+public class GraphApiStubServer implements AutoCloseable {
+
+    private final Latency latency;
+    private final double failureRate;
+    private final int tenantMaxMps;
+
+    private final ConcurrentHashMap<String, TenantWindow> tenantWindows = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong messageCounter = new AtomicLong();
+
+    private DisposableServer server;
+
+    /**
+     * @param latency      Response latency model
+     * @param failureRate  Fraction of requests answered with a Graph error
+     * @param tenantMaxMps Per phoneNumberId MPS before answering 429 (0 = unlimited)
+     */
+    public GraphApiStubServer(Latency latency, double failureRate, int tenantMaxMps) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.tenantMaxMps = tenantMaxMps;
+    }
+
+    public GraphApiStubServer start(int port) {
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes.post("/{version}/{phoneNumberId}/messages", this::handleSend))
+                .bindNow();
+        log.info("Graph API stub listening on {}", getBaseUrl());
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Mono<Void> handleSend(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        String phoneNumberId = request.param("phoneNumberId");
+        String authorization = request.requestHeaders().get(HttpHeaderNames.AUTHORIZATION);
+
+        return request.receive().aggregate().asString().defaultIfEmpty("")
+                .flatMap(body -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Reply reply = decide(phoneNumberId, authorization, body, random);
+                    return Mono.delay(Duration.ofMillis(latency.sampleMs(random)))
+                            .then(response
+                                    .status(reply.status())
+                                    .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                    .sendString(Mono.just(reply.body()))
+                                    .then());
+                });
+    }
+
+    private Reply decide(String phoneNumberId, String authorization, String body, ThreadLocalRandom random) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            failures.incrementAndGet();
+            return error(HttpResponseStatus.UNAUTHORIZED, 190, "Invalid OAuth access token.", "OAuthException");
+        }
+
+        if (tenantMaxMps > 0 && tenantWindows.computeIfAbsent(phoneNumberId, k -> new TenantWindow())
+                .incrementAndGet(System.currentTimeMillis() / 1000) > tenantMaxMps) {
+            rateLimited.incrementAndGet();
+            return error(HttpResponseStatus.TOO_MANY_REQUESTS, 130429,
+                    "(#130429) Rate limit hit", "OAuthException");
+        }
+
+        if (random.nextDouble() < failureRate) {
+            failures.incrementAndGet();
+            return random.nextBoolean()
+                    ? error(HttpResponseStatus.BAD_REQUEST, 131026, "Message undeliverable", "OAuthException")
+                    : error(HttpResponseStatus.INTERNAL_SERVER_ERROR, 131000, "Something went wrong", "OAuthException");
+        }
+
+        String to = extractTo(body);
+        String messageId = "wamid." + Long.toHexString(random.nextLong()) + "_" + messageCounter.incrementAndGet();
+        return new Reply(HttpResponseStatus.OK, """
+                {"messaging_product":"whatsapp","contacts":[{"input":"%s","wa_id":"%s"}],\
+                "messages":[{"id":"%s","message_status":"accepted"}]}""".formatted(to, to, messageId));
+    }
+
+    private static Reply error(HttpResponseStatus status, int code, String message, String type) {
+        return new Reply(status, """
+                {"error":{"message":"%s","type":"%s","code":%d,"fbtrace_id":"A%s"}}"""
+                .formatted(message, type, code, Long.toHexString(ThreadLocalRandom.current().nextLong())));
+    }
+
+    /**
+     * Cheap lookup of the "to" field; the stub does not need a full parse.
+     */
+    private static String extractTo(String body) {
+        int key = body.indexOf("\"to\"");
+        if (key < 0) {
+            return "";
+        }
+        int start = body.indexOf('"', body.indexOf(':', key) + 1);
+        int end = start < 0 ? -1 : body.indexOf('"', start + 1);
+        return end < 0 ? "" : body.substring(start + 1, end);
+    }
+
+    private record Reply(HttpResponseStatus status, String body) {
+    }
+
+    private static class TenantWindow {
+        private long second;
+        private int count;
+
+        synchronized int incrementAndGet(long now) {
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            return ++count;
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        Latency latency = new Latency();
+        latency.setDistribution(Distribution.valueOf(System.getProperty("stub.latency", "LOGNORMAL")));
+        latency.setMedianMs(Long.getLong("stub.median-ms", 120L));
+
+        try (GraphApiStubServer stub = new GraphApiStubServer(
+                latency,
+                Double.parseDouble(System.getProperty("stub.failure-rate", "0.02")),
+                Integer.getInteger("stub.tenant-max-mps", 0)).start(port)) {
+            stub.server.onDispose().block();
+        }
+    }
+}
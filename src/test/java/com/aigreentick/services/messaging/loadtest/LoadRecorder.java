@@ -0,0 +1,126 @@
+package com.aigreentick.services.messaging.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.aigreentick.services.messaging.broadcast.repository.ReportRepository;
+import com.aigreentick.services.messaging.broadcast.service.impl.BatchCoordinator.DatabaseUpdate;
+import com.aigreentick.services.messaging.broadcast.service.impl.ReportServiceImpl;
+import com.aigreentick.services.messaging.config.ReportPersistenceProperties;
+
+/**
+ * Records dispatch-to-commit latency for every message the harness sends.
+ * Latency starts at the intended send time of the dispatch request, so a
+ * harness that falls behind its schedule does not hide queueing delay.
+ */
+public class LoadRecorder {
+
+    private final ConcurrentHashMap<String, Long> intendedStartNanos;
+    private final long[] latenciesNanos;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong rowsCommitted = new AtomicLong();
+
+    public LoadRecorder(int expectedMessages) {
+        this.intendedStartNanos = new ConcurrentHashMap<>(expectedMessages * 2);
+        this.latenciesNanos = new long[expectedMessages];
+    }
+
+    public void dispatched(long broadcastId, String mobile, long intendedStartNanos) {
+        this.intendedStartNanos.put(key(broadcastId, mobile), intendedStartNanos);
+    }
+
+    void committed(List<DatabaseUpdate> updates) {
+        long now = System.nanoTime();
+        commits.incrementAndGet();
+        rowsCommitted.addAndGet(updates.size());
+
+        for (DatabaseUpdate update : updates) {
+            Long start = intendedStartNanos.remove(key(update.broadcastId(), update.mobile()));
+            if (start == null) {
+                continue;
+            }
+            int slot = completed.getAndIncrement();
+            if (slot < latenciesNanos.length) {
+                latenciesNanos[slot] = now - start;
+            }
+        }
+    }
+
+    public int completed() {
+        return Math.min(completed.get(), latenciesNanos.length);
+    }
+
+    public long commits() {
+        return commits.get();
+    }
+
+    public long rowsCommitted() {
+        return rowsCommitted.get();
+    }
+
+    /**
+     * Sorted copy of the recorded latencies, in nanoseconds.
+     */
+    public long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latenciesNanos, completed());
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String key(long broadcastId, String mobile) {
+        return broadcastId + ":" + mobile;
+    }
+
+    /**
+     * Report writer that reports every batch to the recorder once its transaction commits.
+     */
+    public static class RecordingReportService extends ReportServiceImpl {
+
+        private final LoadRecorder recorder;
+
+        // Report writes fail until this time, standing in for a DB outage
+        private volatile long failUntilMs;
+
+        public RecordingReportService(
+                ReportRepository reportRepository,
+                JdbcTemplate jdbcTemplate,
+                ReportPersistenceProperties persistenceProperties,
+                LoadRecorder recorder) {
+            super(reportRepository, jdbcTemplate, persistenceProperties);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public int batchUpdateReports(List<DatabaseUpdate> updates) {
+            if (System.currentTimeMillis() < failUntilMs) {
+                throw new DataAccessResourceFailureException("Batch update failed: simulated outage");
+            }
+            int updated = super.batchUpdateReports(updates);
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recorder.committed(updates);
+                    }
+                });
+            } else {
+                recorder.committed(updates);
+            }
+            return updated;
+        }
+
+        public void failFor(long durationMs) {
+            failUntilMs = System.currentTimeMillis() + durationMs;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.aigreentick.services.messaging.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of one harness run.
+ */
+public record LoadReport(
+        int messagesSent,
+        int messagesCompleted,
+        double durationSeconds,
+        double messagesPerSecond,
+        double p50Millis,
+        double p99Millis,
+        double p999Millis,
+        double maxMillis,
+        double commitsPerSecond,
+        double rowsPerSecond,
+        long heapUsedMb,
+        long heapPeakMb,
+        long heapMaxMb,
+        long gcCount,
+        long gcTimeMillis) {
+
+    public static LoadReport from(
+            int messagesSent,
+            LoadRecorder recorder,
+            long elapsedNanos,
+            GcSnapshot gcBefore) {
+
+        long[] latencies = recorder.sortedLatencies();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        GcSnapshot gcAfter = GcSnapshot.take();
+        Runtime runtime = Runtime.getRuntime();
+
+        long heapPeak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                heapPeak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return new LoadReport(
+                messagesSent,
+                latencies.length,
+                seconds,
+                latencies.length / seconds,
+                percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.99),
+                percentileMillis(latencies, 0.999),
+                percentileMillis(latencies, 1.0),
+                recorder.commits() / seconds,
+                recorder.rowsCommitted() / seconds,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20,
+                heapPeak >> 20,
+                runtime.maxMemory() >> 20,
+                gcAfter.count() - gcBefore.count(),
+                gcAfter.timeMillis() - gcBefore.timeMillis());
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        long nanos = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("""
+                === Broadcast Load Report ===
+                Messages:        %d sent, %d committed
+                Duration:        %.2fs
+                Throughput:      %.1f msg/s
+                End-to-end:      p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms
+                DB commits:      %.1f tx/s (%.1f rows/s)
+                Heap:            used=%dMB peak=%dMB max=%dMB
+                GC:              %d collections, %dms total
+                """,
+                messagesSent, messagesCompleted,
+                durationSeconds,
+                messagesPerSecond,
+                p50Millis, p99Millis, p999Millis, maxMillis,
+                commitsPerSecond, rowsPerSecond,
+                heapUsedMb, heapPeakMb, heapMaxMb,
+                gcCount, gcTimeMillis);
+    }
+
+    /**
+     * Cumulative GC counters across all collectors.
+     */
+    public record GcSnapshot(long count, long timeMillis) {
+
+        public static GcSnapshot take() {
+            long count = 0;
+            long time = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                time += Math.max(0, gc.getCollectionTime());
+            }
+            return new GcSnapshot(count, time);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- Mirror of the production reports table for the embedded load harness (H2, MySQL mode)
+CREATE TABLE IF NOT EXISTS reports (
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id         BIGINT       NOT NULL,
+    broadcast_id    BIGINT,
+    campaign_id     BIGINT,
+    group_send_id   BIGINT,
+    tag_log_id      BIGINT,
+    mobile          VARCHAR(20)  NOT NULL,
+    type            VARCHAR(50)  NOT NULL DEFAULT 'template',
+    message_id      VARCHAR(255),
+    wa_id           VARCHAR(255),
+    message_status  VARCHAR(255),
+    status          VARCHAR(522) NOT NULL,
+    response        CLOB,
+    payload         CLOB,
+    contact         CLOB,
+    platform        VARCHAR(10)  NOT NULL DEFAULT 'api',
+    created_at      TIMESTAMP    NOT NULL,
+    updated_at      TIMESTAMP    NOT NULL,
+    deleted_at      TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_reports_broadcast_mobile ON reports (broadcast_id, mobile);